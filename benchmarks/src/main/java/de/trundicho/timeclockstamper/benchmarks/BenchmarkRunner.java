@@ -0,0 +1,26 @@
+package de.trundicho.timeclockstamper.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the gc profiler and writes the results to jmh-result.json. Accepts the usual JMH command line options,
+ * e.g. a benchmark regex or {@code -p months=120}.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        Options options = new OptionsBuilder().parent(commandLineOptions)
+                                              .addProfiler(GCProfiler.class)
+                                              .resultFormat(commandLineOptions.getResultFormat().orElse(ResultFormatType.JSON))
+                                              .build();
+        new Runner(options).run();
+    }
+}
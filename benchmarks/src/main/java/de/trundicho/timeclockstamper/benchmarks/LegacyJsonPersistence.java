@@ -0,0 +1,75 @@
+package de.trundicho.timeclockstamper.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.service.ClockTimePersistencePort;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Baseline for {@link PersistenceBenchmark}: month file I/O the way FilePersistence did it before readers, writers and read buffers
+ * were reused (a new TypeReference and pretty printer per call, reading and writing through {@link File}). It reads only the
+ * requested month file, so the comparison isolates serialization and I/O.
+ */
+class LegacyJsonPersistence implements ClockTimePersistencePort {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+    private final String persistenceFolder;
+    private final String persistenceFile;
+
+    LegacyJsonPersistence(String persistenceFolder, String persistenceFile) {
+        this.persistenceFolder = persistenceFolder;
+        this.persistenceFile = persistenceFile;
+    }
+
+    @Override
+    public void write(List<ClockTime> clockTimes, Integer year, Integer month) {
+        List<ClockTime> clockTimesOfMonth = clockTimes.stream()
+                                                      .filter(c -> c.getDate().getYear() == year && c.getDate().getMonthValue() == month)
+                                                      .sorted()
+                                                      .collect(Collectors.toList());
+        try {
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(file(year, month), clockTimesOfMonth);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public List<ClockTime> read(Integer year, Integer month) {
+        File file = file(year, month);
+        if (!file.isFile()) {
+            return new ArrayList<>();
+        }
+        try {
+            return new ArrayList<>(objectMapper.readValue(file, new TypeReference<List<ClockTime>>() {
+
+            }));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public long version(Integer year, Integer month) {
+        return 0;
+    }
+
+    @Override
+    public long compareAndWrite(List<ClockTime> clockTimes, Integer year, Integer month, long expectedVersion) {
+        write(clockTimes, year, month);
+        return 0;
+    }
+
+    private File file(int year, int month) {
+        return new File(persistenceFolder + year + "-" + (month < 10 ? "0" + month : "" + month) + "-" + persistenceFile);
+    }
+}
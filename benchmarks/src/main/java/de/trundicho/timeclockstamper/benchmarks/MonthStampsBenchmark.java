@@ -0,0 +1,134 @@
+package de.trundicho.timeclockstamper.benchmarks;
+
+import java.lang.ref.Reference;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.domain.model.MonthStamps;
+
+/**
+ * Heap cost of caching months as decoded {@link ClockTime} lists versus columnar {@link MonthStamps}. The retained heap per month
+ * is printed at setup; the cache benchmarks build all months in either form, so the gc profiler's {@code gc.alloc.rate.norm} is the
+ * heap a cache of that many months holds. The iterate benchmarks show the cost of the uncached list view of the columns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MonthStampsBenchmark {
+
+    private static final int COPIES = 200;
+
+    @Param({ "12", "120" })
+    int months;
+
+    private List<YearMonth> yearMonths;
+    private List<List<ClockTime>> history;
+    private List<MonthStamps> stamps;
+
+    @Setup(Level.Trial)
+    public void setupHistory() {
+        yearMonths = new ArrayList<>();
+        history = new ArrayList<>();
+        YearMonth current = SyntheticHistory.currentMonth();
+        for (int i = months; i > 0; i--) {
+            YearMonth yearMonth = current.minusMonths(i);
+            yearMonths.add(yearMonth);
+            history.add(SyntheticHistory.month(yearMonth));
+        }
+        stamps = cacheMonthStamps();
+        long clockTimeBytes = retainedBytes(this::cacheClockTimes);
+        long monthStampsBytes = retainedBytes(this::cacheMonthStamps);
+        System.out.println("# retained heap per month: clock times " + clockTimeBytes / months + " bytes, month stamps "
+                + monthStampsBytes / months + " bytes");
+    }
+
+    @Benchmark
+    public List<List<ClockTime>> cacheClockTimes() {
+        List<List<ClockTime>> cached = new ArrayList<>(months);
+        for (List<ClockTime> clockTimesOfMonth : history) {
+            List<ClockTime> decoded = new ArrayList<>(clockTimesOfMonth.size());
+            for (ClockTime clockTime : clockTimesOfMonth) {
+                decoded.add(decoded(clockTime));
+            }
+            cached.add(decoded);
+        }
+        return cached;
+    }
+
+    @Benchmark
+    public List<MonthStamps> cacheMonthStamps() {
+        List<MonthStamps> cached = new ArrayList<>(months);
+        for (int i = 0; i < months; i++) {
+            YearMonth yearMonth = yearMonths.get(i);
+            cached.add(MonthStamps.of(history.get(i), yearMonth.getYear(), yearMonth.getMonthValue()));
+        }
+        return cached;
+    }
+
+    @Benchmark
+    public void iterateClockTimes(Blackhole blackhole) {
+        for (List<ClockTime> clockTimesOfMonth : history) {
+            for (ClockTime clockTime : clockTimesOfMonth) {
+                blackhole.consume(clockTime.getDate());
+            }
+        }
+    }
+
+    @Benchmark
+    public void iterateMonthStamps(Blackhole blackhole) {
+        for (MonthStamps clockTimesOfMonth : stamps) {
+            for (ClockTime clockTime : clockTimesOfMonth) {
+                blackhole.consume(clockTime.getDate());
+            }
+        }
+    }
+
+    //own date objects per clock time, the way a codec decodes them
+    private static ClockTime decoded(ClockTime clockTime) {
+        LocalDateTime date = clockTime.getDate();
+        return new ClockTime().setDate(LocalDateTime.ofEpochSecond(date.toEpochSecond(ZoneOffset.UTC), date.getNano(),
+                ZoneOffset.UTC)).setPause(clockTime.getPause());
+    }
+
+    private static long retainedBytes(Supplier<Object> cache) {
+        Object[] copies = new Object[COPIES];
+        long before = usedHeap();
+        for (int i = 0; i < COPIES; i++) {
+            copies[i] = cache.get();
+        }
+        long after = usedHeap();
+        Reference.reachabilityFence(copies);
+        return (after - before) / COPIES;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,95 @@
+package de.trundicho.timeclockstamper.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.trundicho.timeclockstamper.core.adapters.persistence.BinaryClockTimeCodec;
+import de.trundicho.timeclockstamper.core.adapters.persistence.ClockTimeCodec;
+import de.trundicho.timeclockstamper.core.adapters.persistence.FilePersistence;
+import de.trundicho.timeclockstamper.core.adapters.persistence.JsonClockTimeCodec;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.service.ClockTimePersistencePort;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersistenceBenchmark {
+
+    @Param({ "1", "12", "60", "120" })
+    int months;
+
+    /**
+     * {@code legacy-json} is the JSON file I/O before readers, writers and read buffers were reused.
+     */
+    @Param({ "legacy-json", "json", "json-compact", "binary" })
+    String codec;
+
+    private Path folder;
+    private ClockTimePersistencePort persistence;
+    private YearMonth month;
+    private List<ClockTime> clockTimes;
+
+    @Setup(Level.Trial)
+    public void setupHistory() throws IOException {
+        folder = SyntheticHistory.createFolder();
+        persistence = persistence(folder + "/");
+        SyntheticHistory.write(persistence, months);
+        month = SyntheticHistory.currentMonth().minusMonths(months / 2);
+        clockTimes = SyntheticHistory.month(month);
+        System.out.println("# " + codec + " month file size: " + Files.size(folder.resolve(month + "-" + SyntheticHistory.PERSISTENCE_FILE))
+                + " bytes");
+    }
+
+    private ClockTimePersistencePort persistence(String persistenceFolder) {
+        switch (codec) {
+        case "legacy-json":
+            return new LegacyJsonPersistence(persistenceFolder, SyntheticHistory.PERSISTENCE_FILE);
+        case "json-compact":
+            return filePersistence(persistenceFolder, new JsonClockTimeCodec(false));
+        case "binary":
+            return filePersistence(persistenceFolder, new BinaryClockTimeCodec());
+        default:
+            return filePersistence(persistenceFolder, new JsonClockTimeCodec());
+        }
+    }
+
+    private static FilePersistence filePersistence(String persistenceFolder, ClockTimeCodec clockTimeCodec) {
+        return new FilePersistence(persistenceFolder, SyntheticHistory.PERSISTENCE_FILE, SyntheticHistory.TIME_ZONE, clockTimeCodec);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteHistory() throws IOException {
+        SyntheticHistory.deleteFolder(folder);
+    }
+
+    @Benchmark
+    public List<ClockTime> read() {
+        return persistence.read(month.getYear(), month.getMonthValue());
+    }
+
+    @Benchmark
+    public void write() {
+        persistence.write(clockTimes, month.getYear(), month.getMonthValue());
+    }
+}
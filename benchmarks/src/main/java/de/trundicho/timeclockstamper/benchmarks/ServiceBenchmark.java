@@ -0,0 +1,137 @@
+package de.trundicho.timeclockstamper.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.trundicho.timeclockstamper.core.adapters.persistence.CachingPersistence;
+import de.trundicho.timeclockstamper.core.adapters.persistence.FilePersistence;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTimeData;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTimeField;
+import de.trundicho.timeclockstamper.core.domain.model.OvertimeReport;
+import de.trundicho.timeclockstamper.core.service.TimeClockStamperService;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    @Param({ "1", "12", "60", "120" })
+    int months;
+
+    private Path folder;
+    private FilePersistence persistence;
+    private TimeClockStamperService service;
+    private TimeClockStamperService cachedService;
+    private YearMonth oldestMonth;
+    private YearMonth currentMonth;
+    private ClockTimeData day;
+    private String version;
+
+    @Setup(Level.Trial)
+    public void setupHistory() throws IOException {
+        folder = SyntheticHistory.createFolder();
+        persistence = new FilePersistence(folder + "/", SyntheticHistory.PERSISTENCE_FILE, SyntheticHistory.TIME_ZONE);
+        service = new TimeClockStamperService(SyntheticHistory.TIME_ZONE, persistence);
+        cachedService = new TimeClockStamperService(SyntheticHistory.TIME_ZONE,
+                new CachingPersistence(persistence, SyntheticHistory.TIME_ZONE));
+        SyntheticHistory.write(persistence, months);
+        currentMonth = SyntheticHistory.currentMonth();
+        oldestMonth = currentMonth.minusMonths(months - 1);
+        List<ClockTime> clockTimesOfDay = SyntheticHistory.month(oldestMonth.minusMonths(1)).subList(0, 4);
+        day = new ClockTimeData().setClockTimes(clockTimesOfDay);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCurrentMonth() {
+        persistence.write(SyntheticHistory.month(currentMonth), currentMonth.getYear(), currentMonth.getMonthValue());
+        version = service.getTimeClockResponse().getVersion();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteHistory() throws IOException {
+        SyntheticHistory.deleteFolder(folder);
+    }
+
+    /**
+     * Measures a stamp on a month of fixed size: today is cleared before every call, so stamps do not pile up over an iteration.
+     */
+    @Benchmark
+    public ClockTimeData stampInOrOut(TodayCleared todayCleared) {
+        return service.stampInOrOut();
+    }
+
+    @Benchmark
+    public ClockTimeData getTimeClockResponse() {
+        return service.getTimeClockResponse();
+    }
+
+    @Benchmark
+    public Optional<ClockTimeData> getTimeClockResponseIfModified() {
+        return service.getTimeClockResponseIfModified(version);
+    }
+
+    @Benchmark
+    public ClockTimeData getCurrentState() {
+        return service.getTimeClockResponse(EnumSet.of(ClockTimeField.CURRENT_STATE));
+    }
+
+    @Benchmark
+    public String getOvertimeMonth() {
+        return service.getOvertimeMonth(oldestMonth.getYear(), oldestMonth.getMonthValue());
+    }
+
+    @Benchmark
+    public void rebuildIndex() {
+        service.rebuildIndex(oldestMonth.getYear(), oldestMonth.getMonthValue());
+    }
+
+    @Benchmark
+    public void rebuildIndexCached() {
+        cachedService.rebuildIndex(oldestMonth.getYear(), oldestMonth.getMonthValue());
+    }
+
+    @Benchmark
+    public OvertimeReport getOvertimeRange() {
+        return service.getOvertimeRange(oldestMonth, currentMonth);
+    }
+
+    @Benchmark
+    public ClockTimeData setDay() {
+        ClockTime first = day.getClockTimes().get(0);
+        return service.setDay(day, first.getDate().getYear(), first.getDate().getMonthValue(), first.getDate().getDayOfMonth());
+    }
+
+    @State(Scope.Benchmark)
+    public static class TodayCleared {
+
+        private static final ClockTimeData NO_CLOCK_TIMES = new ClockTimeData().setClockTimes(List.of());
+
+        @Setup(Level.Invocation)
+        public void clearToday(ServiceBenchmark benchmark) {
+            benchmark.service.setToday(NO_CLOCK_TIMES);
+        }
+    }
+}
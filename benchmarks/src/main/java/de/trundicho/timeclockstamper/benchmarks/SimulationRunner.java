@@ -0,0 +1,60 @@
+package de.trundicho.timeclockstamper.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import de.trundicho.timeclockstamper.core.adapters.persistence.FilePersistence;
+import de.trundicho.timeclockstamper.core.adapters.persistence.JsonClockTimeCodec;
+import de.trundicho.timeclockstamper.core.app.SimulatedMonth;
+import de.trundicho.timeclockstamper.core.app.SimulationReport;
+import de.trundicho.timeclockstamper.core.app.StampSimulation;
+import de.trundicho.timeclockstamper.core.service.Metrics;
+
+/**
+ * Simulates years of stamps of many users on file persistence, one year after the other on the growing history, and prints the
+ * cost per operation and the storage used after every year.
+ * <p>
+ * {@code java -cp benchmarks/target/benchmarks.jar de.trundicho.timeclockstamper.benchmarks.SimulationRunner [years] [users]
+ * [threads]}
+ */
+public final class SimulationRunner {
+
+    private SimulationRunner() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int years = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int users = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        Path folder = SyntheticHistory.createFolder();
+        try {
+            StampSimulation simulation = new StampSimulation((userId, clock) -> new FilePersistence(folder + "/",
+                    userId + "-" + SyntheticHistory.PERSISTENCE_FILE, clock, new JsonClockTimeCodec(), Metrics.noop()),
+                    SyntheticHistory.TIME_ZONE, users, threads, 4711);
+            int firstYear = LocalDate.now().getYear() - years;
+            System.out.println("year  stamps  operations  us/op  simulated-s  storage-kB");
+            for (int year = firstYear; year < firstYear + years; year++) {
+                SimulationReport report = simulation.run(LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31));
+                long operations = 0;
+                long nanos = 0;
+                for (SimulatedMonth month : report.getMonths()) {
+                    operations += month.getOperations();
+                    nanos += month.getNanos();
+                }
+                System.out.printf("%d  %6d  %10d  %5.1f  %11.1f  %10d%n", year, report.getStamps(), operations,
+                        nanos / 1000.0 / operations, report.getElapsedNanos() / 1e9, size(folder) / 1024);
+            }
+        } finally {
+            SyntheticHistory.deleteFolder(folder);
+        }
+    }
+
+    private static long size(Path folder) throws IOException {
+        try (Stream<Path> files = Files.list(folder)) {
+            return files.mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+}
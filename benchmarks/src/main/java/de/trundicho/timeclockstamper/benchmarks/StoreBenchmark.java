@@ -0,0 +1,108 @@
+package de.trundicho.timeclockstamper.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.trundicho.timeclockstamper.core.adapters.persistence.FilePersistence;
+import de.trundicho.timeclockstamper.core.adapters.persistence.JdbcPersistence;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.domain.model.VersionedClockTimes;
+import de.trundicho.timeclockstamper.core.service.ClockTimePersistencePort;
+
+/**
+ * Same workload on the file and the embedded database adapter: month and range reads, month rewrites and stamps the way the
+ * service appends them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StoreBenchmark {
+
+    @Param({ "12", "120" })
+    int months;
+
+    @Param({ "file", "h2" })
+    String store;
+
+    private Path folder;
+    private ClockTimePersistencePort persistence;
+    private YearMonth month;
+    private YearMonth currentMonth;
+    private List<ClockTime> clockTimes;
+
+    @Setup(Level.Trial)
+    public void setupHistory() throws IOException {
+        folder = SyntheticHistory.createFolder();
+        if ("h2".equals(store)) {
+            DataSource dataSource = JdbcPersistence.h2DataSource("jdbc:h2:" + folder.resolve("clockTimes"));
+            JdbcPersistence.createSchema(dataSource);
+            persistence = new JdbcPersistence(dataSource, "benchmark", SyntheticHistory.TIME_ZONE);
+        } else {
+            persistence = new FilePersistence(folder + "/", SyntheticHistory.PERSISTENCE_FILE, SyntheticHistory.TIME_ZONE);
+        }
+        SyntheticHistory.write(persistence, months);
+        currentMonth = SyntheticHistory.currentMonth();
+        month = currentMonth.minusMonths(months / 2);
+        clockTimes = SyntheticHistory.month(month);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCurrentMonth() {
+        persistence.write(SyntheticHistory.month(currentMonth), currentMonth.getYear(), currentMonth.getMonthValue());
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteHistory() throws IOException {
+        SyntheticHistory.deleteFolder(folder);
+    }
+
+    @Benchmark
+    public List<ClockTime> readMonth() {
+        return persistence.read(month.getYear(), month.getMonthValue());
+    }
+
+    @Benchmark
+    public List<ClockTime> readYear() {
+        return persistence.readRange(currentMonth.minusMonths(11), currentMonth);
+    }
+
+    @Benchmark
+    public void writeMonth() {
+        persistence.write(clockTimes, month.getYear(), month.getMonthValue());
+    }
+
+    @Benchmark
+    public long stamp() {
+        int year = currentMonth.getYear();
+        int monthValue = currentMonth.getMonthValue();
+        VersionedClockTimes versioned = persistence.readVersioned(year, monthValue);
+        ClockTime clockTime = new ClockTime().setDate(LocalDateTime.of(year, monthValue, 1, 23, 59));
+        List<ClockTime> clockTimesWithStamp = new ArrayList<>(versioned.getClockTimes());
+        clockTimesWithStamp.add(clockTime);
+        return persistence.compareAndAppend(clockTime, clockTimesWithStamp, year, monthValue, versioned.getVersion());
+    }
+}
@@ -0,0 +1,79 @@
+package de.trundicho.timeclockstamper.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.service.ClockTimePersistencePort;
+
+/**
+ * Generates a deterministic working history: four stamps per working day, with an occasional explicit pause entry.
+ */
+public final class SyntheticHistory {
+
+    public static final String TIME_ZONE = "Europe/Berlin";
+    public static final String PERSISTENCE_FILE = "clockTime-list.json";
+
+    private SyntheticHistory() {
+    }
+
+    public static YearMonth currentMonth() {
+        return YearMonth.now(ZoneId.of(TIME_ZONE));
+    }
+
+    public static void write(ClockTimePersistencePort persistence, int months) {
+        YearMonth current = currentMonth();
+        for (int i = months - 1; i >= 0; i--) {
+            YearMonth yearMonth = current.minusMonths(i);
+            persistence.write(month(yearMonth), yearMonth.getYear(), yearMonth.getMonthValue());
+        }
+    }
+
+    public static List<ClockTime> month(YearMonth yearMonth) {
+        Random random = new Random(yearMonth.hashCode());
+        LocalDate today = LocalDate.now(ZoneId.of(TIME_ZONE));
+        List<ClockTime> clockTimes = new ArrayList<>();
+        for (int day = 1; day <= yearMonth.lengthOfMonth(); day++) {
+            LocalDate date = yearMonth.atDay(day);
+            if (!date.isBefore(today)) {
+                break;
+            }
+            if (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                continue;
+            }
+            clockTimes.add(clockTime(date, 7 + random.nextInt(2), random.nextInt(60)));
+            clockTimes.add(clockTime(date, 12, random.nextInt(15)));
+            clockTimes.add(clockTime(date, 12, 30 + random.nextInt(15)));
+            clockTimes.add(clockTime(date, 16 + random.nextInt(2), random.nextInt(60)));
+            if (random.nextInt(10) == 0) {
+                clockTimes.add(clockTime(date, 18, 0).setPause(15));
+            }
+        }
+        return clockTimes;
+    }
+
+    public static Path createFolder() throws IOException {
+        return Files.createTempDirectory("time-clock-stamper-benchmark");
+    }
+
+    public static void deleteFolder(Path folder) throws IOException {
+        try (Stream<Path> paths = Files.walk(folder)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private static ClockTime clockTime(LocalDate date, int hour, int minute) {
+        return new ClockTime().setDate(LocalDateTime.of(date.getYear(), date.getMonth(), date.getDayOfMonth(), hour, minute));
+    }
+}
@@ -0,0 +1,220 @@
+package de.trundicho.timeclockstamper.loadtest;
+
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.HdrHistogram.Histogram;
+
+import de.trundicho.timeclockstamper.core.adapters.api.ClockTimeDataDto;
+import de.trundicho.timeclockstamper.core.adapters.api.TimeClockStamperApi;
+import de.trundicho.timeclockstamper.core.adapters.api.TimeClockStamperApiImpl;
+import de.trundicho.timeclockstamper.core.adapters.persistence.FilePersistence;
+
+/**
+ * Drives {@link TimeClockStamperApiImpl} over {@link FilePersistence} from many threads. Every user has an own file set and one or
+ * more API instances; every worker picks a random user and operation per call. Latencies of the warmup are not recorded, stamps
+ * are counted throughout and compared with the persisted stamps at the end.
+ */
+public class LoadTest {
+
+    private final LoadTestOptions options;
+    private final Path folder;
+    private final TimeClockStamperApi[][] apis;
+    private final AtomicLongArray successfulStamps;
+    private volatile boolean stopRequested;
+    private volatile boolean stopRounds;
+
+    public LoadTest(LoadTestOptions options, Path folder) {
+        this.options = options;
+        this.folder = folder;
+        this.apis = new TimeClockStamperApi[options.getUsers()][options.getInstancesPerUser()];
+        for (int user = 0; user < options.getUsers(); user++) {
+            for (int instance = 0; instance < options.getInstancesPerUser(); instance++) {
+                apis[user][instance] = new TimeClockStamperApiImpl(options.getTimeZone(), persistence(user));
+            }
+        }
+        this.successfulStamps = new AtomicLongArray(options.getUsers());
+    }
+
+    public LoadTestResult run() throws InterruptedException {
+        YearMonth firstMonth = YearMonth.now(ZoneId.of(options.getTimeZone()));
+        CyclicBarrier round = new CyclicBarrier(options.getThreads(), () -> stopRounds = stopRequested);
+        long measureStart = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.getWarmupSeconds());
+        ExecutorService executor = executor();
+        List<Future<WorkerStats>> workers = new ArrayList<>();
+        for (int worker = 0; worker < options.getThreads(); worker++) {
+            workers.add(executor.submit(() -> work(round, measureStart)));
+        }
+        TimeUnit.SECONDS.sleep(options.getWarmupSeconds() + options.getDurationSeconds());
+        stopRequested = true;
+        long measureEnd = System.nanoTime();
+        WorkerStats total = new WorkerStats();
+        try {
+            for (Future<WorkerStats> worker : workers) {
+                total.add(worker.get());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Load test worker failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return new LoadTestResult(options, measureEnd - measureStart, total.latencies, total.errors, successfulStamps(),
+                persistedStamps(firstMonth, YearMonth.now(ZoneId.of(options.getTimeZone()))));
+    }
+
+    private WorkerStats work(CyclicBarrier round, long measureStart) {
+        WorkerStats stats = new WorkerStats();
+        String[] versions = new String[options.getUsers()];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            if (options.getScenario().isRounds()) {
+                if (!awaitRound(round) || stopRounds) {
+                    return stats;
+                }
+            } else if (stopRequested) {
+                return stats;
+            }
+            int user = random.nextInt(options.getUsers());
+            TimeClockStamperApi api = apis[user][random.nextInt(options.getInstancesPerUser())];
+            Operation operation = operation(random);
+            long start = System.nanoTime();
+            try {
+                call(operation, api, user, versions);
+            } catch (RuntimeException e) {
+                stats.errors.merge(operation, 1L, Long::sum);
+            }
+            long end = System.nanoTime();
+            if (start >= measureStart) {
+                stats.latencies.get(operation).recordValue(end - start);
+            }
+            if (options.getThinkTimeMillis() > 0 && !sleep(options.getThinkTimeMillis())) {
+                return stats;
+            }
+        }
+    }
+
+    private Operation operation(ThreadLocalRandom random) {
+        if (random.nextInt(100) >= options.getReadPercent()) {
+            return Operation.STAMP;
+        }
+        int read = random.nextInt(10);
+        if (read < 5) {
+            return Operation.GET_TIME_CLOCK_RESPONSE;
+        }
+        return read < 8 ? Operation.GET_CLOCK_STATUS : Operation.GET_TIME_CLOCK_RESPONSE_IF_MODIFIED;
+    }
+
+    private void call(Operation operation, TimeClockStamperApi api, int user, String[] versions) {
+        switch (operation) {
+            case STAMP:
+                api.stampInOrOut();
+                successfulStamps.incrementAndGet(user);
+                break;
+            case GET_TIME_CLOCK_RESPONSE:
+                versions[user] = api.getTimeClockResponse().getVersion();
+                break;
+            case GET_CLOCK_STATUS:
+                api.getClockStatus();
+                break;
+            case GET_TIME_CLOCK_RESPONSE_IF_MODIFIED:
+                api.getTimeClockResponseIfModified(versions[user])
+                   .map(ClockTimeDataDto::getVersion)
+                   .ifPresent(version -> versions[user] = version);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+    }
+
+    private long[] successfulStamps() {
+        long[] stamps = new long[options.getUsers()];
+        for (int user = 0; user < stamps.length; user++) {
+            stamps[user] = successfulStamps.get(user);
+        }
+        return stamps;
+    }
+
+    //read with a fresh instance, so nothing cached by the tested instances counts
+    private long[] persistedStamps(YearMonth from, YearMonth to) {
+        long[] stamps = new long[options.getUsers()];
+        for (int user = 0; user < stamps.length; user++) {
+            FilePersistence persistence = persistence(user);
+            for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+                stamps[user] += persistence.read(month.getYear(), month.getMonthValue()).size();
+            }
+        }
+        return stamps;
+    }
+
+    private FilePersistence persistence(int user) {
+        return new FilePersistence(folder + "/", "user-" + user + "-clockTime-list.json", options.getTimeZone());
+    }
+
+    private ExecutorService executor() {
+        if (options.isVirtualThreads()) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+                System.err.println("Virtual threads are not available, using platform threads");
+            }
+        }
+        return Executors.newFixedThreadPool(options.getThreads());
+    }
+
+    private static boolean awaitRound(CyclicBarrier round) {
+        try {
+            round.await();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (BrokenBarrierException e) {
+            return false;
+        }
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static class WorkerStats {
+
+        private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+        private final Map<Operation, Long> errors = new EnumMap<>(Operation.class);
+
+        WorkerStats() {
+            for (Operation operation : Operation.values()) {
+                latencies.put(operation, new Histogram(3));
+                errors.put(operation, 0L);
+            }
+        }
+
+        void add(WorkerStats other) {
+            for (Operation operation : Operation.values()) {
+                latencies.get(operation).add(other.latencies.get(operation));
+                errors.merge(operation, other.errors.get(operation), Long::sum);
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package de.trundicho.timeclockstamper.loadtest;
+
+/**
+ * Command line options in the form {@code --name=value}, e.g.
+ * {@code --scenario=STAMP_STORM --users=50 --threads=200 --virtualThreads=true --durationSeconds=60}.
+ */
+public class LoadTestOptions {
+
+    private Scenario scenario = Scenario.MIXED;
+    private int users = 10;
+    private int instancesPerUser = 1;
+    private int threads = Runtime.getRuntime().availableProcessors() * 4;
+    private boolean virtualThreads;
+    private int warmupSeconds = 5;
+    private int durationSeconds = 30;
+    private Integer readPercent;
+    private int thinkTimeMillis;
+    private String timeZone = "Europe/Berlin";
+    private String output = "loadtest-result.json";
+    private String label = "";
+
+    public static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            options.set(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        if (options.users < 1 || options.instancesPerUser < 1 || options.threads < 1 || options.durationSeconds < 1) {
+            throw new IllegalArgumentException("users, instancesPerUser, threads and durationSeconds must be positive");
+        }
+        if (options.getReadPercent() < 0 || options.getReadPercent() > 100) {
+            throw new IllegalArgumentException("readPercent must be between 0 and 100");
+        }
+        return options;
+    }
+
+    private void set(String name, String value) {
+        switch (name) {
+            case "scenario":
+                scenario = Scenario.valueOf(value);
+                break;
+            case "users":
+                users = Integer.parseInt(value);
+                break;
+            case "instancesPerUser":
+                instancesPerUser = Integer.parseInt(value);
+                break;
+            case "threads":
+                threads = Integer.parseInt(value);
+                break;
+            case "virtualThreads":
+                virtualThreads = Boolean.parseBoolean(value);
+                break;
+            case "warmupSeconds":
+                warmupSeconds = Integer.parseInt(value);
+                break;
+            case "durationSeconds":
+                durationSeconds = Integer.parseInt(value);
+                break;
+            case "readPercent":
+                readPercent = Integer.parseInt(value);
+                break;
+            case "thinkTimeMillis":
+                thinkTimeMillis = Integer.parseInt(value);
+                break;
+            case "timeZone":
+                timeZone = value;
+                break;
+            case "output":
+                output = value;
+                break;
+            case "label":
+                label = value;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option --" + name);
+        }
+    }
+
+    public Scenario getScenario() {
+        return scenario;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    /**
+     * API instances with their own persistence per user. More than one behaves like several processes writing the same files,
+     * which the lost update check should catch.
+     */
+    public int getInstancesPerUser() {
+        return instancesPerUser;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public int getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public int getReadPercent() {
+        return readPercent == null ? scenario.getDefaultReadPercent() : readPercent;
+    }
+
+    public int getThinkTimeMillis() {
+        return thinkTimeMillis;
+    }
+
+    public String getTimeZone() {
+        return timeZone;
+    }
+
+    public String getOutput() {
+        return output;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,116 @@
+package de.trundicho.timeclockstamper.loadtest;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Throughput, latency percentiles and errors per operation plus the lost update check of one run, as JSON with stable field
+ * names so runs of different versions can be compared.
+ */
+public class LoadTestResult {
+
+    private final LoadTestOptions options;
+    private final long measuredNanos;
+    private final Map<Operation, Histogram> latencies;
+    private final Map<Operation, Long> errors;
+    private final long[] successfulStamps;
+    private final long[] persistedStamps;
+
+    LoadTestResult(LoadTestOptions options, long measuredNanos, Map<Operation, Histogram> latencies, Map<Operation, Long> errors,
+            long[] successfulStamps, long[] persistedStamps) {
+        this.options = options;
+        this.measuredNanos = measuredNanos;
+        this.latencies = latencies;
+        this.errors = errors;
+        this.successfulStamps = successfulStamps;
+        this.persistedStamps = persistedStamps;
+    }
+
+    /**
+     * Stamps that were acknowledged but are missing from the files.
+     */
+    public long getLostStamps() {
+        long lost = 0;
+        for (int user = 0; user < successfulStamps.length; user++) {
+            lost += Math.max(0, successfulStamps[user] - persistedStamps[user]);
+        }
+        return lost;
+    }
+
+    public ObjectNode toJson(ObjectMapper objectMapper) {
+        ObjectNode result = objectMapper.createObjectNode();
+        result.put("label", options.getLabel());
+        result.put("finishedAt", Instant.now().toString());
+        result.put("javaVersion", System.getProperty("java.version"));
+        ObjectNode settings = result.putObject("options");
+        settings.put("scenario", options.getScenario().name());
+        settings.put("users", options.getUsers());
+        settings.put("instancesPerUser", options.getInstancesPerUser());
+        settings.put("threads", options.getThreads());
+        settings.put("virtualThreads", options.isVirtualThreads());
+        settings.put("readPercent", options.getReadPercent());
+        settings.put("thinkTimeMillis", options.getThinkTimeMillis());
+        settings.put("warmupSeconds", options.getWarmupSeconds());
+        settings.put("durationSeconds", options.getDurationSeconds());
+        double seconds = measuredNanos / 1e9;
+        result.put("measuredSeconds", seconds);
+        long totalCount = 0;
+        long totalErrors = 0;
+        ObjectNode operations = result.putObject("operations");
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = latencies.get(operation);
+            long operationErrors = errors.get(operation);
+            totalCount += histogram.getTotalCount();
+            totalErrors += operationErrors;
+            ObjectNode node = operations.putObject(operation.name());
+            node.put("count", histogram.getTotalCount());
+            node.put("errors", operationErrors);
+            node.put("throughputPerSecond", histogram.getTotalCount() / seconds);
+            node.put("meanMicros", histogram.getMean() / 1000);
+            node.put("p50Micros", histogram.getValueAtPercentile(50) / 1000.0);
+            node.put("p99Micros", histogram.getValueAtPercentile(99) / 1000.0);
+            node.put("p999Micros", histogram.getValueAtPercentile(99.9) / 1000.0);
+            node.put("maxMicros", histogram.getMaxValue() / 1000.0);
+        }
+        result.put("count", totalCount);
+        result.put("errors", totalErrors);
+        result.put("throughputPerSecond", totalCount / seconds);
+        ObjectNode lostUpdates = result.putObject("lostUpdates");
+        long successful = 0;
+        long persisted = 0;
+        int usersWithLostStamps = 0;
+        for (int user = 0; user < successfulStamps.length; user++) {
+            successful += successfulStamps[user];
+            persisted += persistedStamps[user];
+            if (persistedStamps[user] < successfulStamps[user]) {
+                usersWithLostStamps++;
+            }
+        }
+        lostUpdates.put("successfulStamps", successful);
+        lostUpdates.put("persistedStamps", persisted);
+        lostUpdates.put("lostStamps", getLostStamps());
+        lostUpdates.put("usersWithLostStamps", usersWithLostStamps);
+        return result;
+    }
+
+    public void printSummary(PrintStream out) {
+        out.printf("%-36s %9s %7s %10s %10s %10s %10s%n", "operation", "ops/s", "errors", "p50 us", "p99 us", "p99.9 us", "max us");
+        double seconds = measuredNanos / 1e9;
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = latencies.get(operation);
+            if (histogram.getTotalCount() == 0 && errors.get(operation) == 0) {
+                continue;
+            }
+            out.printf("%-36s %9.1f %7d %10.1f %10.1f %10.1f %10.1f%n", operation, histogram.getTotalCount() / seconds,
+                    errors.get(operation), histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMaxValue() / 1000.0);
+        }
+        out.println("lost stamps: " + getLostStamps());
+    }
+}
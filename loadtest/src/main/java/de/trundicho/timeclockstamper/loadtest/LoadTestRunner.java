@@ -0,0 +1,40 @@
+package de.trundicho.timeclockstamper.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Runs one load test on a fresh temporary folder, prints a summary and writes the result as JSON. Exits with status 2 if stamps
+ * were lost.
+ */
+public final class LoadTestRunner {
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        Path folder = Files.createTempDirectory("time-clock-stamper-loadtest");
+        LoadTestResult result;
+        try {
+            result = new LoadTest(options, folder).run();
+        } finally {
+            try (Stream<Path> paths = Files.walk(folder)) {
+                paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+        result.printSummary(System.out);
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        objectMapper.writeValue(new File(options.getOutput()), result.toJson(objectMapper));
+        if (result.getLostStamps() > 0) {
+            System.exit(2);
+        }
+    }
+}
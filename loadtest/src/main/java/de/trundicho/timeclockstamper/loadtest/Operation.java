@@ -0,0 +1,9 @@
+package de.trundicho.timeclockstamper.loadtest;
+
+public enum Operation {
+
+    STAMP,
+    GET_TIME_CLOCK_RESPONSE,
+    GET_CLOCK_STATUS,
+    GET_TIME_CLOCK_RESPONSE_IF_MODIFIED
+}
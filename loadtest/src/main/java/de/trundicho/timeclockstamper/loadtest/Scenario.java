@@ -0,0 +1,36 @@
+package de.trundicho.timeclockstamper.loadtest;
+
+/**
+ * Load shapes of the harness. The read percentage of a scenario can be overridden with {@code --readPercent}.
+ */
+public enum Scenario {
+
+    /**
+     * Everybody stamps at once, in rounds that start together like at a shift change.
+     */
+    STAMP_STORM(0, true),
+    /**
+     * Steady dashboard polling of the full response, the status and conditional reads.
+     */
+    DASHBOARD(100, false),
+    /**
+     * Mostly polling with stamps in between.
+     */
+    MIXED(90, false);
+
+    private final int defaultReadPercent;
+    private final boolean rounds;
+
+    Scenario(int defaultReadPercent, boolean rounds) {
+        this.defaultReadPercent = defaultReadPercent;
+        this.rounds = rounds;
+    }
+
+    public int getDefaultReadPercent() {
+        return defaultReadPercent;
+    }
+
+    public boolean isRounds() {
+        return rounds;
+    }
+}
@@ -0,0 +1,45 @@
+package de.trundicho.timeclockstamper.core.adapters.api;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking variant of {@link TimeClockStamperApi}. Futures of calls that could not be queued because the I/O executor is
+ * saturated complete exceptionally with a {@link java.util.concurrent.RejectedExecutionException}.
+ */
+public interface AsyncTimeClockStamperApi {
+
+    CompletableFuture<ClockTimeDataDto> stampInOrOut();
+
+    CompletableFuture<ClockTimeDataDto> getTimeClockResponse();
+
+    CompletableFuture<ClockTimeDataDto> getTimeClockResponse(Set<ClockTimeFieldDto> fields);
+
+    CompletableFuture<Optional<ClockTimeDataDto>> getTimeClockResponseIfModified(String version);
+
+    CompletableFuture<ClockStatusDto> getClockStatus();
+
+    CompletableFuture<String> getOvertimeMonth(Integer year, Integer month);
+
+    CompletableFuture<OvertimeReportDto> getOvertimeRange(YearMonth from, YearMonth to);
+
+    CompletableFuture<OvertimeReportDto> getOvertimeYear(Integer year);
+
+    CompletableFuture<ClockTimeDataDto> stamp(LocalTime time);
+
+    CompletableFuture<ClockTimeDataDto> setToday(ClockTimeDataDto clockTimeDto);
+
+    CompletableFuture<ClockTimeDataDto> setDay(ClockTimeDataDto clockTimeDto, Integer year, Integer month, Integer day);
+
+    CompletableFuture<ClockTimeBatchDataDto> setDays(Map<LocalDate, List<ClockTimeDto>> clockTimesByDay);
+
+    CompletableFuture<ClockTimeDataDto> getDay(Integer year, Integer month, Integer day);
+
+    CompletableFuture<Optional<ClockTimeDataDto>> getDayIfModified(String version, Integer year, Integer month, Integer day);
+}
@@ -0,0 +1,128 @@
+package de.trundicho.timeclockstamper.core.adapters.api;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import de.trundicho.timeclockstamper.core.service.ClockTimePersistencePort;
+
+/**
+ * Runs every call of a {@link TimeClockStamperApi} on an I/O executor, so callers never block on persistence. {@link #close()}
+ * shuts down the executor only if this instance created it; a passed executor stays with its owner.
+ */
+public class AsyncTimeClockStamperApiImpl implements AsyncTimeClockStamperApi, AutoCloseable {
+
+    private final TimeClockStamperApi timeClockStamperApi;
+    private final Executor ioExecutor;
+    private final BoundedIoExecutor ownedExecutor;
+
+    public AsyncTimeClockStamperApiImpl(String timeZone, ClockTimePersistencePort clockTimePersistencePort) {
+        this(BoundedIoExecutor.virtualThreadsIfAvailable(Runtime.getRuntime().availableProcessors() * 4, 10_000),
+                new TimeClockStamperApiImpl(timeZone, clockTimePersistencePort));
+    }
+
+    public AsyncTimeClockStamperApiImpl(TimeClockStamperApi timeClockStamperApi, Executor ioExecutor) {
+        this.timeClockStamperApi = timeClockStamperApi;
+        this.ioExecutor = ioExecutor;
+        this.ownedExecutor = null;
+    }
+
+    private AsyncTimeClockStamperApiImpl(BoundedIoExecutor ownedExecutor, TimeClockStamperApi timeClockStamperApi) {
+        this.timeClockStamperApi = timeClockStamperApi;
+        this.ioExecutor = ownedExecutor;
+        this.ownedExecutor = ownedExecutor;
+    }
+
+    @Override
+    public CompletableFuture<ClockTimeDataDto> stampInOrOut() {
+        return async(timeClockStamperApi::stampInOrOut);
+    }
+
+    @Override
+    public CompletableFuture<ClockTimeDataDto> getTimeClockResponse() {
+        return async(timeClockStamperApi::getTimeClockResponse);
+    }
+
+    @Override
+    public CompletableFuture<ClockTimeDataDto> getTimeClockResponse(Set<ClockTimeFieldDto> fields) {
+        return async(() -> timeClockStamperApi.getTimeClockResponse(fields));
+    }
+
+    @Override
+    public CompletableFuture<Optional<ClockTimeDataDto>> getTimeClockResponseIfModified(String version) {
+        return async(() -> timeClockStamperApi.getTimeClockResponseIfModified(version));
+    }
+
+    @Override
+    public CompletableFuture<ClockStatusDto> getClockStatus() {
+        return async(timeClockStamperApi::getClockStatus);
+    }
+
+    @Override
+    public CompletableFuture<String> getOvertimeMonth(Integer year, Integer month) {
+        return async(() -> timeClockStamperApi.getOvertimeMonth(year, month));
+    }
+
+    @Override
+    public CompletableFuture<OvertimeReportDto> getOvertimeRange(YearMonth from, YearMonth to) {
+        return async(() -> timeClockStamperApi.getOvertimeRange(from, to));
+    }
+
+    @Override
+    public CompletableFuture<OvertimeReportDto> getOvertimeYear(Integer year) {
+        return async(() -> timeClockStamperApi.getOvertimeYear(year));
+    }
+
+    @Override
+    public CompletableFuture<ClockTimeDataDto> stamp(LocalTime time) {
+        return async(() -> timeClockStamperApi.stamp(time));
+    }
+
+    @Override
+    public CompletableFuture<ClockTimeDataDto> setToday(ClockTimeDataDto clockTimeDto) {
+        return async(() -> timeClockStamperApi.setToday(clockTimeDto));
+    }
+
+    @Override
+    public CompletableFuture<ClockTimeDataDto> setDay(ClockTimeDataDto clockTimeDto, Integer year, Integer month, Integer day) {
+        return async(() -> timeClockStamperApi.setDay(clockTimeDto, year, month, day));
+    }
+
+    @Override
+    public CompletableFuture<ClockTimeBatchDataDto> setDays(Map<LocalDate, List<ClockTimeDto>> clockTimesByDay) {
+        return async(() -> timeClockStamperApi.setDays(clockTimesByDay));
+    }
+
+    @Override
+    public CompletableFuture<ClockTimeDataDto> getDay(Integer year, Integer month, Integer day) {
+        return async(() -> timeClockStamperApi.getDay(year, month, day));
+    }
+
+    @Override
+    public CompletableFuture<Optional<ClockTimeDataDto>> getDayIfModified(String version, Integer year, Integer month, Integer day) {
+        return async(() -> timeClockStamperApi.getDayIfModified(version, year, month, day));
+    }
+
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.close();
+        }
+    }
+
+    private <T> CompletableFuture<T> async(Supplier<T> call) {
+        try {
+            return CompletableFuture.supplyAsync(call, ioExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
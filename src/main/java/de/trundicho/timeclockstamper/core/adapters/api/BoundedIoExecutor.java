@@ -0,0 +1,106 @@
+package de.trundicho.timeclockstamper.core.adapters.api;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Executor for blocking persistence calls that accepts at most a fixed number of running plus waiting tasks and rejects the rest
+ * with a {@link RejectedExecutionException}, so callers see backpressure instead of an ever-growing queue.
+ * <p>
+ * Tasks run either on a fixed pool of platform threads or, on Java 21 and later, on one virtual thread per task. Virtual threads
+ * are looked up reflectively so the library still runs on Java 11.
+ */
+@Slf4j
+public class BoundedIoExecutor implements Executor, AutoCloseable {
+
+    private final ExecutorService delegate;
+    private final Semaphore permits;
+    private final boolean virtualThreads;
+
+    private BoundedIoExecutor(ExecutorService delegate, int maxTasks, boolean virtualThreads) {
+        if (maxTasks < 1) {
+            throw new IllegalArgumentException("At least one task must be allowed");
+        }
+        this.delegate = delegate;
+        this.permits = new Semaphore(maxTasks);
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * {@code threads} platform threads with room for {@code queueCapacity} waiting tasks.
+     */
+    public static BoundedIoExecutor platformThreads(int threads, int queueCapacity) {
+        return new BoundedIoExecutor(Executors.newFixedThreadPool(threads, new IoThreadFactory()), threads + queueCapacity, false);
+    }
+
+    /**
+     * Virtual threads if the runtime has them, {@link #platformThreads(int, int)} otherwise. {@code threads + queueCapacity} bounds
+     * the in-flight tasks either way.
+     */
+    public static BoundedIoExecutor virtualThreadsIfAvailable(int threads, int queueCapacity) {
+        try {
+            ExecutorService virtual = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            return new BoundedIoExecutor(virtual, threads + queueCapacity, true);
+        } catch (NoSuchMethodException e) {
+            log.info("Virtual threads are not available, using {} platform I/O threads", threads);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            log.warn("Can not create virtual thread executor, using {} platform I/O threads", threads, e);
+        }
+        return platformThreads(threads, queueCapacity);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!permits.tryAcquire()) {
+            throw new RejectedExecutionException("I/O executor is saturated");
+        }
+        try {
+            delegate.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    @Override
+    public void close() {
+        delegate.shutdown();
+    }
+
+    private static class IoThreadFactory implements ThreadFactory {
+
+        private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+        private final int poolNumber = POOL_NUMBER.incrementAndGet();
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "time-clock-io-" + poolNumber + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
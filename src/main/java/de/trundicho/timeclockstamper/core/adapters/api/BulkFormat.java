@@ -0,0 +1,12 @@
+package de.trundicho.timeclockstamper.core.adapters.api;
+
+public enum BulkFormat {
+    /**
+     * One {@code date,pause} line per stamp after a {@code date,pause} header, e.g. {@code 2022-01-05T09:00,30}.
+     */
+    CSV,
+    /**
+     * One JSON object per line, e.g. {@code {"date":"2022-01-05T09:00:00","pause":null}}.
+     */
+    NDJSON
+}
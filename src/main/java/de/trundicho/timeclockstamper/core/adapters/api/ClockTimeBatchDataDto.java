@@ -0,0 +1,16 @@
+package de.trundicho.timeclockstamper.core.adapters.api;
+
+import java.util.List;
+
+import lombok.Data;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+
+@Data
+@ToString
+@Accessors(chain = true)
+public class ClockTimeBatchDataDto {
+
+    private List<ClockTimeDataDto> days;
+    private List<MonthOvertimeDto> months;
+}
@@ -0,0 +1,214 @@
+package de.trundicho.timeclockstamper.core.adapters.api;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Incremental readers and writers for {@link BulkFormat}s. Readers parse one record per {@link Iterator#next()}, writers emit one
+ * record per {@link Consumer#accept(Object)}; neither closes the given stream. I/O errors surface as {@link UncheckedIOException}.
+ */
+class ClockTimeBulkStreams {
+
+    private static final String CSV_HEADER = "date,pause";
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+                                                        .addModule(new JavaTimeModule())
+                                                        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                                                        .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                                                        .disable(JsonParser.Feature.AUTO_CLOSE_SOURCE)
+                                                        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                                                        .build();
+    private final ObjectReader clockTimeReader = objectMapper.readerFor(ClockTimeDto.class);
+    private final ObjectWriter clockTimeWriter = objectMapper.writerFor(ClockTimeDto.class);
+
+    /**
+     * Hands the records of {@code input} to {@code importer} one at a time, mapped by {@code mapping}. I/O errors while reading
+     * are thrown as they are.
+     */
+    <T, R> R importFrom(InputStream input, BulkFormat format, Function<ClockTimeDto, T> mapping, Function<Iterator<T>, R> importer)
+            throws IOException {
+        Iterator<ClockTimeDto> clockTimes = reader(input, format);
+        try {
+            return importer.apply(new Iterator<>() {
+
+                @Override
+                public boolean hasNext() {
+                    return clockTimes.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    return mapping.apply(clockTimes.next());
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Writes every record {@code exporter} passes to its consumer to {@code output} and flushes it. I/O errors while writing are
+     * thrown as they are.
+     */
+    void exportTo(OutputStream output, BulkFormat format, Consumer<Consumer<ClockTimeDto>> exporter) throws IOException {
+        try {
+            if (format == BulkFormat.CSV) {
+                Writer writer = writer(output);
+                exporter.accept(csvWriter(writer));
+                writer.flush();
+            } else {
+                JsonGenerator generator = ndjsonGenerator(output);
+                exporter.accept(ndjsonWriter(generator));
+                generator.flush();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    Iterator<ClockTimeDto> reader(InputStream input, BulkFormat format) throws IOException {
+        return format == BulkFormat.CSV ? csvReader(input) : ndjsonReader(input);
+    }
+
+    Writer writer(OutputStream output) {
+        return new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+    }
+
+    Consumer<ClockTimeDto> csvWriter(Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        return clockTime -> {
+            try {
+                writer.write(clockTime.getDate().toString());
+                writer.write(',');
+                if (clockTime.getPause() != null) {
+                    writer.write(Integer.toString(clockTime.getPause()));
+                }
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    JsonGenerator ndjsonGenerator(OutputStream output) throws IOException {
+        return objectMapper.getFactory().createGenerator(output);
+    }
+
+    Consumer<ClockTimeDto> ndjsonWriter(JsonGenerator generator) {
+        return clockTime -> {
+            try {
+                clockTimeWriter.writeValue(generator, clockTime);
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    private Iterator<ClockTimeDto> ndjsonReader(InputStream input) throws IOException {
+        JsonParser parser = objectMapper.getFactory().createParser(input);
+        return new Iterator<>() {
+
+            private JsonToken token = parser.nextToken();
+
+            @Override
+            public boolean hasNext() {
+                return token == JsonToken.START_OBJECT;
+            }
+
+            @Override
+            public ClockTimeDto next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    ClockTimeDto clockTime = clockTimeReader.readValue(parser);
+                    token = parser.nextToken();
+                    return clockTime;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    private Iterator<ClockTimeDto> csvReader(InputStream input) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        return new Iterator<>() {
+
+            private int lineNumber = 1;
+            private String line = skipHeader(reader.readLine());
+
+            @Override
+            public boolean hasNext() {
+                return line != null;
+            }
+
+            @Override
+            public ClockTimeDto next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    ClockTimeDto clockTime = parseCsvLine(line, lineNumber);
+                    line = nextLine();
+                    return clockTime;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            private String skipHeader(String firstLine) throws IOException {
+                if (firstLine != null && firstLine.trim().equalsIgnoreCase(CSV_HEADER)) {
+                    return nextLine();
+                }
+                return firstLine == null || !firstLine.isBlank() ? firstLine : nextLine();
+            }
+
+            private String nextLine() throws IOException {
+                String next;
+                do {
+                    next = reader.readLine();
+                    lineNumber++;
+                } while (next != null && next.isBlank());
+                return next;
+            }
+        };
+    }
+
+    private static ClockTimeDto parseCsvLine(String line, int lineNumber) throws IOException {
+        int comma = line.indexOf(',');
+        String date = (comma < 0 ? line : line.substring(0, comma)).trim();
+        String pause = comma < 0 ? "" : line.substring(comma + 1).trim();
+        try {
+            return new ClockTimeDto().setDate(LocalDateTime.parse(date)).setPause(pause.isEmpty() ? null : Integer.valueOf(pause));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IOException("Invalid clock time in line " + lineNumber + ": " + line, e);
+        }
+    }
+}
@@ -15,4 +15,5 @@ public class ClockTimeDataDto {
     private String hoursWorkedToday;
     private String overtimeMonth;
     private List<ClockTimeDto> clockTimes;
+    private String version;
 }
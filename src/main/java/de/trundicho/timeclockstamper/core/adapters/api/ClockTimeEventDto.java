@@ -0,0 +1,25 @@
+package de.trundicho.timeclockstamper.core.adapters.api;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import lombok.Data;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+
+@Data
+@ToString
+@Accessors(chain = true)
+public class ClockTimeEventDto {
+
+    private YearMonth yearMonth;
+    private long version;
+    private List<Integer> days;
+    private ClockTypeDto currentState;
+    private LocalDateTime openSince;
+    private int workedMinutesToday;
+    private String hoursWorkedToday;
+    private int overtimeMonthMinutes;
+    private int overtimeDeltaMinutes;
+}
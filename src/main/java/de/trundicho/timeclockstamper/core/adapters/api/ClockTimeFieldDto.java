@@ -0,0 +1,8 @@
+package de.trundicho.timeclockstamper.core.adapters.api;
+
+public enum ClockTimeFieldDto {
+    CURRENT_STATE,
+    HOURS_WORKED_TODAY,
+    OVERTIME_MONTH,
+    CLOCK_TIMES
+}
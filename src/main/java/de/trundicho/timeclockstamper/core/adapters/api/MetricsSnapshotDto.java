@@ -0,0 +1,16 @@
+package de.trundicho.timeclockstamper.core.adapters.api;
+
+import java.util.Map;
+
+import lombok.Data;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+
+@Data
+@ToString
+@Accessors(chain = true)
+public class MetricsSnapshotDto {
+
+    private Map<String, Long> counters;
+    private Map<String, TimerSnapshotDto> timers;
+}
@@ -0,0 +1,60 @@
+package de.trundicho.timeclockstamper.core.adapters.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import de.trundicho.timeclockstamper.core.service.Subscription;
+
+public interface MultiTenantTimeClockStamperApi {
+
+    ClockTimeDataDto stampInOrOut(String tenantId);
+
+    ClockTimeDataDto getTimeClockResponse(String tenantId);
+
+    ClockTimeDataDto getTimeClockResponse(String tenantId, Set<ClockTimeFieldDto> fields);
+
+    Optional<ClockTimeDataDto> getTimeClockResponseIfModified(String tenantId, String version);
+
+    ClockStatusDto getClockStatus(String tenantId);
+
+    Subscription subscribe(String tenantId, Consumer<ClockTimeEventDto> listener);
+
+    String getOvertimeMonth(String tenantId, Integer year, Integer month);
+
+    OvertimeReportDto getOvertimeRange(String tenantId, YearMonth from, YearMonth to);
+
+    OvertimeReportDto getOvertimeYear(String tenantId, Integer year);
+
+    ClockTimeDataDto stamp(String tenantId, LocalTime time);
+
+    ClockTimeDataDto setToday(String tenantId, ClockTimeDataDto clockTimeDto);
+
+    ClockTimeDataDto setDay(String tenantId, ClockTimeDataDto clockTimeDto, Integer year, Integer month, Integer day);
+
+    ClockTimeDataDto getDay(String tenantId, Integer year, Integer month, Integer day);
+
+    ClockTimeBatchDataDto setDays(String tenantId, Map<LocalDate, List<ClockTimeDto>> clockTimesByDay);
+
+    Optional<ClockTimeDataDto> getDayIfModified(String tenantId, String version, Integer year, Integer month, Integer day);
+
+    /**
+     * Metrics of all tenants together.
+     */
+    MetricsSnapshotDto getMetricsSnapshot();
+
+    /**
+     * Streams stamps from {@code input} into the months of the tenant and returns the number of added stamps.
+     */
+    int importClockTimes(String tenantId, InputStream input, BulkFormat format) throws IOException;
+
+    void exportClockTimes(String tenantId, YearMonth from, YearMonth to, BulkFormat format, OutputStream output) throws IOException;
+}
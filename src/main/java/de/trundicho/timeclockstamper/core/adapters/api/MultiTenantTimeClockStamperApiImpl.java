@@ -0,0 +1,144 @@
+package de.trundicho.timeclockstamper.core.adapters.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.mapstruct.factory.Mappers;
+
+import de.trundicho.timeclockstamper.core.adapters.api.TimeClockStamperApiImpl.ClockTimeDataMapper;
+import de.trundicho.timeclockstamper.core.service.ClockTimePersistencePortFactory;
+import de.trundicho.timeclockstamper.core.service.Metrics;
+import de.trundicho.timeclockstamper.core.service.MultiTenantTimeClockStamperService;
+import de.trundicho.timeclockstamper.core.service.Subscription;
+
+public class MultiTenantTimeClockStamperApiImpl implements MultiTenantTimeClockStamperApi {
+
+    private final MultiTenantTimeClockStamperService timeClockStamperService;
+    private final ClockTimeDataMapper mapper;
+    private final ClockTimeBulkStreams bulkStreams = new ClockTimeBulkStreams();
+
+    public MultiTenantTimeClockStamperApiImpl(String timeZone, ClockTimePersistencePortFactory persistencePortFactory) {
+        this(timeZone, persistencePortFactory, 480, 1024);
+    }
+
+    public MultiTenantTimeClockStamperApiImpl(String timeZone, ClockTimePersistencePortFactory persistencePortFactory,
+            int hoursToWorkPerDayInMinutes, int lockStripes) {
+        timeClockStamperService = new MultiTenantTimeClockStamperService(timeZone, persistencePortFactory, hoursToWorkPerDayInMinutes,
+                lockStripes);
+        mapper = Mappers.getMapper(ClockTimeDataMapper.class);
+    }
+
+    /**
+     * Keeps the services of at most {@code maxTenants} tenants without subscribers, all of them on {@code clock} and recording into
+     * {@code metrics}.
+     */
+    public MultiTenantTimeClockStamperApiImpl(Clock clock, ClockTimePersistencePortFactory persistencePortFactory,
+            int hoursToWorkPerDayInMinutes, int lockStripes, int maxTenants, Metrics metrics) {
+        timeClockStamperService = new MultiTenantTimeClockStamperService(clock, persistencePortFactory, hoursToWorkPerDayInMinutes,
+                lockStripes, maxTenants, metrics);
+        mapper = Mappers.getMapper(ClockTimeDataMapper.class);
+    }
+
+    @Override
+    public ClockTimeDataDto stampInOrOut(String tenantId) {
+        return mapper.dataToDto(timeClockStamperService.stampInOrOut(tenantId));
+    }
+
+    @Override
+    public ClockTimeDataDto getTimeClockResponse(String tenantId) {
+        return mapper.dataToDto(timeClockStamperService.getTimeClockResponse(tenantId));
+    }
+
+    @Override
+    public ClockTimeDataDto getTimeClockResponse(String tenantId, Set<ClockTimeFieldDto> fields) {
+        return mapper.dataToDto(timeClockStamperService.getTimeClockResponse(tenantId, mapper.dtoToFields(fields)));
+    }
+
+    @Override
+    public Optional<ClockTimeDataDto> getTimeClockResponseIfModified(String tenantId, String version) {
+        return timeClockStamperService.getTimeClockResponseIfModified(tenantId, version).map(mapper::dataToDto);
+    }
+
+    @Override
+    public ClockStatusDto getClockStatus(String tenantId) {
+        return mapper.statusToDto(timeClockStamperService.getClockStatus(tenantId));
+    }
+
+    @Override
+    public Subscription subscribe(String tenantId, Consumer<ClockTimeEventDto> listener) {
+        return timeClockStamperService.subscribe(tenantId, event -> listener.accept(mapper.eventToDto(event)));
+    }
+
+    @Override
+    public String getOvertimeMonth(String tenantId, Integer year, Integer month) {
+        return timeClockStamperService.getOvertimeMonth(tenantId, year, month);
+    }
+
+    @Override
+    public OvertimeReportDto getOvertimeRange(String tenantId, YearMonth from, YearMonth to) {
+        return mapper.reportToDto(timeClockStamperService.getOvertimeRange(tenantId, from, to));
+    }
+
+    @Override
+    public OvertimeReportDto getOvertimeYear(String tenantId, Integer year) {
+        return mapper.reportToDto(timeClockStamperService.getOvertimeYear(tenantId, year));
+    }
+
+    @Override
+    public ClockTimeDataDto stamp(String tenantId, LocalTime time) {
+        return mapper.dataToDto(timeClockStamperService.stamp(tenantId, time));
+    }
+
+    @Override
+    public ClockTimeDataDto setToday(String tenantId, ClockTimeDataDto clockTimeDto) {
+        return mapper.dataToDto(timeClockStamperService.setToday(tenantId, mapper.dtoToData(clockTimeDto)));
+    }
+
+    @Override
+    public ClockTimeDataDto setDay(String tenantId, ClockTimeDataDto clockTimeDto, Integer year, Integer month, Integer day) {
+        return mapper.dataToDto(timeClockStamperService.setDay(tenantId, mapper.dtoToData(clockTimeDto), year, month, day));
+    }
+
+    @Override
+    public ClockTimeBatchDataDto setDays(String tenantId, Map<LocalDate, List<ClockTimeDto>> clockTimesByDay) {
+        return mapper.batchToDto(timeClockStamperService.setDays(tenantId, mapper.dtoToClockTimesByDay(clockTimesByDay)));
+    }
+
+    @Override
+    public ClockTimeDataDto getDay(String tenantId, Integer year, Integer month, Integer day) {
+        return mapper.dataToDto(timeClockStamperService.getDay(tenantId, year, month, day));
+    }
+
+    @Override
+    public Optional<ClockTimeDataDto> getDayIfModified(String tenantId, String version, Integer year, Integer month, Integer day) {
+        return timeClockStamperService.getDayIfModified(tenantId, version, year, month, day).map(mapper::dataToDto);
+    }
+
+    @Override
+    public MetricsSnapshotDto getMetricsSnapshot() {
+        return mapper.metricsToDto(timeClockStamperService.getMetricsSnapshot());
+    }
+
+    @Override
+    public int importClockTimes(String tenantId, InputStream input, BulkFormat format) throws IOException {
+        return bulkStreams.importFrom(input, format, mapper::dtoToClockTime,
+                clockTimes -> timeClockStamperService.importClockTimes(tenantId, clockTimes));
+    }
+
+    @Override
+    public void exportClockTimes(String tenantId, YearMonth from, YearMonth to, BulkFormat format, OutputStream output)
+            throws IOException {
+        bulkStreams.exportTo(output, format, writer -> timeClockStamperService.exportClockTimes(tenantId, from, to,
+                clockTime -> writer.accept(mapper.clockTimeToDto(clockTime))));
+    }
+}
@@ -1,6 +1,18 @@
 package de.trundicho.timeclockstamper.core.adapters.api;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import de.trundicho.timeclockstamper.core.service.Subscription;
 
 public interface TimeClockStamperApi {
 
@@ -8,13 +20,48 @@ public interface TimeClockStamperApi {
 
     ClockTimeDataDto getTimeClockResponse();
 
+    /**
+     * Only computes the requested fields, all others are null.
+     */
+    ClockTimeDataDto getTimeClockResponse(Set<ClockTimeFieldDto> fields);
+
+    /**
+     * Empty if {@code version} is the version of the current response, checked without reading or computing it.
+     */
+    Optional<ClockTimeDataDto> getTimeClockResponseIfModified(String version);
+
+    ClockStatusDto getClockStatus();
+
+    /**
+     * Pushes an event to {@code listener} after every committed stamp and day change, instead of polling for it.
+     */
+    Subscription subscribe(Consumer<ClockTimeEventDto> listener);
+
     String getOvertimeMonth(Integer year, Integer month);
 
+    OvertimeReportDto getOvertimeRange(YearMonth from, YearMonth to);
+
+    OvertimeReportDto getOvertimeYear(Integer year);
+
     ClockTimeDataDto stamp(LocalTime time);
 
     ClockTimeDataDto setToday(ClockTimeDataDto clockTimeDto);
 
     ClockTimeDataDto setDay(ClockTimeDataDto clockTimeDto, Integer year, Integer month, Integer day);
 
+    ClockTimeBatchDataDto setDays(Map<LocalDate, List<ClockTimeDto>> clockTimesByDay);
+
     ClockTimeDataDto getDay(Integer year, Integer month, Integer day);
+
+    Optional<ClockTimeDataDto> getDayIfModified(String version, Integer year, Integer month, Integer day);
+
+    MetricsSnapshotDto getMetricsSnapshot();
+
+    /**
+     * Streams stamps from {@code input} into their months and returns the number of added stamps. Months are written as soon as
+     * the input moves on to the next month, so an invalid record keeps the months before it; importing again skips them.
+     */
+    int importClockTimes(InputStream input, BulkFormat format) throws IOException;
+
+    void exportClockTimes(YearMonth from, YearMonth to, BulkFormat format, OutputStream output) throws IOException;
 }
@@ -1,13 +1,34 @@
 package de.trundicho.timeclockstamper.core.adapters.api;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Clock;
+import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import org.mapstruct.Mapper;
 import org.mapstruct.factory.Mappers;
 
+import de.trundicho.timeclockstamper.core.domain.model.ClockStatus;
 import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTimeBatchData;
 import de.trundicho.timeclockstamper.core.domain.model.ClockTimeData;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTimeEvent;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTimeField;
+import de.trundicho.timeclockstamper.core.domain.model.MetricsSnapshot;
+import de.trundicho.timeclockstamper.core.domain.model.OvertimeReport;
 import de.trundicho.timeclockstamper.core.service.ClockTimePersistencePort;
+import de.trundicho.timeclockstamper.core.service.Metrics;
+import de.trundicho.timeclockstamper.core.service.Subscription;
 import de.trundicho.timeclockstamper.core.service.TimeClockStamperService;
 
 public class TimeClockStamperApiImpl implements TimeClockStamperApi {
@@ -21,10 +42,42 @@ public class TimeClockStamperApiImpl implements TimeClockStamperApi {
         ClockTimeDto clockTimeToDto(ClockTime source);
 
         ClockTime dtoToClockTime(ClockTimeDto source);
+
+        OvertimeReportDto reportToDto(OvertimeReport source);
+
+        ClockTimeBatchDataDto batchToDto(ClockTimeBatchData source);
+
+        List<ClockTime> dtoToClockTimes(List<ClockTimeDto> source);
+
+        Map<LocalDate, List<ClockTime>> dtoToClockTimesByDay(Map<LocalDate, List<ClockTimeDto>> source);
+
+        MetricsSnapshotDto metricsToDto(MetricsSnapshot source);
+
+        Set<ClockTimeField> dtoToFields(Set<ClockTimeFieldDto> source);
+
+        ClockStatusDto statusToDto(ClockStatus source);
+
+        ClockTimeEventDto eventToDto(ClockTimeEvent source);
     }
 
     private final TimeClockStamperService timeClockStamperService;
     private final ClockTimeDataMapper mapper;
+    private final Metrics.Timer stampInOrOutTimer;
+    private final Metrics.Timer getTimeClockResponseTimer;
+    private final Metrics.Timer getTimeClockResponseIfModifiedTimer;
+    private final Metrics.Timer getClockStatusTimer;
+    private final Metrics.Timer getOvertimeMonthTimer;
+    private final Metrics.Timer getOvertimeRangeTimer;
+    private final Metrics.Timer getOvertimeYearTimer;
+    private final Metrics.Timer stampTimer;
+    private final Metrics.Timer setTodayTimer;
+    private final Metrics.Timer setDayTimer;
+    private final Metrics.Timer setDaysTimer;
+    private final Metrics.Timer getDayTimer;
+    private final Metrics.Timer getDayIfModifiedTimer;
+    private final Metrics.Timer importClockTimesTimer;
+    private final Metrics.Timer exportClockTimesTimer;
+    private final ClockTimeBulkStreams bulkStreams = new ClockTimeBulkStreams();
 
     public TimeClockStamperApiImpl(String timeZone, ClockTimePersistencePort clockTimePersistencePort) {
         this(timeZone, clockTimePersistencePort, 480);
@@ -32,43 +85,156 @@ public class TimeClockStamperApiImpl implements TimeClockStamperApi {
 
     public TimeClockStamperApiImpl(String timeZone, ClockTimePersistencePort clockTimePersistencePort,
             int hoursToWorkPerDayInMinutes) {
-        timeClockStamperService = new TimeClockStamperService(timeZone, clockTimePersistencePort, hoursToWorkPerDayInMinutes);
+        this(timeZone, clockTimePersistencePort, hoursToWorkPerDayInMinutes, Metrics.noop());
+    }
+
+    /**
+     * Records the latency of every operation as a {@code service.<operation>} timer in {@code metrics}. Pass the same metrics to
+     * the persistence adapters to see file and cache activity in the same snapshot.
+     */
+    public TimeClockStamperApiImpl(String timeZone, ClockTimePersistencePort clockTimePersistencePort,
+            int hoursToWorkPerDayInMinutes, Metrics metrics) {
+        this(Clock.system(ZoneId.of(timeZone)), clockTimePersistencePort, hoursToWorkPerDayInMinutes, metrics);
+    }
+
+    /**
+     * Takes "now" and the time zone from {@code clock}.
+     */
+    public TimeClockStamperApiImpl(Clock clock, ClockTimePersistencePort clockTimePersistencePort, int hoursToWorkPerDayInMinutes,
+            Metrics metrics) {
+        timeClockStamperService = TimeClockStamperService.builder(clockTimePersistencePort)
+                                                         .clock(clock)
+                                                         .hoursToWorkPerDayInMinutes(hoursToWorkPerDayInMinutes)
+                                                         .metrics(metrics)
+                                                         .build();
         mapper = Mappers.getMapper(ClockTimeDataMapper.class);
+        this.stampInOrOutTimer = metrics.timer("service.stampInOrOut");
+        this.getTimeClockResponseTimer = metrics.timer("service.getTimeClockResponse");
+        this.getTimeClockResponseIfModifiedTimer = metrics.timer("service.getTimeClockResponseIfModified");
+        this.getClockStatusTimer = metrics.timer("service.getClockStatus");
+        this.getOvertimeMonthTimer = metrics.timer("service.getOvertimeMonth");
+        this.getOvertimeRangeTimer = metrics.timer("service.getOvertimeRange");
+        this.getOvertimeYearTimer = metrics.timer("service.getOvertimeYear");
+        this.stampTimer = metrics.timer("service.stamp");
+        this.setTodayTimer = metrics.timer("service.setToday");
+        this.setDayTimer = metrics.timer("service.setDay");
+        this.setDaysTimer = metrics.timer("service.setDays");
+        this.getDayTimer = metrics.timer("service.getDay");
+        this.getDayIfModifiedTimer = metrics.timer("service.getDayIfModified");
+        this.importClockTimesTimer = metrics.timer("service.importClockTimes");
+        this.exportClockTimesTimer = metrics.timer("service.exportClockTimes");
     }
 
     @Override
     public ClockTimeDataDto stampInOrOut() {
-        return mapper.dataToDto(timeClockStamperService.stampInOrOut());
+        return timed(stampInOrOutTimer, () -> mapper.dataToDto(timeClockStamperService.stampInOrOut()));
     }
 
     @Override
     public ClockTimeDataDto getTimeClockResponse() {
-        return mapper.dataToDto(timeClockStamperService.getTimeClockResponse());
+        return timed(getTimeClockResponseTimer, () -> mapper.dataToDto(timeClockStamperService.getTimeClockResponse()));
+    }
+
+    @Override
+    public ClockTimeDataDto getTimeClockResponse(Set<ClockTimeFieldDto> fields) {
+        return timed(getTimeClockResponseTimer,
+                () -> mapper.dataToDto(timeClockStamperService.getTimeClockResponse(mapper.dtoToFields(fields))));
+    }
+
+    @Override
+    public Optional<ClockTimeDataDto> getTimeClockResponseIfModified(String version) {
+        return timed(getTimeClockResponseIfModifiedTimer,
+                () -> timeClockStamperService.getTimeClockResponseIfModified(version).map(mapper::dataToDto));
+    }
+
+    @Override
+    public ClockStatusDto getClockStatus() {
+        return timed(getClockStatusTimer, () -> mapper.statusToDto(timeClockStamperService.getClockStatus()));
+    }
+
+    @Override
+    public Subscription subscribe(Consumer<ClockTimeEventDto> listener) {
+        return timeClockStamperService.subscribe(event -> listener.accept(mapper.eventToDto(event)));
     }
 
     @Override
     public String getOvertimeMonth(Integer year, Integer month) {
-        return timeClockStamperService.getOvertimeMonth(year, month);
+        return timed(getOvertimeMonthTimer, () -> timeClockStamperService.getOvertimeMonth(year, month));
+    }
+
+    @Override
+    public OvertimeReportDto getOvertimeRange(YearMonth from, YearMonth to) {
+        return timed(getOvertimeRangeTimer, () -> mapper.reportToDto(timeClockStamperService.getOvertimeRange(from, to)));
+    }
+
+    @Override
+    public OvertimeReportDto getOvertimeYear(Integer year) {
+        return timed(getOvertimeYearTimer, () -> mapper.reportToDto(timeClockStamperService.getOvertimeYear(year)));
     }
 
     @Override
     public ClockTimeDataDto stamp(LocalTime time) {
-        return mapper.dataToDto(timeClockStamperService.stamp(time));
+        return timed(stampTimer, () -> mapper.dataToDto(timeClockStamperService.stamp(time)));
     }
 
     @Override
     public ClockTimeDataDto setToday(ClockTimeDataDto clockTimeDto) {
-        return mapper.dataToDto(timeClockStamperService.setToday(mapper.dtoToData(clockTimeDto)));
+        return timed(setTodayTimer, () -> mapper.dataToDto(timeClockStamperService.setToday(mapper.dtoToData(clockTimeDto))));
     }
 
     @Override
     public ClockTimeDataDto setDay(ClockTimeDataDto clockTimeDto, Integer year, Integer month, Integer day) {
-        return mapper.dataToDto(timeClockStamperService.setDay(mapper.dtoToData(clockTimeDto), year, month, day));
+        return timed(setDayTimer, () -> mapper.dataToDto(timeClockStamperService.setDay(mapper.dtoToData(clockTimeDto), year, month, day)));
+    }
+
+    @Override
+    public ClockTimeBatchDataDto setDays(Map<LocalDate, List<ClockTimeDto>> clockTimesByDay) {
+        return timed(setDaysTimer, () -> mapper.batchToDto(timeClockStamperService.setDays(mapper.dtoToClockTimesByDay(clockTimesByDay))));
     }
 
     @Override
     public ClockTimeDataDto getDay(Integer year, Integer month, Integer day) {
-        return mapper.dataToDto(timeClockStamperService.getDay(year, month, day));
+        return timed(getDayTimer, () -> mapper.dataToDto(timeClockStamperService.getDay(year, month, day)));
     }
 
+    @Override
+    public Optional<ClockTimeDataDto> getDayIfModified(String version, Integer year, Integer month, Integer day) {
+        return timed(getDayIfModifiedTimer,
+                () -> timeClockStamperService.getDayIfModified(version, year, month, day).map(mapper::dataToDto));
+    }
+
+    @Override
+    public MetricsSnapshotDto getMetricsSnapshot() {
+        return mapper.metricsToDto(timeClockStamperService.getMetricsSnapshot());
+    }
+
+    @Override
+    public int importClockTimes(InputStream input, BulkFormat format) throws IOException {
+        long start = importClockTimesTimer.start();
+        try {
+            return bulkStreams.importFrom(input, format, mapper::dtoToClockTime, timeClockStamperService::importClockTimes);
+        } finally {
+            importClockTimesTimer.stop(start);
+        }
+    }
+
+    @Override
+    public void exportClockTimes(YearMonth from, YearMonth to, BulkFormat format, OutputStream output) throws IOException {
+        long start = exportClockTimesTimer.start();
+        try {
+            bulkStreams.exportTo(output, format, writer -> timeClockStamperService.exportClockTimes(from, to,
+                    clockTime -> writer.accept(mapper.clockTimeToDto(clockTime))));
+        } finally {
+            exportClockTimesTimer.stop(start);
+        }
+    }
+
+    private static <T> T timed(Metrics.Timer timer, Supplier<T> call) {
+        long start = timer.start();
+        try {
+            return call.get();
+        } finally {
+            timer.stop(start);
+        }
+    }
 }
@@ -0,0 +1,114 @@
+package de.trundicho.timeclockstamper.core.adapters.persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+
+/**
+ * Compact binary month format:
+ * <pre>
+ * "TCSB" | format version (1 byte) | count (varint)
+ * per clock time: epoch second delta to the previous one (zigzag varint) | nanos (varint) | pause + 1, 0 for none (zigzag varint)
+ * CRC32 of everything above (4 bytes, big endian)
+ * </pre>
+ * Epoch seconds are taken from the local date time as if it were UTC, so the format is independent of the time zone.
+ */
+public class BinaryClockTimeCodec implements ClockTimeCodec {
+
+    private static final byte[] MAGIC = "TCSB".getBytes(StandardCharsets.US_ASCII);
+    private static final byte FORMAT_VERSION = 1;
+    private static final int CHECKSUM_LENGTH = 4;
+
+    @Override
+    public byte[] encode(List<ClockTime> clockTimes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + clockTimes.size() * 8);
+        out.writeBytes(MAGIC);
+        out.write(FORMAT_VERSION);
+        writeVarint(out, clockTimes.size());
+        long previousEpochSecond = 0;
+        for (ClockTime clockTime : clockTimes) {
+            long epochSecond = clockTime.getDate().toEpochSecond(ZoneOffset.UTC);
+            writeVarint(out, zigzag(epochSecond - previousEpochSecond));
+            writeVarint(out, clockTime.getDate().getNano());
+            writeVarint(out, clockTime.getPause() == null ? 0 : zigzag(clockTime.getPause()) + 1);
+            previousEpochSecond = epochSecond;
+        }
+        CRC32 crc = new CRC32();
+        byte[] content = out.toByteArray();
+        crc.update(content);
+        return ByteBuffer.allocate(content.length + CHECKSUM_LENGTH).put(content).putInt((int) crc.getValue()).array();
+    }
+
+    @Override
+    public List<ClockTime> decode(byte[] data, int offset, int length) throws IOException {
+        if (length < MAGIC.length + 1 + CHECKSUM_LENGTH) {
+            throw new IOException("Binary clock time data too short");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data, offset, length - CHECKSUM_LENGTH);
+        ByteBuffer buffer = ByteBuffer.wrap(data, offset, length);
+        if ((int) crc.getValue() != buffer.getInt(offset + length - CHECKSUM_LENGTH)) {
+            throw new IOException("Checksum mismatch in binary clock time data");
+        }
+        buffer.limit(offset + length - CHECKSUM_LENGTH);
+        for (byte magic : MAGIC) {
+            if (buffer.get() != magic) {
+                throw new IOException("Not a binary clock time file");
+            }
+        }
+        byte formatVersion = buffer.get();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IOException("Unsupported binary clock time format version " + formatVersion);
+        }
+        int count = (int) readVarint(buffer);
+        List<ClockTime> clockTimes = new ArrayList<>(count);
+        long epochSecond = 0;
+        for (int i = 0; i < count; i++) {
+            epochSecond += unzigzag(readVarint(buffer));
+            int nanos = (int) readVarint(buffer);
+            long pause = readVarint(buffer);
+            clockTimes.add(new ClockTime().setDate(LocalDateTime.ofEpochSecond(epochSecond, nanos, ZoneOffset.UTC))
+                                          .setPause(pause == 0 ? null : (int) unzigzag(pause - 1)));
+        }
+        return clockTimes;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(ByteBuffer buffer) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (!buffer.hasRemaining()) {
+                throw new IOException("Truncated binary clock time data");
+            }
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in binary clock time data");
+    }
+}
@@ -0,0 +1,266 @@
+package de.trundicho.timeclockstamper.core.adapters.persistence;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.domain.model.MonthStamps;
+import de.trundicho.timeclockstamper.core.domain.model.VersionedClockTimes;
+import de.trundicho.timeclockstamper.core.service.ClockTimePersistencePort;
+import de.trundicho.timeclockstamper.core.service.InMemoryMetrics;
+import de.trundicho.timeclockstamper.core.service.Metrics;
+import de.trundicho.timeclockstamper.core.service.WriteBackoff;
+
+/**
+ * Write-through cache in front of another {@link ClockTimePersistencePort}. Keeps the most recently used months as sorted, columnar
+ * {@link MonthStamps} and evicts the least recently used month once either the month or the clock time limit is exceeded.
+ * Lists returned by {@link #read(Integer, Integer)} are unmodifiable. Versions are those of the delegate and just as durable.
+ * <p>
+ * A cached month is only served while the delegate is still at its version, so every read asks the delegate for the version of
+ * the month, on a hit as well. A hit therefore costs one version lookup of the delegate, e.g. a file stat or a query, instead of a
+ * full read.
+ */
+public class CachingPersistence implements ClockTimePersistencePort {
+
+    private final ClockTimePersistencePort delegate;
+    private final ZoneId zoneId;
+    private final int maxMonths;
+    private final int maxClockTimes;
+    private final LinkedHashMap<YearMonth, CachedMonth> months = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Metrics metrics;
+    private final Metrics.Counter hits;
+    private final Metrics.Counter misses;
+    private final Metrics.Counter evictions;
+    private int cachedClockTimes;
+
+    public CachingPersistence(ClockTimePersistencePort delegate, String timeZone) {
+        this(delegate, timeZone, 24, 100_000);
+    }
+
+    public CachingPersistence(ClockTimePersistencePort delegate, String timeZone, int maxMonths, int maxClockTimes) {
+        this(delegate, timeZone, maxMonths, maxClockTimes, new InMemoryMetrics());
+    }
+
+    /**
+     * Counts hits, misses and evictions as {@code cache.*} counters in {@code metrics}.
+     */
+    public CachingPersistence(ClockTimePersistencePort delegate, String timeZone, int maxMonths, int maxClockTimes,
+            Metrics metrics) {
+        if (maxMonths < 1 || maxClockTimes < 1) {
+            throw new IllegalArgumentException("Cache limits must be positive");
+        }
+        this.delegate = delegate;
+        this.zoneId = ZoneId.of(timeZone);
+        this.maxMonths = maxMonths;
+        this.maxClockTimes = maxClockTimes;
+        this.metrics = metrics;
+        this.hits = metrics.counter("cache.hits");
+        this.misses = metrics.counter("cache.misses");
+        this.evictions = metrics.counter("cache.evictions");
+    }
+
+    /**
+     * Replaces the month through the conditional write of the delegate, so the cache learns the exact version it wrote. Writes
+     * of others in between are retried with {@link WriteBackoff} outside the lock, the last lost attempt fails the write.
+     */
+    @Override
+    public void write(List<ClockTime> clockTimes, Integer year, Integer month) {
+        YearMonth yearMonth = yearMonth(year, month);
+        for (int attempt = 0; attempt < WriteBackoff.MAX_ATTEMPTS; attempt++) {
+            lock.lock();
+            try {
+                long expectedVersion = delegate.version(yearMonth.getYear(), yearMonth.getMonthValue());
+                long version = delegate.compareAndWrite(clockTimes, yearMonth.getYear(), yearMonth.getMonthValue(),
+                        expectedVersion);
+                if (version != CONFLICT) {
+                    put(yearMonth, clockTimes, version);
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            WriteBackoff.afterConflict(attempt);
+        }
+        throw new IllegalStateException(
+                "Could not write " + yearMonth + " after " + WriteBackoff.MAX_ATTEMPTS + " concurrent modifications");
+    }
+
+    @Override
+    public void append(ClockTime clockTime, List<ClockTime> clockTimes, Integer year, Integer month) {
+        lock.lock();
+        try {
+            YearMonth yearMonth = yearMonth(year, month);
+            delegate.append(clockTime, clockTimes, yearMonth.getYear(), yearMonth.getMonthValue());
+            invalidate(year, month);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<ClockTime> read(Integer year, Integer month) {
+        return readVersioned(year, month).getClockTimes();
+    }
+
+    @Override
+    public long version(Integer year, Integer month) {
+        YearMonth yearMonth = yearMonth(year, month);
+        return delegate.version(yearMonth.getYear(), yearMonth.getMonthValue());
+    }
+
+    /**
+     * Serves the cached month as long as the delegate is still at the cached version, so writes of other instances or processes
+     * on the same store are never hidden.
+     */
+    @Override
+    public VersionedClockTimes readVersioned(Integer year, Integer month) {
+        lock.lock();
+        try {
+            YearMonth yearMonth = yearMonth(year, month);
+            CachedMonth cached = months.get(yearMonth);
+            if (cached != null && cached.version == delegate.version(yearMonth.getYear(), yearMonth.getMonthValue())) {
+                hits.increment();
+            } else {
+                misses.increment();
+                VersionedClockTimes versioned = delegate.readVersioned(yearMonth.getYear(), yearMonth.getMonthValue());
+                cached = put(yearMonth, versioned.getClockTimes(), versioned.getVersion());
+            }
+            return new VersionedClockTimes().setClockTimes(cached.clockTimes).setVersion(cached.version);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long compareAndWrite(List<ClockTime> clockTimes, Integer year, Integer month, long expectedVersion) {
+        lock.lock();
+        try {
+            YearMonth yearMonth = yearMonth(year, month);
+            long version = delegate.compareAndWrite(clockTimes, yearMonth.getYear(), yearMonth.getMonthValue(), expectedVersion);
+            if (version == CONFLICT) {
+                invalidate(year, month);
+            } else {
+                put(yearMonth, clockTimes, version);
+            }
+            return version;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long compareAndAppend(ClockTime clockTime, List<ClockTime> clockTimes, Integer year, Integer month,
+            long expectedVersion) {
+        lock.lock();
+        try {
+            YearMonth yearMonth = yearMonth(year, month);
+            long version = delegate.compareAndAppend(clockTime, clockTimes, yearMonth.getYear(), yearMonth.getMonthValue(),
+                    expectedVersion);
+            CachedMonth cached = months.get(yearMonth);
+            if (version != CONFLICT && cached != null && cached.version == expectedVersion && !delegate.mergesAppends()) {
+                put(yearMonth, cached.clockTimes.with(clockTime), version);
+            } else {
+                invalidate(year, month);
+            }
+            return version;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean mergesAppends() {
+        return delegate.mergesAppends();
+    }
+
+    /**
+     * Hits counted in the metrics, always 0 with {@link Metrics#noop()}.
+     */
+    public long getHitCount() {
+        return counted("cache.hits");
+    }
+
+    /**
+     * Misses counted in the metrics, always 0 with {@link Metrics#noop()}.
+     */
+    public long getMissCount() {
+        return counted("cache.misses");
+    }
+
+    public int getCachedMonths() {
+        lock.lock();
+        try {
+            return months.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(Integer year, Integer month) {
+        lock.lock();
+        try {
+            CachedMonth removed = months.remove(yearMonth(year, month));
+            if (removed != null) {
+                cachedClockTimes -= removed.clockTimes.size();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private CachedMonth put(YearMonth yearMonth, List<ClockTime> clockTimes, long version) {
+        MonthStamps clockTimesOfMonth = MonthStamps.of(clockTimes, yearMonth.getYear(), yearMonth.getMonthValue());
+        if (!clockTimesOfMonth.isSortedMonth()) {
+            clockTimesOfMonth = MonthStamps.of(clockTimesOfMonth.stream()
+                                                                .filter(c -> YearMonth.from(c.getDate()).equals(yearMonth))
+                                                                .sorted()
+                                                                .collect(Collectors.toList()), yearMonth.getYear(),
+                    yearMonth.getMonthValue());
+        }
+        CachedMonth cached = new CachedMonth(clockTimesOfMonth, version);
+        CachedMonth previous = months.put(yearMonth, cached);
+        if (previous != null) {
+            cachedClockTimes -= previous.clockTimes.size();
+        }
+        cachedClockTimes += clockTimesOfMonth.size();
+        evict();
+        return cached;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<YearMonth, CachedMonth>> eldest = months.entrySet().iterator();
+        while (months.size() > 1 && (months.size() > maxMonths || cachedClockTimes > maxClockTimes)) {
+            cachedClockTimes -= eldest.next().getValue().clockTimes.size();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private long counted(String counter) {
+        return metrics.snapshot().getCounters().getOrDefault(counter, 0L);
+    }
+
+    private YearMonth yearMonth(Integer year, Integer month) {
+        LocalDateTime now = LocalDateTime.now(zoneId);
+        return YearMonth.of(year == null ? now.getYear() : year, month == null ? now.getMonthValue() : month);
+    }
+
+    private static class CachedMonth {
+
+        private final MonthStamps clockTimes;
+        private final long version;
+
+        private CachedMonth(MonthStamps clockTimes, long version) {
+            this.clockTimes = clockTimes;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package de.trundicho.timeclockstamper.core.adapters.persistence;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+
+/**
+ * Storage format of a month file.
+ */
+public interface ClockTimeCodec {
+
+    byte[] encode(List<ClockTime> clockTimes) throws IOException;
+
+    /**
+     * Writes the encoded clock times to {@code output} without closing it.
+     */
+    default void encode(List<ClockTime> clockTimes, OutputStream output) throws IOException {
+        output.write(encode(clockTimes));
+    }
+
+    /**
+     * Decodes {@code length} bytes starting at {@code offset}. {@code data} may be a reused buffer, so implementations must not keep
+     * a reference to it.
+     */
+    List<ClockTime> decode(byte[] data, int offset, int length) throws IOException;
+}
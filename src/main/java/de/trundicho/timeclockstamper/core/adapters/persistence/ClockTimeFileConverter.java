@@ -0,0 +1,62 @@
+package de.trundicho.timeclockstamper.core.adapters.persistence;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.regex.Pattern;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Converts all month files of a persistence folder from one storage format to another, e.g. existing JSON months to
+ * {@link BinaryClockTimeCodec}. The converted months are written to files of another name next to the sources, which are left
+ * untouched; target files of the same months are replaced. Converting in place is refused, as a failed conversion would lose the
+ * source month. A month is only written once it decoded and encoded, and a failed write leaves no temporary file behind. Run the
+ * conversion while no service writes to the folder.
+ */
+@Slf4j
+public class ClockTimeFileConverter {
+
+    private final ClockTimeCodec sourceCodec;
+    private final ClockTimeCodec targetCodec;
+
+    public ClockTimeFileConverter(ClockTimeCodec sourceCodec, ClockTimeCodec targetCodec) {
+        this.sourceCodec = sourceCodec;
+        this.targetCodec = targetCodec;
+    }
+
+    public static ClockTimeFileConverter jsonToBinary() {
+        return new ClockTimeFileConverter(new JsonClockTimeCodec(), new BinaryClockTimeCodec());
+    }
+
+    /**
+     * @return the number of converted month files
+     */
+    public int convert(String persistenceFolder, String sourceFile, String targetFile) throws IOException {
+        if (sourceFile.equals(targetFile)) {
+            throw new IllegalArgumentException("Source and target file are both " + sourceFile + ", can not convert in place");
+        }
+        Pattern monthFile = Pattern.compile("\\d{4}-\\d{2}-" + Pattern.quote(sourceFile));
+        File[] files = new File(persistenceFolder).listFiles((dir, name) -> monthFile.matcher(name).matches());
+        if (files == null) {
+            throw new IOException("Can not list folder " + persistenceFolder);
+        }
+        for (File file : files) {
+            String prefix = file.getName().substring(0, "yyyy-MM-".length());
+            Path target = Path.of(persistenceFolder, prefix + targetFile);
+            byte[] source = Files.readAllBytes(file.toPath());
+            byte[] converted = targetCodec.encode(sourceCodec.decode(source, 0, source.length));
+            Path tempFile = Files.createTempFile(Path.of(persistenceFolder), prefix + targetFile, ".tmp");
+            try {
+                Files.write(tempFile, converted);
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+            log.info("Converted {} to {}", file, target);
+        }
+        return files.length;
+    }
+}
@@ -0,0 +1,58 @@
+package de.trundicho.timeclockstamper.core.adapters.persistence;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import de.trundicho.timeclockstamper.core.domain.model.MonthAggregate;
+import de.trundicho.timeclockstamper.core.service.MonthAggregatePersistencePort;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stores the aggregate index of a month next to the month's clock times, e.g. {@code 2022-01-clockTime-aggregate.json}.
+ */
+@Slf4j
+public class FileMonthAggregatePersistence implements MonthAggregatePersistencePort {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+    private final String persistenceFolder;
+    private final String persistenceFile;
+
+    public FileMonthAggregatePersistence(String persistenceFolder, String persistenceFile) {
+        this.persistenceFolder = persistenceFolder;
+        this.persistenceFile = persistenceFile;
+    }
+
+    @Override
+    public MonthAggregate read(int year, int month) {
+        try {
+            return objectMapper.readValue(Files.readAllBytes(path(year, month)), MonthAggregate.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.error("Can not read aggregate of {}-{}", year, month, e);
+            return null;
+        }
+    }
+
+    @Override
+    public void write(MonthAggregate monthAggregate) {
+        Path file = path(monthAggregate.getYear(), monthAggregate.getMonth()).toAbsolutePath();
+        try {
+            Path tempFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            Files.write(tempFile, objectMapper.writeValueAsBytes(monthAggregate));
+            Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.error("Can not write aggregate to {}", file, e);
+        }
+    }
+
+    private Path path(int year, int month) {
+        return Path.of(persistenceFolder + year + "-" + (month < 10 ? "0" + month : "" + month) + "-" + persistenceFile);
+    }
+}
@@ -1,58 +1,134 @@
 package de.trundicho.timeclockstamper.core.adapters.persistence;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 import java.util.stream.Collectors;
 
 import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.domain.model.VersionedClockTimes;
 import de.trundicho.timeclockstamper.core.service.ClockTimePersistencePort;
+import de.trundicho.timeclockstamper.core.service.Metrics;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.json.JsonMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class FilePersistence implements ClockTimePersistencePort {
 
-    private final ObjectMapper objectMapper;
+    private final ClockTimeCodec codec;
     private final String persistenceFile;
     private final String persistenceFolder;
-    private final String timezone;
+    private final Clock clock;
+    private final MonthVersions monthVersions = new MonthVersions(this::monthFile);
+    private final Metrics.Counter filesOpened;
+    private final Metrics.Counter bytesRead;
+    private final Metrics.Counter bytesWritten;
+    private final Metrics.Counter readErrors;
+    private final Metrics.Counter writeErrors;
 
     public FilePersistence(String persistenceFolder, String persistenceFile, String timeZone) {
+        this(persistenceFolder, persistenceFile, timeZone, new JsonClockTimeCodec());
+    }
+
+    public FilePersistence(String persistenceFolder, String persistenceFile, String timeZone, ClockTimeCodec codec) {
+        this(persistenceFolder, persistenceFile, timeZone, codec, Metrics.noop());
+    }
+
+    public FilePersistence(String persistenceFolder, String persistenceFile, String timeZone, ClockTimeCodec codec,
+            Metrics metrics) {
+        this(persistenceFolder, persistenceFile, Clock.system(ZoneId.of(timeZone)), codec, metrics);
+    }
+
+    /**
+     * Resolves the current month of calls without year or month from {@code clock}.
+     */
+    public FilePersistence(String persistenceFolder, String persistenceFile, Clock clock, ClockTimeCodec codec, Metrics metrics) {
         this.persistenceFile = persistenceFile;
         this.persistenceFolder = persistenceFolder;
-        this.timezone = timeZone;
-        this.objectMapper = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+        this.clock = clock;
+        this.codec = codec;
+        this.filesOpened = metrics.counter("file.opened");
+        this.bytesRead = metrics.counter("file.bytes.read");
+        this.bytesWritten = metrics.counter("file.bytes.written");
+        this.readErrors = metrics.counter("file.read.errors");
+        this.writeErrors = metrics.counter("file.write.errors");
     }
 
+    /**
+     * Replaces the month unconditionally. Write errors are logged.
+     */
     public void write(List<ClockTime> clockTimes, Integer year, Integer month) {
-        LocalDateTime localDate = localDate(year, month);
-        List<ClockTime> clockTimesOfCurrentMonth = clockTimes.stream()
-                                                             .filter(c -> localDate.getMonth().equals(c.getDate().getMonth())
-                                                                     && localDate.getYear() == c.getDate().getYear())
-                                                             .sorted()
-                                                             .collect(Collectors.toList());
+        YearMonth yearMonth = yearMonth(year, month);
         try {
-            objectMapper.writerWithDefaultPrettyPrinter().writeValue(new File(createFileName(year, month)), clockTimesOfCurrentMonth);
+            monthVersions.write(yearMonth, tempFile -> writeFile(clockTimes, yearMonth, tempFile));
         } catch (IOException e) {
-            log.error("Can not write to file " + e.getMessage());
+            writeErrors.increment();
+            log.error("Can not write {} to {}", yearMonth, persistenceFolder, e);
         }
     }
 
-    private String createFileName(Integer year, Integer month) {
-        LocalDateTime currentDate = localDate(year, month);
-        int currentMonth = currentDate.getMonthValue();
-        String m = prependZero(currentMonth);
-        int currentYear = currentDate.getYear();
-        return persistenceFolder + currentYear + "-" + m + "-" + persistenceFile;
+    /**
+     * The modification time of the month file, so versions are shared by all processes on the folder.
+     */
+    @Override
+    public long version(Integer year, Integer month) {
+        return monthVersions.version(yearMonth(year, month));
+    }
+
+    /**
+     * Unlike {@link #read(Integer, Integer)}, a month that can not be read is an error here: the result is meant to be written
+     * back, and writing back an empty month would delete it.
+     */
+    @Override
+    public VersionedClockTimes readVersioned(Integer year, Integer month) {
+        YearMonth yearMonth = yearMonth(year, month);
+        try {
+            return monthVersions.read(yearMonth, this::readFile);
+        } catch (IOException e) {
+            readErrors.increment();
+            throw new UncheckedIOException("Can not read " + yearMonth + " from " + persistenceFolder, e);
+        }
+    }
+
+    @Override
+    public long compareAndWrite(List<ClockTime> clockTimes, Integer year, Integer month, long expectedVersion) {
+        YearMonth yearMonth = yearMonth(year, month);
+        try {
+            return monthVersions.compareAndWrite(yearMonth, expectedVersion, tempFile -> writeFile(clockTimes, yearMonth, tempFile));
+        } catch (IOException e) {
+            writeErrors.increment();
+            throw new UncheckedIOException("Can not write " + yearMonth + " to " + persistenceFolder, e);
+        }
+    }
+
+    private void writeFile(List<ClockTime> clockTimes, YearMonth yearMonth, Path tempFile) throws IOException {
+        List<ClockTime> clockTimesOfMonth = clockTimes.stream()
+                                                      .filter(c -> yearMonth.getMonthValue() == c.getDate().getMonthValue()
+                                                              && yearMonth.getYear() == c.getDate().getYear())
+                                                      .sorted()
+                                                      .collect(Collectors.toList());
+        filesOpened.increment();
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+            codec.encode(clockTimesOfMonth, Channels.newOutputStream(channel));
+            channel.force(false);
+            bytesWritten.increment(channel.position());
+        }
+    }
+
+    private Path monthFile(YearMonth yearMonth) {
+        String m = prependZero(yearMonth.getMonthValue());
+        return Path.of(persistenceFolder + yearMonth.getYear() + "-" + m + "-" + persistenceFile);
     }
 
     private String prependZero(int currentMonth) {
@@ -60,37 +136,40 @@ public class FilePersistence implements ClockTimePersistencePort {
     }
 
     private LocalDateTime localDate(Integer year, Integer month) {
+        if (year != null && month != null) {
+            return LocalDateTime.of(year, month, 1, 0, 0);
+        }
         LocalDateTime now = getLocalDateTime();
         return LocalDateTime.of(year == null ? now.getYear() : year, month == null ? now.getMonth().getValue() : month, 1, 0, 0);
     }
 
+    private YearMonth yearMonth(Integer year, Integer month) {
+        return YearMonth.from(localDate(year, month));
+    }
+
     private LocalDateTime getLocalDateTime() {
-        return LocalDateTime.now(ZoneId.of(timezone));
+        return LocalDateTime.now(clock);
     }
 
     public List<ClockTime> read(Integer year, Integer month) {
-        List<ClockTime> clockTimes = new ArrayList<>();
+        Path file = monthFile(yearMonth(year, month));
         try {
-            File folder = new File(persistenceFolder);
-            String fileToFilter = getFileToFilter(year, month);
-            File[] files = folder.listFiles(pathname -> pathname.toString().endsWith(fileToFilter));
-            for (File file : Objects.requireNonNull(files)) {
-                clockTimes.addAll(objectMapper.readValue(file, new TypeReference<>() {
-
-                }));
-            }
-
-        } catch (NullPointerException | IOException e) {
-            log.error("Can not read from file " + e.getMessage());
+            return readFile(file);
+        } catch (NoSuchFileException e) {
+            return new ArrayList<>();
+        } catch (IOException e) {
+            readErrors.increment();
+            log.error("Can not read from file {}, returning no clock times", file, e);
+            return new ArrayList<>();
         }
-        return clockTimes;
     }
 
-    private String getFileToFilter(Integer year, Integer month) {
-        String fileToFilter = persistenceFile;
-        if (year == null && month == null) {
-            fileToFilter = createFileName(year, month);
+    private List<ClockTime> readFile(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            filesOpened.increment();
+            ByteBuffer content = ReadBuffers.readFully(channel);
+            bytesRead.increment(content.remaining());
+            return new ArrayList<>(codec.decode(content.array(), content.arrayOffset(), content.remaining()));
         }
-        return fileToFilter;
     }
 }
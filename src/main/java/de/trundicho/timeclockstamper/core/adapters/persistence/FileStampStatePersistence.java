@@ -0,0 +1,57 @@
+package de.trundicho.timeclockstamper.core.adapters.persistence;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import de.trundicho.timeclockstamper.core.domain.model.StampState;
+import de.trundicho.timeclockstamper.core.service.StampStatePersistencePort;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stores the current stamp state in a single file next to the month files, e.g. {@code clockTime-state.json}. Fields of older
+ * records that no longer exist are ignored.
+ */
+@Slf4j
+public class FileStampStatePersistence implements StampStatePersistencePort {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+                                                        .addModule(new JavaTimeModule())
+                                                        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                                                        .build();
+    private final Path file;
+
+    public FileStampStatePersistence(String persistenceFolder, String persistenceFile) {
+        this.file = Path.of(persistenceFolder + persistenceFile).toAbsolutePath();
+    }
+
+    @Override
+    public StampState read() {
+        try {
+            return objectMapper.readValue(Files.readAllBytes(file), StampState.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.error("Can not read stamp state from {}", file, e);
+            return null;
+        }
+    }
+
+    @Override
+    public void write(StampState stampState) {
+        try {
+            Path tempFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            Files.write(tempFile, objectMapper.writeValueAsBytes(stampState));
+            Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.error("Can not write stamp state to {}", file, e);
+        }
+    }
+}
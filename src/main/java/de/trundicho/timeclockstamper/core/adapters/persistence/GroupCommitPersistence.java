@@ -0,0 +1,137 @@
+package de.trundicho.timeclockstamper.core.adapters.persistence;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.domain.model.VersionedClockTimes;
+import de.trundicho.timeclockstamper.core.service.ClockTimePersistencePort;
+
+/**
+ * Group commit for stamps. Appends are handed to a {@link GroupCommitter}, which merges the stamps of a batch per month and
+ * writes them with one versioned write per month. Every caller returns once the write holding its stamp is done, so a returned
+ * append is exactly as durable as a direct write to the delegate.
+ * <p>
+ * Appends commute, so {@link #compareAndAppend} ignores the expected version and returns the version of the batch write. All
+ * other operations go straight to the delegate. With one port per tenant, pass the same committer to the group commits of all
+ * tenants, so they share one batch and one committer thread.
+ */
+public class GroupCommitPersistence implements ClockTimePersistencePort, AutoCloseable {
+
+    private final ClockTimePersistencePort delegate;
+    private final ZoneId zoneId;
+    private final GroupCommitter committer;
+    private final boolean ownsCommitter;
+
+    public GroupCommitPersistence(ClockTimePersistencePort delegate, String timeZone) {
+        this(delegate, timeZone, Duration.ofMillis(2), 512);
+    }
+
+    public GroupCommitPersistence(ClockTimePersistencePort delegate, String timeZone, Duration window, int maxBatchSize) {
+        this(delegate, timeZone, new GroupCommitter(window, maxBatchSize), true);
+    }
+
+    /**
+     * Group commit on a shared {@code committer}, which is closed by its owner and not by {@link #close()}.
+     */
+    public GroupCommitPersistence(ClockTimePersistencePort delegate, String timeZone, GroupCommitter committer) {
+        this(delegate, timeZone, committer, false);
+    }
+
+    private GroupCommitPersistence(ClockTimePersistencePort delegate, String timeZone, GroupCommitter committer,
+            boolean ownsCommitter) {
+        this.delegate = delegate;
+        this.zoneId = ZoneId.of(timeZone);
+        this.committer = committer;
+        this.ownsCommitter = ownsCommitter;
+    }
+
+    @Override
+    public void write(List<ClockTime> clockTimes, Integer year, Integer month) {
+        delegate.write(clockTimes, year, month);
+    }
+
+    @Override
+    public void append(ClockTime clockTime, List<ClockTime> clockTimes, Integer year, Integer month) {
+        appendAndWait(clockTime, year, month);
+    }
+
+    /**
+     * @return the version written by the batch holding the stamp
+     */
+    @Override
+    public long compareAndAppend(ClockTime clockTime, List<ClockTime> clockTimes, Integer year, Integer month,
+            long expectedVersion) {
+        return appendAndWait(clockTime, year, month);
+    }
+
+    private long appendAndWait(ClockTime clockTime, Integer year, Integer month) {
+        CompletableFuture<Long> committed = committer.enqueue(delegate, clockTime, yearMonth(year, month));
+        try {
+            return committed.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean mergesAppends() {
+        return true;
+    }
+
+    @Override
+    public List<ClockTime> read(Integer year, Integer month) {
+        return delegate.read(year, month);
+    }
+
+    @Override
+    public List<ClockTime> readRange(YearMonth from, YearMonth to) {
+        return delegate.readRange(from, to);
+    }
+
+    @Override
+    public long version(Integer year, Integer month) {
+        return delegate.version(year, month);
+    }
+
+    @Override
+    public VersionedClockTimes readVersioned(Integer year, Integer month) {
+        return delegate.readVersioned(year, month);
+    }
+
+    @Override
+    public long compareAndWrite(List<ClockTime> clockTimes, Integer year, Integer month, long expectedVersion) {
+        return delegate.compareAndWrite(clockTimes, year, month, expectedVersion);
+    }
+
+    public long getCommittedBatches() {
+        return committer.getCommittedBatches();
+    }
+
+    public long getMonthWrites() {
+        return committer.getMonthWrites();
+    }
+
+    /**
+     * Commits all pending stamps and stops an own committer, appends after closing fail. A shared committer is left to its owner.
+     */
+    @Override
+    public void close() {
+        if (ownsCommitter) {
+            committer.close();
+        }
+    }
+
+    private YearMonth yearMonth(Integer year, Integer month) {
+        LocalDateTime now = LocalDateTime.now(zoneId);
+        return YearMonth.of(year == null ? now.getYear() : year, month == null ? now.getMonthValue() : month);
+    }
+}
@@ -0,0 +1,246 @@
+package de.trundicho.timeclockstamper.core.adapters.persistence;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.domain.model.VersionedClockTimes;
+import de.trundicho.timeclockstamper.core.service.ClockTimePersistencePort;
+import de.trundicho.timeclockstamper.core.service.WriteBackoff;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The committer thread of {@link GroupCommitPersistence}. Stamps are collected for up to {@code window} after the first one arrives
+ * or until {@code maxBatchSize} stamps are pending, merged per store and month and written with one versioned write each. One
+ * committer can be shared by the group commits of many tenants, so a batch spans all of them and there is a single committer
+ * thread.
+ * <p>
+ * If the committer thread dies, all pending stamps fail and later stamps are rejected.
+ */
+@Slf4j
+public class GroupCommitter implements AutoCloseable {
+
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Thread committer;
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong monthWrites = new AtomicLong();
+    private List<PendingStamp> pending = new ArrayList<>();
+    private long firstPendingNanos;
+    private boolean closed;
+
+    public GroupCommitter() {
+        this(Duration.ofMillis(2), 512);
+    }
+
+    public GroupCommitter(Duration window, int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.committer = new Thread(this::commitLoop, "group-commit");
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+
+    public long getCommittedBatches() {
+        return batches.get();
+    }
+
+    public long getMonthWrites() {
+        return monthWrites.get();
+    }
+
+    /**
+     * Commits all pending stamps and stops the committer thread. Stamps after closing are rejected.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return completes with the version written by the batch holding the stamp
+     */
+    CompletableFuture<Long> enqueue(ClockTimePersistencePort delegate, ClockTime clockTime, YearMonth yearMonth) {
+        PendingStamp stamp = new PendingStamp(delegate, clockTime, yearMonth);
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Group commit is closed");
+            }
+            if (pending.isEmpty()) {
+                firstPendingNanos = System.nanoTime();
+                changed.signalAll();
+            }
+            pending.add(stamp);
+            if (pending.size() >= maxBatchSize) {
+                changed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return stamp.committed;
+    }
+
+    private void commitLoop() {
+        List<PendingStamp> batch = List.of();
+        Throwable failure = null;
+        try {
+            while (true) {
+                batch = nextBatch();
+                if (batch == null) {
+                    return;
+                }
+                commit(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = e;
+        } catch (Throwable e) {
+            log.error("Group committer stopped", e);
+            failure = e;
+            throw e;
+        } finally {
+            stop(batch, failure);
+        }
+    }
+
+    //fails what is left once the committer is gone, so no caller waits forever
+    private void stop(List<PendingStamp> batch, Throwable failure) {
+        List<PendingStamp> unfinished = new ArrayList<>(batch);
+        lock.lock();
+        try {
+            closed = true;
+            unfinished.addAll(pending);
+            pending = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+        IllegalStateException stopped = new IllegalStateException("Group commit stopped", failure);
+        unfinished.forEach(stamp -> stamp.committed.completeExceptionally(stopped));
+    }
+
+    private List<PendingStamp> nextBatch() throws InterruptedException {
+        lock.lock();
+        try {
+            while (pending.isEmpty() && !closed) {
+                changed.await();
+            }
+            if (pending.isEmpty()) {
+                return null;
+            }
+            long remaining = firstPendingNanos + windowNanos - System.nanoTime();
+            while (!closed && pending.size() < maxBatchSize && remaining > 0) {
+                changed.awaitNanos(remaining);
+                remaining = firstPendingNanos + windowNanos - System.nanoTime();
+            }
+            List<PendingStamp> batch = pending;
+            pending = new ArrayList<>();
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void commit(List<PendingStamp> batch) {
+        Map<StoreMonth, List<PendingStamp>> stampsByMonth = new LinkedHashMap<>();
+        for (PendingStamp stamp : batch) {
+            stampsByMonth.computeIfAbsent(new StoreMonth(stamp.delegate, stamp.yearMonth), m -> new ArrayList<>()).add(stamp);
+        }
+        stampsByMonth.forEach((storeMonth, stamps) -> {
+            try {
+                long version = commitMonth(storeMonth, stamps);
+                stamps.forEach(stamp -> stamp.committed.complete(version));
+            } catch (RuntimeException e) {
+                log.error("Can not commit {} stamps of {}", stamps.size(), storeMonth.yearMonth, e);
+                stamps.forEach(stamp -> stamp.committed.completeExceptionally(e));
+            }
+        });
+        batches.incrementAndGet();
+    }
+
+    private long commitMonth(StoreMonth storeMonth, List<PendingStamp> stamps) {
+        int year = storeMonth.yearMonth.getYear();
+        int month = storeMonth.yearMonth.getMonthValue();
+        for (int attempt = 0; attempt < WriteBackoff.MAX_ATTEMPTS; attempt++) {
+            VersionedClockTimes versioned = storeMonth.delegate.readVersioned(year, month);
+            List<ClockTime> clockTimes = new ArrayList<>(versioned.getClockTimes());
+            for (PendingStamp stamp : stamps) {
+                clockTimes.add(stamp.clockTime);
+            }
+            long version = storeMonth.delegate.compareAndWrite(clockTimes, year, month, versioned.getVersion());
+            if (version != ClockTimePersistencePort.CONFLICT) {
+                monthWrites.incrementAndGet();
+                return version;
+            }
+            WriteBackoff.afterConflict(attempt);
+        }
+        throw new IllegalStateException(
+                "Could not commit " + storeMonth.yearMonth + " after " + WriteBackoff.MAX_ATTEMPTS + " concurrent modifications");
+    }
+
+    private static class PendingStamp {
+
+        private final ClockTimePersistencePort delegate;
+        private final ClockTime clockTime;
+        private final YearMonth yearMonth;
+        private final CompletableFuture<Long> committed = new CompletableFuture<>();
+
+        private PendingStamp(ClockTimePersistencePort delegate, ClockTime clockTime, YearMonth yearMonth) {
+            this.delegate = delegate;
+            this.clockTime = clockTime;
+            this.yearMonth = yearMonth;
+        }
+    }
+
+    //stores are told apart by identity, every tenant has its own port
+    private static class StoreMonth {
+
+        private final ClockTimePersistencePort delegate;
+        private final YearMonth yearMonth;
+
+        private StoreMonth(ClockTimePersistencePort delegate, YearMonth yearMonth) {
+            this.delegate = delegate;
+            this.yearMonth = yearMonth;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof StoreMonth)) {
+                return false;
+            }
+            StoreMonth other = (StoreMonth) o;
+            return delegate == other.delegate && yearMonth.equals(other.yearMonth);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(delegate), yearMonth);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package de.trundicho.timeclockstamper.core.adapters.persistence;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.domain.model.VersionedClockTimes;
+import de.trundicho.timeclockstamper.core.service.ClockTimePersistencePort;
+import de.trundicho.timeclockstamper.core.service.Metrics;
+
+/**
+ * Records the latency of every operation of another {@link ClockTimePersistencePort} as {@code persistence.<operation>} timers,
+ * plus the clock times read and written and the number of lost compare-and-write races.
+ */
+public class InstrumentedPersistence implements ClockTimePersistencePort {
+
+    private final ClockTimePersistencePort delegate;
+    private final Metrics.Timer readTimer;
+    private final Metrics.Timer readRangeTimer;
+    private final Metrics.Timer readVersionedTimer;
+    private final Metrics.Timer readDayVersionedTimer;
+    private final Metrics.Timer versionTimer;
+    private final Metrics.Timer writeTimer;
+    private final Metrics.Timer appendTimer;
+    private final Metrics.Timer compareAndWriteTimer;
+    private final Metrics.Timer compareAndAppendTimer;
+    private final Metrics.Counter clockTimesRead;
+    private final Metrics.Counter clockTimesWritten;
+    private final Metrics.Counter conflicts;
+
+    public InstrumentedPersistence(ClockTimePersistencePort delegate, Metrics metrics) {
+        this.delegate = delegate;
+        this.readTimer = metrics.timer("persistence.read");
+        this.readRangeTimer = metrics.timer("persistence.readRange");
+        this.readVersionedTimer = metrics.timer("persistence.readVersioned");
+        this.readDayVersionedTimer = metrics.timer("persistence.readDayVersioned");
+        this.versionTimer = metrics.timer("persistence.version");
+        this.writeTimer = metrics.timer("persistence.write");
+        this.appendTimer = metrics.timer("persistence.append");
+        this.compareAndWriteTimer = metrics.timer("persistence.compareAndWrite");
+        this.compareAndAppendTimer = metrics.timer("persistence.compareAndAppend");
+        this.clockTimesRead = metrics.counter("persistence.clockTimes.read");
+        this.clockTimesWritten = metrics.counter("persistence.clockTimes.written");
+        this.conflicts = metrics.counter("persistence.conflicts");
+    }
+
+    @Override
+    public void write(List<ClockTime> clockTimes, Integer year, Integer month) {
+        long start = writeTimer.start();
+        try {
+            delegate.write(clockTimes, year, month);
+            clockTimesWritten.increment(clockTimes.size());
+        } finally {
+            writeTimer.stop(start);
+        }
+    }
+
+    @Override
+    public void append(ClockTime clockTime, List<ClockTime> clockTimes, Integer year, Integer month) {
+        long start = appendTimer.start();
+        try {
+            delegate.append(clockTime, clockTimes, year, month);
+            clockTimesWritten.increment();
+        } finally {
+            appendTimer.stop(start);
+        }
+    }
+
+    @Override
+    public List<ClockTime> read(Integer year, Integer month) {
+        long start = readTimer.start();
+        try {
+            List<ClockTime> clockTimes = delegate.read(year, month);
+            clockTimesRead.increment(clockTimes.size());
+            return clockTimes;
+        } finally {
+            readTimer.stop(start);
+        }
+    }
+
+    @Override
+    public List<ClockTime> readRange(YearMonth from, YearMonth to) {
+        long start = readRangeTimer.start();
+        try {
+            List<ClockTime> clockTimes = delegate.readRange(from, to);
+            clockTimesRead.increment(clockTimes.size());
+            return clockTimes;
+        } finally {
+            readRangeTimer.stop(start);
+        }
+    }
+
+    @Override
+    public long version(Integer year, Integer month) {
+        long start = versionTimer.start();
+        try {
+            return delegate.version(year, month);
+        } finally {
+            versionTimer.stop(start);
+        }
+    }
+
+    @Override
+    public VersionedClockTimes readVersioned(Integer year, Integer month) {
+        long start = readVersionedTimer.start();
+        try {
+            VersionedClockTimes versioned = delegate.readVersioned(year, month);
+            clockTimesRead.increment(versioned.getClockTimes().size());
+            return versioned;
+        } finally {
+            readVersionedTimer.stop(start);
+        }
+    }
+
+    @Override
+    public VersionedClockTimes readDayVersioned(int year, int month, int day) {
+        long start = readDayVersionedTimer.start();
+        try {
+            VersionedClockTimes versioned = delegate.readDayVersioned(year, month, day);
+            clockTimesRead.increment(versioned.getClockTimes().size());
+            return versioned;
+        } finally {
+            readDayVersionedTimer.stop(start);
+        }
+    }
+
+    @Override
+    public long compareAndWrite(List<ClockTime> clockTimes, Integer year, Integer month, long expectedVersion) {
+        long start = compareAndWriteTimer.start();
+        try {
+            return written(delegate.compareAndWrite(clockTimes, year, month, expectedVersion), clockTimes.size());
+        } finally {
+            compareAndWriteTimer.stop(start);
+        }
+    }
+
+    @Override
+    public long compareAndAppend(ClockTime clockTime, List<ClockTime> clockTimes, Integer year, Integer month,
+            long expectedVersion) {
+        long start = compareAndAppendTimer.start();
+        try {
+            return written(delegate.compareAndAppend(clockTime, clockTimes, year, month, expectedVersion), 1);
+        } finally {
+            compareAndAppendTimer.stop(start);
+        }
+    }
+
+    @Override
+    public boolean mergesAppends() {
+        return delegate.mergesAppends();
+    }
+
+    private long written(long version, int clockTimes) {
+        if (version == CONFLICT) {
+            conflicts.increment();
+        } else {
+            clockTimesWritten.increment(clockTimes);
+        }
+        return version;
+    }
+}
@@ -0,0 +1,378 @@
+package de.trundicho.timeclockstamper.core.adapters.persistence;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.domain.model.VersionedClockTimes;
+import de.trundicho.timeclockstamper.core.service.ClockTimePersistencePort;
+import de.trundicho.timeclockstamper.core.service.Metrics;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stores the clock times of one user in an embedded SQL database, one row per stamp, indexed on (user, timestamp). Month, day and
+ * range reads are index range scans, a stamp is a single row insert. Month versions live in their own table and are bumped in the
+ * same transaction as the data, so like the file versions they survive restarts and are shared by all processes using the
+ * database.
+ * <p>
+ * Like the file adapter, a month write only keeps the stamps that belong to the month. Failed plain reads are logged and return no
+ * clock times; failed versions, versioned reads and writes throw. Only writes that lost against a concurrent writer, a duplicate
+ * month row or a serialization failure, report a conflict.
+ * <p>
+ * The tables are created by {@link #createSchema(DataSource)}. The H2 driver is an optional dependency, applications using
+ * {@link #h2DataSource(String)} have to add it.
+ */
+@Slf4j
+public class JdbcPersistence implements ClockTimePersistencePort {
+
+    private static final String SELECT_RANGE = "SELECT stamp, pause FROM clock_time WHERE user_id = ? AND stamp >= ? AND stamp < ? "
+            + "ORDER BY stamp, id";
+    private static final String DUPLICATE_KEY = "23505";
+    private static final String SERIALIZATION_FAILURE = "40001";
+    private static final int OPTIMISTIC_READS = 3;
+    private static final int VERSION_BUMP_ATTEMPTS = 3;
+
+    private final DataSource dataSource;
+    private final String userId;
+    private final ZoneId zoneId;
+    private final Metrics.Counter rowsRead;
+    private final Metrics.Counter rowsWritten;
+    private final Metrics.Counter readErrors;
+    private final Metrics.Counter writeErrors;
+
+    public JdbcPersistence(DataSource dataSource, String userId, String timeZone) {
+        this(dataSource, userId, timeZone, Metrics.noop());
+    }
+
+    public JdbcPersistence(DataSource dataSource, String userId, String timeZone, Metrics metrics) {
+        this.dataSource = dataSource;
+        this.userId = userId;
+        this.zoneId = ZoneId.of(timeZone);
+        this.rowsRead = metrics.counter("jdbc.rows.read");
+        this.rowsWritten = metrics.counter("jdbc.rows.written");
+        this.readErrors = metrics.counter("jdbc.read.errors");
+        this.writeErrors = metrics.counter("jdbc.write.errors");
+    }
+
+    /**
+     * Creates the tables and the index unless they exist. Run it once per database before adapters use it, the constructor does
+     * not touch the database.
+     */
+    public static void createSchema(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS clock_time (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "user_id VARCHAR(64) NOT NULL, stamp TIMESTAMP(9) NOT NULL, pause INT)");
+            statement.execute("CREATE INDEX IF NOT EXISTS clock_time_user_stamp ON clock_time (user_id, stamp)");
+            statement.execute("CREATE TABLE IF NOT EXISTS clock_time_month (user_id VARCHAR(64) NOT NULL, month_key INT NOT NULL, "
+                    + "version BIGINT NOT NULL, PRIMARY KEY (user_id, month_key))");
+        } catch (SQLException e) {
+            throw new IllegalStateException("Can not create clock time tables", e);
+        }
+    }
+
+    /**
+     * Pooled connections to an H2 database, e.g. {@code jdbc:h2:./clockTimes} for a file next to the working directory.
+     */
+    public static DataSource h2DataSource(String url) {
+        return JdbcConnectionPool.create(url, "sa", "");
+    }
+
+    @Override
+    public void write(List<ClockTime> clockTimes, Integer year, Integer month) {
+        YearMonth yearMonth = yearMonth(year, month);
+        inTransaction(connection -> {
+            replaceMonth(connection, clockTimes, yearMonth);
+            return bumpVersion(connection, yearMonth);
+        });
+    }
+
+    @Override
+    public void append(ClockTime clockTime, List<ClockTime> clockTimes, Integer year, Integer month) {
+        compareAndAppend(clockTime, clockTimes, year, month, -1);
+    }
+
+    @Override
+    public List<ClockTime> read(Integer year, Integer month) {
+        YearMonth yearMonth = yearMonth(year, month);
+        return query(yearMonth.atDay(1).atStartOfDay(), yearMonth.plusMonths(1).atDay(1).atStartOfDay());
+    }
+
+    /**
+     * Clock times of one day in date order.
+     */
+    public List<ClockTime> readDay(LocalDate day) {
+        return query(day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+    }
+
+    /**
+     * All clock times from month {@code from} up to and including month {@code to} with one index range scan, in date order.
+     */
+    @Override
+    public List<ClockTime> readRange(YearMonth from, YearMonth to) {
+        return query(from.atDay(1).atStartOfDay(), to.plusMonths(1).atDay(1).atStartOfDay());
+    }
+
+    @Override
+    public long version(Integer year, Integer month) {
+        try (Connection connection = dataSource.getConnection()) {
+            return version(connection, yearMonth(year, month));
+        } catch (SQLException e) {
+            readErrors.increment();
+            throw new IllegalStateException("Can not read version of " + yearMonth(year, month), e);
+        }
+    }
+
+    /**
+     * Reads the version before and after the month, so the clock times belong to the version. If writers keep changing the month,
+     * it is read in a transaction holding the lock of its version row.
+     */
+    @Override
+    public VersionedClockTimes readVersioned(Integer year, Integer month) {
+        YearMonth yearMonth = yearMonth(year, month);
+        LocalDateTime from = yearMonth.atDay(1).atStartOfDay();
+        LocalDateTime to = yearMonth.plusMonths(1).atDay(1).atStartOfDay();
+        try (Connection connection = dataSource.getConnection()) {
+            for (int attempt = 0; attempt < OPTIMISTIC_READS; attempt++) {
+                long version = version(connection, yearMonth);
+                List<ClockTime> clockTimes = query(connection, from, to);
+                if (version == version(connection, yearMonth)) {
+                    return new VersionedClockTimes().setVersion(version).setClockTimes(clockTimes);
+                }
+            }
+            return lockedRead(connection, yearMonth, from, to);
+        } catch (SQLException e) {
+            readErrors.increment();
+            throw new IllegalStateException("Can not read " + yearMonth, e);
+        }
+    }
+
+    @Override
+    public long compareAndWrite(List<ClockTime> clockTimes, Integer year, Integer month, long expectedVersion) {
+        YearMonth yearMonth = yearMonth(year, month);
+        return inTransaction(connection -> {
+            if (!compareAndBumpVersion(connection, yearMonth, expectedVersion)) {
+                return CONFLICT;
+            }
+            replaceMonth(connection, clockTimes, yearMonth);
+            return expectedVersion + 1;
+        });
+    }
+
+    /**
+     * Inserts the stamp as one row. Appends commute, so the expected version is ignored.
+     */
+    @Override
+    public long compareAndAppend(ClockTime clockTime, List<ClockTime> clockTimes, Integer year, Integer month,
+            long expectedVersion) {
+        YearMonth yearMonth = yearMonth(year, month);
+        return inTransaction(connection -> {
+            insert(connection, List.of(clockTime));
+            return bumpVersion(connection, yearMonth);
+        });
+    }
+
+    @Override
+    public boolean mergesAppends() {
+        return true;
+    }
+
+    private VersionedClockTimes lockedRead(Connection connection, YearMonth yearMonth, LocalDateTime from, LocalDateTime to)
+            throws SQLException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement lock = connection.prepareStatement(
+                "SELECT version FROM clock_time_month WHERE user_id = ? AND month_key = ? FOR UPDATE")) {
+            lock.setString(1, userId);
+            lock.setInt(2, monthKey(yearMonth));
+            lock.executeQuery().close();
+            long version = version(connection, yearMonth);
+            List<ClockTime> clockTimes = query(connection, from, to);
+            if (version != version(connection, yearMonth)) {
+                //only a concurrent first write of the month is not held back by the lock
+                throw new IllegalStateException("Could not read " + yearMonth + ", it keeps changing");
+            }
+            return new VersionedClockTimes().setVersion(version).setClockTimes(clockTimes);
+        } finally {
+            connection.rollback();
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private List<ClockTime> query(LocalDateTime from, LocalDateTime to) {
+        try (Connection connection = dataSource.getConnection()) {
+            return query(connection, from, to);
+        } catch (SQLException e) {
+            readErrors.increment();
+            log.error("Can not read clock times from {} to {}, returning no clock times", from, to, e);
+            return new ArrayList<>();
+        }
+    }
+
+    private List<ClockTime> query(Connection connection, LocalDateTime from, LocalDateTime to) throws SQLException {
+        List<ClockTime> clockTimes = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_RANGE)) {
+            statement.setString(1, userId);
+            statement.setObject(2, from);
+            statement.setObject(3, to);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    LocalDateTime date = resultSet.getObject(1, LocalDateTime.class);
+                    int pause = resultSet.getInt(2);
+                    clockTimes.add(new ClockTime().setDate(date).setPause(resultSet.wasNull() ? null : pause));
+                }
+            }
+        }
+        rowsRead.increment(clockTimes.size());
+        return clockTimes;
+    }
+
+    private void replaceMonth(Connection connection, List<ClockTime> clockTimes, YearMonth yearMonth) throws SQLException {
+        try (PreparedStatement delete = connection.prepareStatement(
+                "DELETE FROM clock_time WHERE user_id = ? AND stamp >= ? AND stamp < ?")) {
+            delete.setString(1, userId);
+            delete.setObject(2, yearMonth.atDay(1).atStartOfDay());
+            delete.setObject(3, yearMonth.plusMonths(1).atDay(1).atStartOfDay());
+            delete.executeUpdate();
+        }
+        insert(connection, clockTimes.stream()
+                                     .filter(c -> YearMonth.from(c.getDate()).equals(yearMonth))
+                                     .sorted()
+                                     .collect(Collectors.toList()));
+    }
+
+    private void insert(Connection connection, List<ClockTime> clockTimes) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO clock_time (user_id, stamp, pause) VALUES (?, ?, ?)")) {
+            for (ClockTime clockTime : clockTimes) {
+                insert.setString(1, userId);
+                insert.setObject(2, clockTime.getDate());
+                if (clockTime.getPause() == null) {
+                    insert.setNull(3, Types.INTEGER);
+                } else {
+                    insert.setInt(3, clockTime.getPause());
+                }
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        rowsWritten.increment(clockTimes.size());
+    }
+
+    private long version(Connection connection, YearMonth yearMonth) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT version FROM clock_time_month WHERE user_id = ? AND month_key = ?")) {
+            statement.setString(1, userId);
+            statement.setInt(2, monthKey(yearMonth));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getLong(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Increments the version whatever it is, creating the month row on the first write. Fails as a serialization failure if the
+     * month row keeps being created and removed concurrently.
+     */
+    private long bumpVersion(Connection connection, YearMonth yearMonth) throws SQLException {
+        for (int attempt = 0; attempt < VERSION_BUMP_ATTEMPTS; attempt++) {
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE clock_time_month SET version = version + 1 WHERE user_id = ? AND month_key = ?")) {
+                update.setString(1, userId);
+                update.setInt(2, monthKey(yearMonth));
+                if (update.executeUpdate() == 1) {
+                    return version(connection, yearMonth);
+                }
+            }
+            if (compareAndBumpVersion(connection, yearMonth, 0)) {
+                return 1;
+            }
+        }
+        throw new SQLException("Could not bump the version of " + yearMonth, SERIALIZATION_FAILURE);
+    }
+
+    private boolean compareAndBumpVersion(Connection connection, YearMonth yearMonth, long expectedVersion) throws SQLException {
+        if (expectedVersion == 0) {
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO clock_time_month (user_id, month_key, version) SELECT ?, ?, 1 WHERE NOT EXISTS "
+                            + "(SELECT 1 FROM clock_time_month WHERE user_id = ? AND month_key = ?)")) {
+                insert.setString(1, userId);
+                insert.setInt(2, monthKey(yearMonth));
+                insert.setString(3, userId);
+                insert.setInt(4, monthKey(yearMonth));
+                return insert.executeUpdate() == 1;
+            } catch (SQLException e) {
+                if (isConflict(e)) {
+                    //the month row was created concurrently
+                    return false;
+                }
+                throw e;
+            }
+        }
+        try (PreparedStatement update = connection.prepareStatement(
+                "UPDATE clock_time_month SET version = version + 1 WHERE user_id = ? AND month_key = ? AND version = ?")) {
+            update.setString(1, userId);
+            update.setInt(2, monthKey(yearMonth));
+            update.setLong(3, expectedVersion);
+            return update.executeUpdate() == 1;
+        }
+    }
+
+    private long inTransaction(SqlWork work) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                long version = work.run(connection);
+                if (version != CONFLICT) {
+                    connection.commit();
+                } else {
+                    connection.rollback();
+                }
+                return version;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            if (isConflict(e)) {
+                return CONFLICT;
+            }
+            writeErrors.increment();
+            throw new IllegalStateException("Can not write clock times of user " + userId, e);
+        }
+    }
+
+    private static boolean isConflict(SQLException e) {
+        return DUPLICATE_KEY.equals(e.getSQLState()) || SERIALIZATION_FAILURE.equals(e.getSQLState());
+    }
+
+    private YearMonth yearMonth(Integer year, Integer month) {
+        LocalDateTime now = LocalDateTime.now(zoneId);
+        return YearMonth.of(year == null ? now.getYear() : year, month == null ? now.getMonthValue() : month);
+    }
+
+    private static int monthKey(YearMonth yearMonth) {
+        return yearMonth.getYear() * 100 + yearMonth.getMonthValue();
+    }
+
+    private interface SqlWork {
+
+        long run(Connection connection) throws SQLException;
+    }
+}
@@ -0,0 +1,445 @@
+package de.trundicho.timeclockstamper.core.adapters.persistence;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.domain.model.VersionedClockTimes;
+import de.trundicho.timeclockstamper.core.service.ClockTimePersistencePort;
+import de.trundicho.timeclockstamper.core.service.WriteBackoff;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only journal in front of a month snapshot store. A stamp is a single fsync'd line appended to the month journal, the
+ * snapshot is only rewritten when the journal reaches the compaction threshold, on {@link #compact()} and on startup. Reads of a
+ * month with a journal are served from the snapshot read once plus the journal tail kept in memory.
+ * <p>
+ * Each journal starts with the version of the snapshot it extends. A journal whose snapshot is still at that version is replayed
+ * as a whole; if the snapshot changed in the meantime, e.g. because a compaction crashed before deleting the journal, only the
+ * entries missing from the snapshot are added. A journal is only deleted after a snapshot holding all its entries was written, so
+ * a snapshot that can not be read never costs acknowledged stamps.
+ * <p>
+ * Month versions grow like a hybrid logical clock: at least by one per change and at least to the wall clock in nanoseconds, and
+ * to the snapshot version after every snapshot write. Over a snapshot store with wall clock versions, like {@link FilePersistence},
+ * a month without journal therefore keeps its version over restarts, and a month with a journal moves to a newer version when it
+ * is compacted on startup.
+ */
+@Slf4j
+public class JournalPersistence implements ClockTimePersistencePort {
+
+    private static final String SNAPSHOT_VERSION = "snapshotVersion";
+    private static final int CACHED_MONTHS = 24;
+
+    private final ClockTimePersistencePort snapshot;
+    private final String journalFolder;
+    private final String journalFile;
+    private final ZoneId zoneId;
+    private final int compactionThreshold;
+    private final ObjectMapper objectMapper;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<YearMonth, JournaledMonth> months = new LinkedHashMap<>(16, 0.75f, true) {
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<YearMonth, JournaledMonth> eldest) {
+            return size() > CACHED_MONTHS && eldest.getValue().isSnapshot();
+        }
+    };
+
+    public JournalPersistence(ClockTimePersistencePort snapshot, String journalFolder, String journalFile, String timeZone) {
+        this(snapshot, journalFolder, journalFile, timeZone, 64);
+    }
+
+    public JournalPersistence(ClockTimePersistencePort snapshot, String journalFolder, String journalFile, String timeZone,
+            int compactionThreshold) {
+        this.snapshot = snapshot;
+        this.journalFolder = journalFolder;
+        this.journalFile = journalFile;
+        this.zoneId = ZoneId.of(timeZone);
+        this.compactionThreshold = compactionThreshold;
+        this.objectMapper = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+        replay();
+    }
+
+    @Override
+    public void write(List<ClockTime> clockTimes, Integer year, Integer month) {
+        YearMonth yearMonth = yearMonth(year, month);
+        lock.lock();
+        try {
+            //replaces the month including its journal, so the snapshot does not have to be readable
+            long snapshotVersion = snapshot.compareAndWrite(clockTimes, yearMonth.getYear(), yearMonth.getMonthValue(),
+                    snapshot.version(yearMonth.getYear(), yearMonth.getMonthValue()));
+            for (int attempt = 0; snapshotVersion == CONFLICT; attempt++) {
+                if (attempt + 1 >= WriteBackoff.MAX_ATTEMPTS) {
+                    throw new IllegalStateException("Could not write " + yearMonth + ", the snapshot keeps changing");
+                }
+                WriteBackoff.afterConflict(attempt);
+                snapshotVersion = snapshot.compareAndWrite(clockTimes, yearMonth.getYear(), yearMonth.getMonthValue(),
+                        snapshot.version(yearMonth.getYear(), yearMonth.getMonthValue()));
+            }
+            JournaledMonth journaled = months.computeIfAbsent(yearMonth, m -> new JournaledMonth(
+                    new VersionedClockTimes().setClockTimes(List.of()).setVersion(0)));
+            snapshotWritten(yearMonth, journaled, clockTimes, snapshotVersion);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void append(ClockTime clockTime, List<ClockTime> clockTimes, Integer year, Integer month) {
+        lock.lock();
+        try {
+            append(clockTime, yearMonth(year, month), null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Never fails: a month whose snapshot can not be read is returned as far as it is known and the error is logged.
+     */
+    @Override
+    public List<ClockTime> read(Integer year, Integer month) {
+        YearMonth yearMonth = yearMonth(year, month);
+        lock.lock();
+        try {
+            return month(yearMonth).clockTimes();
+        } catch (RuntimeException e) {
+            log.error("Can not read {}", yearMonth, e);
+            List<ClockTime> clockTimes = new ArrayList<>(snapshot.read(yearMonth.getYear(), yearMonth.getMonthValue()));
+            JournaledMonth journaled = months.get(yearMonth);
+            if (journaled != null) {
+                clockTimes.addAll(journaled.pending);
+            }
+            return clockTimes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long version(Integer year, Integer month) {
+        YearMonth yearMonth = yearMonth(year, month);
+        lock.lock();
+        try {
+            if (!months.containsKey(yearMonth) && !Files.exists(journalPath(yearMonth))) {
+                return snapshot.version(yearMonth.getYear(), yearMonth.getMonthValue());
+            }
+            return month(yearMonth).version;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public VersionedClockTimes readVersioned(Integer year, Integer month) {
+        lock.lock();
+        try {
+            JournaledMonth journaled = month(yearMonth(year, month));
+            return new VersionedClockTimes().setClockTimes(journaled.clockTimes()).setVersion(journaled.version);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long compareAndWrite(List<ClockTime> clockTimes, Integer year, Integer month, long expectedVersion) {
+        YearMonth yearMonth = yearMonth(year, month);
+        lock.lock();
+        try {
+            JournaledMonth journaled = month(yearMonth);
+            if (journaled.version != expectedVersion) {
+                return CONFLICT;
+            }
+            long snapshotVersion = snapshot.compareAndWrite(clockTimes, yearMonth.getYear(), yearMonth.getMonthValue(),
+                    journaled.snapshotVersion);
+            if (snapshotVersion == CONFLICT) {
+                //the snapshot was written by someone else, whose changes are picked up by the next read
+                return CONFLICT;
+            }
+            snapshotWritten(yearMonth, journaled, clockTimes, snapshotVersion);
+            return journaled.version;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long compareAndAppend(ClockTime clockTime, List<ClockTime> clockTimes, Integer year, Integer month,
+            long expectedVersion) {
+        lock.lock();
+        try {
+            return append(clockTime, yearMonth(year, month), expectedVersion);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void compact() {
+        lock.lock();
+        try {
+            for (YearMonth yearMonth : new ArrayList<>(months.keySet())) {
+                if (!months.get(yearMonth).pending.isEmpty()) {
+                    compact(yearMonth, months.get(yearMonth));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long append(ClockTime clockTime, YearMonth yearMonth, Long expectedVersion) {
+        JournaledMonth journaled = month(yearMonth);
+        if (expectedVersion != null && journaled.version != expectedVersion) {
+            return CONFLICT;
+        }
+        try {
+            appendToJournal(yearMonth, journaled, clockTime);
+        } catch (IOException e) {
+            log.error("Can not append to journal of {}, rewriting month instead", yearMonth, e);
+            List<ClockTime> clockTimes = journaled.clockTimes();
+            clockTimes.add(clockTime);
+            long snapshotVersion = snapshot.compareAndWrite(clockTimes, yearMonth.getYear(), yearMonth.getMonthValue(),
+                    journaled.snapshotVersion);
+            if (snapshotVersion == CONFLICT) {
+                throw new IllegalStateException("Can not write " + yearMonth + ", the journal failed and the snapshot changed", e);
+            }
+            snapshotWritten(yearMonth, journaled, clockTimes, snapshotVersion);
+            return journaled.version;
+        }
+        journaled.pending.add(clockTime);
+        journaled.version = Math.max(journaled.version + 1, wallClockNanos());
+        if (journaled.pending.size() >= compactionThreshold) {
+            try {
+                compact(yearMonth, journaled);
+            } catch (RuntimeException e) {
+                //the stamp is safe in the journal, compaction is tried again with the next stamp
+                log.error("Can not compact journal of {}", yearMonth, e);
+            }
+        }
+        return journaled.version;
+    }
+
+    /**
+     * The month with its journal tail, read from the snapshot if it is not known yet or the snapshot was written by someone else.
+     * Throws if the snapshot can not be read.
+     */
+    private JournaledMonth month(YearMonth yearMonth) {
+        JournaledMonth journaled = months.get(yearMonth);
+        if (journaled != null && journaled.snapshotVersion == snapshot.version(yearMonth.getYear(), yearMonth.getMonthValue())) {
+            return journaled;
+        }
+        VersionedClockTimes snapshotMonth = snapshot.readVersioned(yearMonth.getYear(), yearMonth.getMonthValue());
+        if (journaled == null) {
+            journaled = new JournaledMonth(snapshotMonth);
+            months.put(yearMonth, journaled);
+            Path journal = journalPath(yearMonth);
+            if (Files.exists(journal)) {
+                replay(yearMonth, journal, journaled);
+            }
+            return journaled;
+        }
+        //written by someone else: keep the journal entries the snapshot does not have
+        List<ClockTime> pending = missingFrom(snapshotMonth.getClockTimes(), journaled.pending);
+        journaled.snapshot = new ArrayList<>(snapshotMonth.getClockTimes());
+        journaled.snapshotVersion = snapshotMonth.getVersion();
+        journaled.pending = pending;
+        journaled.version = Math.max(journaled.version + 1, snapshotMonth.getVersion());
+        compact(yearMonth, journaled);
+        return journaled;
+    }
+
+    private void compact(YearMonth yearMonth, JournaledMonth journaled) {
+        if (journaled.pending.isEmpty()) {
+            deleteJournal(yearMonth);
+            return;
+        }
+        List<ClockTime> clockTimes = journaled.clockTimes();
+        long snapshotVersion = snapshot.compareAndWrite(clockTimes, yearMonth.getYear(), yearMonth.getMonthValue(),
+                journaled.snapshotVersion);
+        for (int attempt = 0; snapshotVersion == CONFLICT; attempt++) {
+            if (attempt + 1 >= WriteBackoff.MAX_ATTEMPTS) {
+                throw new IllegalStateException("Could not compact the journal of " + yearMonth + ", the snapshot keeps changing");
+            }
+            WriteBackoff.afterConflict(attempt);
+            VersionedClockTimes snapshotMonth = snapshot.readVersioned(yearMonth.getYear(), yearMonth.getMonthValue());
+            journaled.pending = missingFrom(snapshotMonth.getClockTimes(), journaled.pending);
+            journaled.snapshot = new ArrayList<>(snapshotMonth.getClockTimes());
+            journaled.snapshotVersion = snapshotMonth.getVersion();
+            clockTimes = journaled.clockTimes();
+            snapshotVersion = snapshot.compareAndWrite(clockTimes, yearMonth.getYear(), yearMonth.getMonthValue(),
+                    journaled.snapshotVersion);
+        }
+        snapshotWritten(yearMonth, journaled, clockTimes, snapshotVersion);
+    }
+
+    private void snapshotWritten(YearMonth yearMonth, JournaledMonth journaled, List<ClockTime> clockTimes, long snapshotVersion) {
+        deleteJournal(yearMonth);
+        journaled.snapshot = new ArrayList<>(clockTimes);
+        journaled.snapshotVersion = snapshotVersion;
+        journaled.pending = new ArrayList<>();
+        journaled.version = snapshotVersion > journaled.version ? snapshotVersion : journaled.version + 1;
+    }
+
+    private void appendToJournal(YearMonth yearMonth, JournaledMonth journaled, ClockTime clockTime) throws IOException {
+        Path journal = journalPath(yearMonth);
+        StringBuilder lines = new StringBuilder();
+        if (journaled.pending.isEmpty()) {
+            lines.append(objectMapper.writeValueAsString(Map.of(SNAPSHOT_VERSION, journaled.snapshotVersion))).append('\n');
+        }
+        lines.append(objectMapper.writeValueAsString(clockTime)).append('\n');
+        StandardOpenOption mode = journaled.pending.isEmpty() ? StandardOpenOption.TRUNCATE_EXISTING : StandardOpenOption.APPEND;
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.WRITE, mode)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+
+    private void replay() {
+        Pattern journalPattern = Pattern.compile("(\\d{4})-(\\d{2})-" + Pattern.quote(journalFile));
+        File[] journals = new File(journalFolder).listFiles((dir, name) -> journalPattern.matcher(name).matches());
+        if (journals == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            for (File journal : journals) {
+                Matcher matcher = journalPattern.matcher(journal.getName());
+                if (!matcher.matches()) {
+                    continue;
+                }
+                YearMonth yearMonth = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+                try {
+                    month(yearMonth);
+                } catch (RuntimeException e) {
+                    //the journal stays, it is replayed when the month is used or on the next start
+                    log.error("Can not replay journal {}", journal, e);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void replay(YearMonth yearMonth, Path journal, JournaledMonth journaled) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(journal, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            months.remove(yearMonth);
+            throw new IllegalStateException("Can not read journal " + journal, e);
+        }
+        List<ClockTime> journalClockTimes = new ArrayList<>();
+        for (String line : lines.subList(Math.min(1, lines.size()), lines.size())) {
+            try {
+                journalClockTimes.add(objectMapper.readValue(line, ClockTime.class));
+            } catch (IOException e) {
+                log.warn("Skipping incomplete journal entry in {}", journal, e);
+            }
+        }
+        boolean extendsSnapshot = !lines.isEmpty() && snapshotVersion(lines.get(0)) == journaled.snapshotVersion;
+        journaled.pending = extendsSnapshot ? journalClockTimes : missingFrom(journaled.snapshot, journalClockTimes);
+        if (!extendsSnapshot) {
+            log.info("Snapshot of {} changed since journal {} was started, adding {} missing entries", yearMonth, journal,
+                    journaled.pending.size());
+        }
+        compact(yearMonth, journaled);
+    }
+
+    private long snapshotVersion(String header) {
+        try {
+            JsonNode node = objectMapper.readTree(header);
+            return node.path(SNAPSHOT_VERSION).asLong(CONFLICT);
+        } catch (IOException e) {
+            return CONFLICT;
+        }
+    }
+
+    private static List<ClockTime> missingFrom(List<ClockTime> snapshotClockTimes, List<ClockTime> journalClockTimes) {
+        Set<ClockTime> inSnapshot = new HashSet<>(snapshotClockTimes);
+        List<ClockTime> missing = new ArrayList<>();
+        for (ClockTime clockTime : journalClockTimes) {
+            if (!inSnapshot.contains(clockTime)) {
+                missing.add(clockTime);
+            }
+        }
+        return missing;
+    }
+
+    private void deleteJournal(YearMonth yearMonth) {
+        try {
+            Files.deleteIfExists(journalPath(yearMonth));
+        } catch (IOException e) {
+            log.error("Can not delete journal of {}", yearMonth, e);
+        }
+    }
+
+    private Path journalPath(YearMonth yearMonth) {
+        int month = yearMonth.getMonthValue();
+        return Path.of(journalFolder + yearMonth.getYear() + "-" + (month < 10 ? "0" + month : "" + month) + "-" + journalFile);
+    }
+
+    private YearMonth yearMonth(Integer year, Integer month) {
+        LocalDateTime now = LocalDateTime.now(zoneId);
+        return YearMonth.of(year == null ? now.getYear() : year, month == null ? now.getMonthValue() : month);
+    }
+
+    private static long wallClockNanos() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+    }
+
+    private static class JournaledMonth {
+
+        private List<ClockTime> snapshot;
+        private long snapshotVersion;
+        private List<ClockTime> pending = new ArrayList<>();
+        private long version;
+
+        private JournaledMonth(VersionedClockTimes snapshotMonth) {
+            this.snapshot = new ArrayList<>(snapshotMonth.getClockTimes());
+            this.snapshotVersion = snapshotMonth.getVersion();
+            this.version = snapshotMonth.getVersion();
+        }
+
+        private List<ClockTime> clockTimes() {
+            List<ClockTime> clockTimes = new ArrayList<>(snapshot.size() + pending.size());
+            clockTimes.addAll(snapshot);
+            clockTimes.addAll(pending);
+            return clockTimes;
+        }
+
+        /**
+         * Nothing but the snapshot, so it can be read again at any time.
+         */
+        private boolean isSnapshot() {
+            return pending.isEmpty() && version == snapshotVersion;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package de.trundicho.timeclockstamper.core.adapters.persistence;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * JSON array of clock times. Reader and writer are built once; both are immutable and shared by all threads.
+ */
+public class JsonClockTimeCodec implements ClockTimeCodec {
+
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+
+    public JsonClockTimeCodec() {
+        this(true);
+    }
+
+    /**
+     * @param prettyPrint false writes compact JSON without indentation; both variants can be read
+     */
+    public JsonClockTimeCodec(boolean prettyPrint) {
+        ObjectMapper objectMapper = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+        TypeReference<List<ClockTime>> clockTimesType = new TypeReference<>() {
+
+        };
+        this.reader = objectMapper.readerFor(clockTimesType);
+        ObjectWriter clockTimesWriter = objectMapper.writerFor(clockTimesType).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.writer = prettyPrint ? clockTimesWriter.withDefaultPrettyPrinter() : clockTimesWriter;
+    }
+
+    @Override
+    public byte[] encode(List<ClockTime> clockTimes) throws IOException {
+        return writer.writeValueAsBytes(clockTimes);
+    }
+
+    @Override
+    public void encode(List<ClockTime> clockTimes, OutputStream output) throws IOException {
+        writer.writeValue(output, clockTimes);
+    }
+
+    @Override
+    public List<ClockTime> decode(byte[] data, int offset, int length) throws IOException {
+        return reader.readValue(data, offset, length);
+    }
+}
@@ -0,0 +1,93 @@
+package de.trundicho.timeclockstamper.core.adapters.persistence;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTimeColumns;
+
+/**
+ * Read-only view of a month segment: fixed-width records sorted by date. {@link ClockTime} objects are only created when an element
+ * is accessed, day lookups use a binary search over the records. Calculations read the records as {@link ClockTimeColumns}.
+ */
+public class MappedMonthSegment extends AbstractList<ClockTime> implements ClockTimeColumns, RandomAccess {
+
+    static final int HEADER_LENGTH = 8;
+    static final int RECORD_LENGTH = 16;
+
+    private final ByteBuffer records;
+    private final int size;
+
+    MappedMonthSegment(ByteBuffer records) {
+        this.records = records;
+        this.size = (records.limit() - HEADER_LENGTH) / RECORD_LENGTH;
+    }
+
+    static MappedMonthSegment empty() {
+        return new MappedMonthSegment(ByteBuffer.allocate(HEADER_LENGTH));
+    }
+
+    @Override
+    public ClockTime get(int index) {
+        checkIndex(index);
+        int pause = pause(index);
+        return new ClockTime().setDate(LocalDateTime.ofEpochSecond(epochSecond(index), nanos(index), ZoneOffset.UTC))
+                              .setPause(pause == NO_PAUSE ? null : pause);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long epochSecond(int index) {
+        return records.getLong(offset(index));
+    }
+
+    @Override
+    public int nanos(int index) {
+        return records.getInt(offset(index) + 8);
+    }
+
+    @Override
+    public int pause(int index) {
+        return records.getInt(offset(index) + 12);
+    }
+
+    public List<ClockTime> day(int year, int month, int dayOfMonth) {
+        long dayStart = LocalDateTime.of(year, month, dayOfMonth, 0, 0).toEpochSecond(ZoneOffset.UTC);
+        return subList(indexOf(dayStart), indexOf(dayStart + 24 * 60 * 60));
+    }
+
+    /**
+     * Index of the first record at or after the given epoch second, {@link #size()} if there is none.
+     */
+    public int indexOf(long epochSecond) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (epochSecond(middle) < epochSecond) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int offset(int index) {
+        return HEADER_LENGTH + index * RECORD_LENGTH;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+    }
+}
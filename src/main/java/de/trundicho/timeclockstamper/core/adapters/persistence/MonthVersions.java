@@ -0,0 +1,185 @@
+package de.trundicho.timeclockstamper.core.adapters.persistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.domain.model.VersionedClockTimes;
+import de.trundicho.timeclockstamper.core.service.ClockTimePersistencePort;
+
+/**
+ * Versions of month partitions stored as one file each, taken from the file itself: its modification time in nanoseconds, 0 if
+ * it does not exist. So every process and every adapter instance on the same folder sees the same versions, and edits from outside
+ * change them too. Versions live in the file system, so they survive restarts.
+ * <p>
+ * Writers of all processes serialize on an exclusive {@link FileLock} of a lock file next to the partition, compare the version
+ * under that lock and atomically replace the partition with a file whose modification time is strictly later than the replaced
+ * one, on file systems with coarse timestamps as well. Versions of a partition therefore only grow. Readers take no lock: they read
+ * the version before and after the data and try again if it changed in between.
+ * <p>
+ * A replaced partition keeps the POSIX permissions of the file it replaces. New partitions are created like temporary files,
+ * readable and writable by the owner only. The {@code .lock} files stay next to their partitions.
+ */
+class MonthVersions {
+
+    private static final int OPTIMISTIC_READS = 3;
+    private static final long[] MODIFICATION_TIME_STEPS_NANOS = { 1_000, 1_000_000, 2_000_000_000 };
+
+    interface PartitionWriter {
+
+        void write(Path tempFile) throws IOException;
+    }
+
+    interface PartitionReader {
+
+        /**
+         * @throws NoSuchFileException if the partition does not exist
+         */
+        List<ClockTime> read(Path partition) throws IOException;
+    }
+
+    private final Function<YearMonth, Path> partitionPath;
+    private final Map<YearMonth, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    MonthVersions(Function<YearMonth, Path> partitionPath) {
+        this.partitionPath = partitionPath;
+    }
+
+    long version(YearMonth yearMonth) {
+        try {
+            return modifiedNanos(partitionPath.apply(yearMonth));
+        } catch (NoSuchFileException e) {
+            return 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can not read version of " + yearMonth, e);
+        }
+    }
+
+    /**
+     * Reads the partition together with the version it had while being read. A missing partition is empty at version 0.
+     */
+    VersionedClockTimes read(YearMonth yearMonth, PartitionReader reader) throws IOException {
+        for (int attempt = 0; attempt < OPTIMISTIC_READS; attempt++) {
+            long version = version(yearMonth);
+            List<ClockTime> clockTimes = readPartition(yearMonth, reader);
+            if (version == version(yearMonth)) {
+                return new VersionedClockTimes().setClockTimes(clockTimes).setVersion(version);
+            }
+        }
+        ReentrantLock lock = lock(yearMonth);
+        lock.lock();
+        try (FileChannel channel = openLockFile(yearMonth); FileLock ignored = channel.lock()) {
+            return new VersionedClockTimes().setClockTimes(readPartition(yearMonth, reader)).setVersion(version(yearMonth));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the version after the write
+     */
+    long write(YearMonth yearMonth, PartitionWriter writer) throws IOException {
+        return locked(yearMonth, null, writer);
+    }
+
+    /**
+     * @return the version after the write or {@link ClockTimePersistencePort#CONFLICT} if the partition is not at
+     *         {@code expectedVersion}
+     */
+    long compareAndWrite(YearMonth yearMonth, long expectedVersion, PartitionWriter writer) throws IOException {
+        return locked(yearMonth, expectedVersion, writer);
+    }
+
+    private long locked(YearMonth yearMonth, Long expectedVersion, PartitionWriter writer) throws IOException {
+        ReentrantLock lock = lock(yearMonth);
+        lock.lock();
+        try (FileChannel channel = openLockFile(yearMonth); FileLock ignored = channel.lock()) {
+            long version = version(yearMonth);
+            if (expectedVersion != null && version != expectedVersion) {
+                return ClockTimePersistencePort.CONFLICT;
+            }
+            return replace(partitionPath.apply(yearMonth).toAbsolutePath(), version, writer);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static long replace(Path file, long replacedVersion, PartitionWriter writer) throws IOException {
+        Path tempFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            copyPermissions(file, tempFile);
+            writer.write(tempFile);
+            long version = advanceModificationTime(tempFile, replacedVersion);
+            Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return version;
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+    }
+
+    private static void copyPermissions(Path file, Path tempFile) throws IOException {
+        if (!file.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            return;
+        }
+        try {
+            Files.setPosixFilePermissions(tempFile, Files.getPosixFilePermissions(file));
+        } catch (NoSuchFileException e) {
+            //new partition, keeps the owner only permissions of the temporary file
+        }
+    }
+
+    //a rename keeps the modification time, so the new version is fixed before the file becomes visible
+    private static long advanceModificationTime(Path file, long replacedVersion) throws IOException {
+        long version = modifiedNanos(file);
+        for (long step : MODIFICATION_TIME_STEPS_NANOS) {
+            if (version > replacedVersion) {
+                return version;
+            }
+            Files.setLastModifiedTime(file, FileTime.from(replacedVersion + step, TimeUnit.NANOSECONDS));
+            version = modifiedNanos(file);
+        }
+        if (version > replacedVersion) {
+            return version;
+        }
+        throw new IOException("Can not move the modification time of " + file + " past " + replacedVersion);
+    }
+
+    private static long modifiedNanos(Path file) throws IOException {
+        return Math.max(1, Files.getLastModifiedTime(file).to(TimeUnit.NANOSECONDS));
+    }
+
+    private List<ClockTime> readPartition(YearMonth yearMonth, PartitionReader reader) throws IOException {
+        try {
+            return reader.read(partitionPath.apply(yearMonth));
+        } catch (NoSuchFileException e) {
+            return new ArrayList<>();
+        }
+    }
+
+    private FileChannel openLockFile(YearMonth yearMonth) throws IOException {
+        Path partition = partitionPath.apply(yearMonth).toAbsolutePath();
+        return FileChannel.open(partition.resolveSibling(partition.getFileName() + ".lock"), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+    }
+
+    private ReentrantLock lock(YearMonth yearMonth) {
+        return locks.computeIfAbsent(yearMonth, m -> new ReentrantLock());
+    }
+}
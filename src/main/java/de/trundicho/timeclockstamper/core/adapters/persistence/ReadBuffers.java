@@ -0,0 +1,41 @@
+package de.trundicho.timeclockstamper.core.adapters.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Per-thread heap buffers for reading whole month files, so a read does not allocate a new array per file. Buffers that had to
+ * grow beyond {@link #MAX_POOLED_SIZE} are used once and not kept.
+ */
+final class ReadBuffers {
+
+    private static final int INITIAL_SIZE = 16 * 1024;
+    private static final int MAX_POOLED_SIZE = 1024 * 1024;
+    private static final ThreadLocal<ByteBuffer> BUFFERS = ThreadLocal.withInitial(() -> ByteBuffer.allocate(INITIAL_SIZE));
+
+    private ReadBuffers() {
+    }
+
+    /**
+     * Reads the whole channel. The returned buffer is only valid until the next read on the same thread.
+     */
+    static ByteBuffer readFully(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("File too large: " + size + " bytes");
+        }
+        ByteBuffer buffer = BUFFERS.get();
+        if (buffer.capacity() < size) {
+            buffer = ByteBuffer.allocate((int) Math.max(size, Math.min(2L * buffer.capacity(), Integer.MAX_VALUE)));
+            if (buffer.capacity() <= MAX_POOLED_SIZE) {
+                BUFFERS.set(buffer);
+            }
+        }
+        buffer.clear().limit((int) size);
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // keep reading until the file is consumed
+        }
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,196 @@
+package de.trundicho.timeclockstamper.core.adapters.persistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTimeColumns;
+import de.trundicho.timeclockstamper.core.domain.model.VersionedClockTimes;
+import de.trundicho.timeclockstamper.core.service.ClockTimePersistencePort;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stores every month as a segment of fixed-width records (epoch second, nanos, pause) sorted by date and serves reads from
+ * memory-mapped files. {@link #read(Integer, Integer)} returns a {@link MappedMonthSegment} that only creates clock times on
+ * access; lists returned by this class are read-only. The mappings of the most recently used months are kept. Month versions are
+ * the modification times of the segment files and survive restarts.
+ */
+@Slf4j
+public class SegmentPersistence implements ClockTimePersistencePort {
+
+    private static final byte[] MAGIC = "TCSG".getBytes(StandardCharsets.US_ASCII);
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAPPED_MONTHS = 24;
+
+    private final String persistenceFolder;
+    private final String persistenceFile;
+    private final ZoneId zoneId;
+    private final MonthVersions monthVersions = new MonthVersions(this::segmentPath);
+    private final Map<YearMonth, VersionedClockTimes> segments = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<YearMonth, VersionedClockTimes> eldest) {
+                    return size() > MAPPED_MONTHS;
+                }
+            });
+
+    public SegmentPersistence(String persistenceFolder, String persistenceFile, String timeZone) {
+        this.persistenceFolder = persistenceFolder;
+        this.persistenceFile = persistenceFile;
+        this.zoneId = ZoneId.of(timeZone);
+    }
+
+    @Override
+    public void write(List<ClockTime> clockTimes, Integer year, Integer month) {
+        YearMonth yearMonth = yearMonth(year, month);
+        try {
+            monthVersions.write(yearMonth, tempFile -> writeSegment(clockTimes, yearMonth, tempFile));
+        } catch (IOException e) {
+            log.error("Can not write segment {}", yearMonth, e);
+        }
+    }
+
+    @Override
+    public List<ClockTime> read(Integer year, Integer month) {
+        YearMonth yearMonth = yearMonth(year, month);
+        try {
+            return segment(yearMonth);
+        } catch (IOException e) {
+            log.error("Can not map segment {}", yearMonth, e);
+            return MappedMonthSegment.empty();
+        }
+    }
+
+    public List<ClockTime> readDay(int year, int month, int day) {
+        return ((MappedMonthSegment) read(year, month)).day(year, month, day);
+    }
+
+    /**
+     * Finds the day by a binary search in the mapped month, only the clock times of the day are created.
+     */
+    @Override
+    public VersionedClockTimes readDayVersioned(int year, int month, int day) {
+        YearMonth yearMonth = YearMonth.of(year, month);
+        try {
+            VersionedClockTimes segment = versionedSegment(yearMonth);
+            MappedMonthSegment clockTimes = (MappedMonthSegment) segment.getClockTimes();
+            return new VersionedClockTimes().setClockTimes(clockTimes.day(year, month, day)).setVersion(segment.getVersion());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can not map segment " + yearMonth, e);
+        }
+    }
+
+    /**
+     * The mapped segment of the month, mapped again whenever the segment file has been replaced.
+     */
+    public MappedMonthSegment segment(YearMonth yearMonth) throws IOException {
+        return (MappedMonthSegment) versionedSegment(yearMonth).getClockTimes();
+    }
+
+    @Override
+    public long version(Integer year, Integer month) {
+        return monthVersions.version(yearMonth(year, month));
+    }
+
+    @Override
+    public VersionedClockTimes readVersioned(Integer year, Integer month) {
+        YearMonth yearMonth = yearMonth(year, month);
+        try {
+            VersionedClockTimes segment = versionedSegment(yearMonth);
+            return new VersionedClockTimes().setClockTimes(segment.getClockTimes()).setVersion(segment.getVersion());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can not map segment " + yearMonth, e);
+        }
+    }
+
+    @Override
+    public long compareAndWrite(List<ClockTime> clockTimes, Integer year, Integer month, long expectedVersion) {
+        YearMonth yearMonth = yearMonth(year, month);
+        try {
+            return monthVersions.compareAndWrite(yearMonth, expectedVersion, tempFile -> writeSegment(clockTimes, yearMonth, tempFile));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can not write segment " + yearMonth, e);
+        }
+    }
+
+    private VersionedClockTimes versionedSegment(YearMonth yearMonth) throws IOException {
+        VersionedClockTimes mapped = segments.get(yearMonth);
+        if (mapped != null && mapped.getVersion() == monthVersions.version(yearMonth)) {
+            return mapped;
+        }
+        VersionedClockTimes read = monthVersions.read(yearMonth, this::map);
+        if (!(read.getClockTimes() instanceof MappedMonthSegment)) {
+            read.setClockTimes(MappedMonthSegment.empty());
+        }
+        segments.put(yearMonth, read);
+        return read;
+    }
+
+    private MappedMonthSegment map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < MappedMonthSegment.HEADER_LENGTH) {
+                throw new IOException("Not a month segment");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            for (byte magic : MAGIC) {
+                if (buffer.get() != magic) {
+                    throw new IOException("Not a month segment");
+                }
+            }
+            int formatVersion = buffer.getInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("Unsupported segment format " + formatVersion + ", expected " + FORMAT_VERSION);
+            }
+            return new MappedMonthSegment(buffer);
+        }
+    }
+
+    private void writeSegment(List<ClockTime> clockTimes, YearMonth yearMonth, Path tempFile) throws IOException {
+        List<ClockTime> clockTimesOfMonth = clockTimes.stream()
+                                                      .filter(c -> YearMonth.from(c.getDate()).equals(yearMonth))
+                                                      .sorted()
+                                                      .collect(Collectors.toList());
+        ByteBuffer buffer = ByteBuffer.allocate(
+                MappedMonthSegment.HEADER_LENGTH + clockTimesOfMonth.size() * MappedMonthSegment.RECORD_LENGTH);
+        buffer.put(MAGIC).putInt(FORMAT_VERSION);
+        for (ClockTime clockTime : clockTimesOfMonth) {
+            buffer.putLong(clockTime.getDate().toEpochSecond(ZoneOffset.UTC))
+                  .putInt(clockTime.getDate().getNano())
+                  .putInt(clockTime.getPause() == null ? ClockTimeColumns.NO_PAUSE : clockTime.getPause());
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+
+    private Path segmentPath(YearMonth yearMonth) {
+        int month = yearMonth.getMonthValue();
+        return Path.of(persistenceFolder + yearMonth.getYear() + "-" + (month < 10 ? "0" + month : "" + month) + "-" + persistenceFile);
+    }
+
+    private YearMonth yearMonth(Integer year, Integer month) {
+        LocalDateTime now = LocalDateTime.now(zoneId);
+        return YearMonth.of(year == null ? now.getYear() : year, month == null ? now.getMonthValue() : month);
+    }
+}
@@ -0,0 +1,31 @@
+package de.trundicho.timeclockstamper.core.adapters.persistence;
+
+import java.io.File;
+import de.trundicho.timeclockstamper.core.service.ClockTimePersistencePort;
+import de.trundicho.timeclockstamper.core.service.ClockTimePersistencePortFactory;
+
+/**
+ * Shards file storage per tenant: every tenant gets its own sub folder of the persistence folder.
+ */
+public class TenantFilePersistenceFactory implements ClockTimePersistencePortFactory {
+
+    private final String persistenceFolder;
+    private final String persistenceFile;
+    private final String timeZone;
+
+    public TenantFilePersistenceFactory(String persistenceFolder, String persistenceFile, String timeZone) {
+        this.persistenceFolder = persistenceFolder;
+        this.persistenceFile = persistenceFile;
+        this.timeZone = timeZone;
+    }
+
+    @Override
+    public ClockTimePersistencePort create(String tenantId) {
+        ClockTimePersistencePortFactory.requireValidTenantId(tenantId);
+        File tenantFolder = new File(persistenceFolder, tenantId);
+        if (!tenantFolder.isDirectory() && !tenantFolder.mkdirs()) {
+            throw new IllegalStateException("Can not create folder " + tenantFolder);
+        }
+        return new FilePersistence(tenantFolder.getPath() + File.separator, persistenceFile, timeZone);
+    }
+}
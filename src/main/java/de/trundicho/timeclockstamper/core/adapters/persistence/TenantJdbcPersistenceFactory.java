@@ -0,0 +1,28 @@
+package de.trundicho.timeclockstamper.core.adapters.persistence;
+
+import javax.sql.DataSource;
+
+import de.trundicho.timeclockstamper.core.service.ClockTimePersistencePort;
+import de.trundicho.timeclockstamper.core.service.ClockTimePersistencePortFactory;
+
+/**
+ * Shards database storage per tenant: all tenants share the tables, every tenant is a user of its own. The tables are created
+ * once, when the factory is created.
+ */
+public class TenantJdbcPersistenceFactory implements ClockTimePersistencePortFactory {
+
+    private final DataSource dataSource;
+    private final String timeZone;
+
+    public TenantJdbcPersistenceFactory(DataSource dataSource, String timeZone) {
+        this.dataSource = dataSource;
+        this.timeZone = timeZone;
+        JdbcPersistence.createSchema(dataSource);
+    }
+
+    @Override
+    public ClockTimePersistencePort create(String tenantId) {
+        ClockTimePersistencePortFactory.requireValidTenantId(tenantId);
+        return new JdbcPersistence(dataSource, tenantId, timeZone);
+    }
+}
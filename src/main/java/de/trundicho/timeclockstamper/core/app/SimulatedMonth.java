@@ -0,0 +1,17 @@
+package de.trundicho.timeclockstamper.core.app;
+
+import java.time.YearMonth;
+
+import lombok.Data;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+
+@Data
+@ToString
+@Accessors(chain = true)
+public class SimulatedMonth {
+
+    private YearMonth yearMonth;
+    private long operations;
+    private long nanos;
+}
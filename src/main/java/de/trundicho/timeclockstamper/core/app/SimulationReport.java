@@ -0,0 +1,23 @@
+package de.trundicho.timeclockstamper.core.app;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.Data;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+
+@Data
+@ToString
+@Accessors(chain = true)
+public class SimulationReport {
+
+    private LocalDate from;
+    private LocalDate to;
+    private int users;
+    private long stamps;
+    private long corrections;
+    private long reads;
+    private long elapsedNanos;
+    private List<SimulatedMonth> months;
+}
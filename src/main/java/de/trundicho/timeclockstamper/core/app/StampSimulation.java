@@ -0,0 +1,204 @@
+package de.trundicho.timeclockstamper.core.app;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTimeData;
+import de.trundicho.timeclockstamper.core.service.ClockTimePersistencePort;
+import de.trundicho.timeclockstamper.core.service.TimeClockStamperService;
+
+/**
+ * Replays working days of many users through the real service and persistence on virtual time. Every user has an own
+ * {@link VirtualClock} that jumps from stamp to stamp, so users run in parallel and as fast as the hardware allows.
+ * <p>
+ * A working day is clocking in, a lunch break on most days and clocking out, with a status poll after every stamp. Some days
+ * get a pause entry or a forgotten clock out corrected in the evening, and the month overtime is read at the end of every
+ * month. The wall time spent in the service is summed per simulated month, so the report shows how the cost grows with the
+ * history.
+ */
+public class StampSimulation {
+
+    /**
+     * Creates the persistence of one user. It should take "now" from {@code clock}.
+     */
+    public interface PersistenceFactory {
+
+        ClockTimePersistencePort create(String userId, Clock clock);
+    }
+
+    private final PersistenceFactory persistenceFactory;
+    private final ZoneId zoneId;
+    private final int users;
+    private final int threads;
+    private final long seed;
+
+    public StampSimulation(PersistenceFactory persistenceFactory, String timeZone, int users, int threads, long seed) {
+        this.persistenceFactory = persistenceFactory;
+        this.zoneId = ZoneId.of(timeZone);
+        this.users = users;
+        this.threads = threads;
+        this.seed = seed;
+    }
+
+    /**
+     * Simulates all days from {@code from} to {@code to}, both inclusive.
+     */
+    public SimulationReport run(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Simulation start " + from + " is after simulation end " + to);
+        }
+        Costs costs = new Costs(YearMonth.from(from), YearMonth.from(to));
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> simulatedUsers = new ArrayList<>();
+            for (int user = 0; user < users; user++) {
+                int userNumber = user;
+                simulatedUsers.add(executor.submit(() -> simulateUser(userNumber, from, to, costs)));
+            }
+            for (Future<?> simulatedUser : simulatedUsers) {
+                simulatedUser.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return new SimulationReport().setFrom(from)
+                                     .setTo(to)
+                                     .setUsers(users)
+                                     .setStamps(costs.stamps.sum())
+                                     .setCorrections(costs.corrections.sum())
+                                     .setReads(costs.reads.sum())
+                                     .setElapsedNanos(System.nanoTime() - start)
+                                     .setMonths(costs.months());
+    }
+
+    private void simulateUser(int user, LocalDate from, LocalDate to, Costs costs) {
+        VirtualClock clock = new VirtualClock(from.atStartOfDay(zoneId).toInstant(), zoneId);
+        TimeClockStamperService service = TimeClockStamperService.builder(persistenceFactory.create("user-" + user, clock))
+                                                                 .clock(clock)
+                                                                 .build();
+        Random random = new Random(seed * 31 + user);
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            int month = costs.monthIndex(date);
+            if (isWorkingDay(date, random)) {
+                simulateWorkingDay(service, clock, random, date, month, costs);
+            }
+            YearMonth yearMonth = YearMonth.from(date);
+            if (date.equals(yearMonth.atEndOfMonth())) {
+                clock.set(date.atTime(23, 59));
+                timed(costs, month, costs.reads, () -> service.getOvertimeMonth(yearMonth.getYear(), yearMonth.getMonthValue()));
+            }
+        }
+    }
+
+    private void simulateWorkingDay(TimeClockStamperService service, VirtualClock clock, Random random, LocalDate date, int month,
+            Costs costs) {
+        LocalTime clockIn = LocalTime.of(7, 0).plusMinutes(random.nextInt(150));
+        List<LocalTime> stamps = new ArrayList<>();
+        stamps.add(clockIn);
+        int lunchMinutes = 0;
+        if (random.nextInt(10) < 8) {
+            LocalTime lunch = LocalTime.of(11, 45).plusMinutes(random.nextInt(60));
+            lunchMinutes = 25 + random.nextInt(35);
+            stamps.add(lunch);
+            stamps.add(lunch.plusMinutes(lunchMinutes));
+        }
+        LocalTime clockOut = clockIn.plusMinutes(480 + lunchMinutes - 60 + random.nextInt(120));
+        boolean forgetsClockOut = random.nextInt(100) < 3;
+        if (!forgetsClockOut) {
+            stamps.add(clockOut);
+        }
+        for (LocalTime stamp : stamps) {
+            clock.set(date.atTime(stamp));
+            timed(costs, month, costs.stamps, service::stampInOrOut);
+            timed(costs, month, costs.reads, service::getClockStatus);
+        }
+        if (forgetsClockOut) {
+            correctDay(service, clock, date, month, costs, new ClockTime().setDate(date.atTime(clockOut)));
+        } else if (random.nextInt(10) == 0) {
+            ClockTime pause = new ClockTime().setDate(date.atTime(clockOut)).setPause(15 + random.nextInt(31));
+            correctDay(service, clock, date, month, costs, pause);
+        }
+    }
+
+    private void correctDay(TimeClockStamperService service, VirtualClock clock, LocalDate date, int month, Costs costs,
+            ClockTime missing) {
+        clock.set(date.atTime(22, 0));
+        List<ClockTime> clockTimes = new ArrayList<>(
+                timed(costs, month, costs.reads, () -> service.getDay(date.getYear(), date.getMonthValue(), date.getDayOfMonth()))
+                        .getClockTimes());
+        clockTimes.add(missing);
+        timed(costs, month, costs.corrections, () -> service.setToday(new ClockTimeData().setClockTimes(clockTimes)));
+    }
+
+    private static boolean isWorkingDay(LocalDate date, Random random) {
+        if (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            return false;
+        }
+        return random.nextInt(100) >= 5;
+    }
+
+    private static <T> T timed(Costs costs, int month, LongAdder counter, Supplier<T> operation) {
+        long start = System.nanoTime();
+        T result = operation.get();
+        costs.nanos[month].add(System.nanoTime() - start);
+        costs.operations[month].increment();
+        counter.increment();
+        return result;
+    }
+
+    private static class Costs {
+
+        private final YearMonth first;
+        private final LongAdder[] operations;
+        private final LongAdder[] nanos;
+        private final LongAdder stamps = new LongAdder();
+        private final LongAdder corrections = new LongAdder();
+        private final LongAdder reads = new LongAdder();
+
+        Costs(YearMonth first, YearMonth last) {
+            this.first = first;
+            int months = (int) first.until(last, ChronoUnit.MONTHS) + 1;
+            this.operations = new LongAdder[months];
+            this.nanos = new LongAdder[months];
+            for (int i = 0; i < months; i++) {
+                operations[i] = new LongAdder();
+                nanos[i] = new LongAdder();
+            }
+        }
+
+        int monthIndex(LocalDate date) {
+            return (int) first.until(YearMonth.from(date), ChronoUnit.MONTHS);
+        }
+
+        List<SimulatedMonth> months() {
+            List<SimulatedMonth> months = new ArrayList<>();
+            for (int i = 0; i < operations.length; i++) {
+                months.add(new SimulatedMonth().setYearMonth(first.plusMonths(i))
+                                               .setOperations(operations[i].sum())
+                                               .setNanos(nanos[i].sum()));
+            }
+            return months;
+        }
+    }
+}
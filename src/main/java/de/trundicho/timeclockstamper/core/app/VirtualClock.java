@@ -0,0 +1,57 @@
+package de.trundicho.timeclockstamper.core.app;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Clock that only moves when it is told to. Clocks derived with {@link #withZone(ZoneId)} share the time of this one.
+ */
+public class VirtualClock extends Clock {
+
+    private final AtomicLong epochMillis;
+    private final ZoneId zone;
+
+    public VirtualClock(Instant start, ZoneId zone) {
+        this(new AtomicLong(start.toEpochMilli()), zone);
+    }
+
+    private VirtualClock(AtomicLong epochMillis, ZoneId zone) {
+        this.epochMillis = epochMillis;
+        this.zone = zone;
+    }
+
+    public void advance(Duration duration) {
+        epochMillis.addAndGet(duration.toMillis());
+    }
+
+    /**
+     * Moves the clock to {@code dateTime} in its zone, backwards too.
+     */
+    public void set(LocalDateTime dateTime) {
+        epochMillis.set(dateTime.atZone(zone).toInstant().toEpochMilli());
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return new VirtualClock(epochMillis, zone);
+    }
+
+    @Override
+    public long millis() {
+        return epochMillis.get();
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(epochMillis.get());
+    }
+}
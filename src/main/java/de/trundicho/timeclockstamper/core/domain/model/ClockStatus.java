@@ -0,0 +1,18 @@
+package de.trundicho.timeclockstamper.core.domain.model;
+
+import java.time.LocalDateTime;
+
+import lombok.Data;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+
+@Data
+@ToString
+@Accessors(chain = true)
+public class ClockStatus {
+
+    private ClockType currentState;
+    private LocalDateTime openSince;
+    private int workedMinutesToday;
+    private String hoursWorkedToday;
+}
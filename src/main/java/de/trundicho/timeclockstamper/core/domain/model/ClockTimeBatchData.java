@@ -0,0 +1,16 @@
+package de.trundicho.timeclockstamper.core.domain.model;
+
+import java.util.List;
+
+import lombok.Data;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+
+@Data
+@ToString
+@Accessors(chain = true)
+public class ClockTimeBatchData {
+
+    private List<ClockTimeData> days;
+    private List<MonthOvertime> months;
+}
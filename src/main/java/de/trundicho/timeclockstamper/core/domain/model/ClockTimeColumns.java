@@ -0,0 +1,24 @@
+package de.trundicho.timeclockstamper.core.domain.model;
+
+/**
+ * Clock times of a list kept as columns: the date as epoch second of the local date time taken as UTC plus its nanos, and the pause
+ * in minutes. Lists implementing it are turned into {@link MonthStamps} without creating a {@link ClockTime} per element.
+ */
+public interface ClockTimeColumns {
+
+    /**
+     * Pause column value of a stamp without pause.
+     */
+    int NO_PAUSE = Integer.MIN_VALUE;
+
+    int size();
+
+    long epochSecond(int index);
+
+    int nanos(int index);
+
+    /**
+     * Pause in minutes, {@link #NO_PAUSE} if the element is a plain stamp.
+     */
+    int pause(int index);
+}
@@ -15,4 +15,5 @@ public class ClockTimeData {
     private String hoursWorkedToday;
     private String overtimeMonth;
     private List<ClockTime> clockTimes;
+    private String version;
 }
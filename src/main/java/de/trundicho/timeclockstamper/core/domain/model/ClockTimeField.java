@@ -0,0 +1,8 @@
+package de.trundicho.timeclockstamper.core.domain.model;
+
+public enum ClockTimeField {
+    CURRENT_STATE,
+    HOURS_WORKED_TODAY,
+    OVERTIME_MONTH,
+    CLOCK_TIMES
+}
@@ -0,0 +1,16 @@
+package de.trundicho.timeclockstamper.core.domain.model;
+
+import java.util.Map;
+
+import lombok.Data;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+
+@Data
+@ToString
+@Accessors(chain = true)
+public class MetricsSnapshot {
+
+    private Map<String, Long> counters;
+    private Map<String, TimerSnapshot> timers;
+}
@@ -0,0 +1,26 @@
+package de.trundicho.timeclockstamper.core.domain.model;
+
+import lombok.Data;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+
+@Data
+@ToString
+@Accessors(chain = true)
+public class MonthAggregate {
+
+    public static final int DAY_SLOTS = 32;
+
+    private int year;
+    private int month;
+    private int hoursToWorkPerDayInMinutes;
+    private int clockTimeCount;
+    /**
+     * Version of the month partition the aggregate was computed from.
+     */
+    private long version;
+    private int[] stampCounts = new int[DAY_SLOTS];
+    private int[] workedMinutes = new int[DAY_SLOTS];
+    private int[] pauseMinutes = new int[DAY_SLOTS];
+    private int overtimeMinutes;
+}
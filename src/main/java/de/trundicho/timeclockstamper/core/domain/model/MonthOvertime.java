@@ -0,0 +1,17 @@
+package de.trundicho.timeclockstamper.core.domain.model;
+
+import java.time.YearMonth;
+
+import lombok.Data;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+
+@Data
+@ToString
+@Accessors(chain = true)
+public class MonthOvertime {
+
+    private YearMonth yearMonth;
+    private int overtimeMinutes;
+    private String overtime;
+}
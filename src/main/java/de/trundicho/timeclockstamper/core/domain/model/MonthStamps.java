@@ -0,0 +1,228 @@
+package de.trundicho.timeclockstamper.core.domain.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Immutable, columnar clock times of one month. Dates are kept as epoch seconds of the local date time taken as UTC (like the binary
+ * month format), pauses as plain ints, and the stamps of every day are indexed in date order. The columns are the only storage:
+ * calculations run on them, and the list view creates a new {@link ClockTime} on every access without caching it, so a cached
+ * month costs about 12 bytes per stamp instead of a {@link ClockTime} with its date objects.
+ * <p>
+ * Stamps outside the month are kept in the list but not indexed by day.
+ */
+public final class MonthStamps extends AbstractList<ClockTime> implements RandomAccess {
+
+    public static final int DAY_SLOTS = 32;
+    private static final int NO_PAUSE = ClockTimeColumns.NO_PAUSE;
+    private static final int SECONDS_PER_DAY = 86_400;
+
+    private final int year;
+    private final int month;
+    private final long firstEpochDay;
+    private final int lengthOfMonth;
+    private final long[] epochSeconds;
+    private final int[] nanos;
+    private final int[] pauses;
+    private final int[] dayStarts;
+    private final int[] byDay;
+
+    private MonthStamps(int year, int month, long[] epochSeconds, int[] nanos, int[] pauses) {
+        this.year = year;
+        this.month = month;
+        LocalDate firstDay = LocalDate.of(year, month, 1);
+        this.firstEpochDay = firstDay.toEpochDay();
+        this.lengthOfMonth = firstDay.lengthOfMonth();
+        this.epochSeconds = epochSeconds;
+        this.nanos = nanos;
+        this.pauses = pauses;
+        this.dayStarts = new int[DAY_SLOTS + 1];
+        this.byDay = new int[epochSeconds.length];
+        indexDays();
+    }
+
+    /**
+     * Columnar copy of {@code clockTimes} in list order. Returns {@code clockTimes} itself if it already is one of this month.
+     */
+    public static MonthStamps of(List<ClockTime> clockTimes, int year, int month) {
+        if (clockTimes instanceof MonthStamps) {
+            MonthStamps stamps = (MonthStamps) clockTimes;
+            if (stamps.year == year && stamps.month == month) {
+                return stamps;
+            }
+        }
+        if (clockTimes instanceof ClockTimeColumns) {
+            return ofColumns((ClockTimeColumns) clockTimes, year, month);
+        }
+        int size = clockTimes.size();
+        long[] epochSeconds = new long[size];
+        int[] nanos = null;
+        int[] pauses = new int[size];
+        int i = 0;
+        for (ClockTime clockTime : clockTimes) {
+            LocalDateTime date = clockTime.getDate();
+            epochSeconds[i] = date.toEpochSecond(ZoneOffset.UTC);
+            if (date.getNano() != 0) {
+                if (nanos == null) {
+                    nanos = new int[size];
+                }
+                nanos[i] = date.getNano();
+            }
+            pauses[i++] = clockTime.getPause() == null ? NO_PAUSE : clockTime.getPause();
+        }
+        return new MonthStamps(year, month, epochSeconds, nanos, pauses);
+    }
+
+    /**
+     * Copies the columns of {@code columns} without creating any {@link ClockTime}; elements are only created when accessed.
+     */
+    public static MonthStamps ofColumns(ClockTimeColumns columns, int year, int month) {
+        int size = columns.size();
+        long[] epochSeconds = new long[size];
+        int[] nanos = null;
+        int[] pauses = new int[size];
+        for (int i = 0; i < size; i++) {
+            epochSeconds[i] = columns.epochSecond(i);
+            int nano = columns.nanos(i);
+            if (nano != 0) {
+                if (nanos == null) {
+                    nanos = new int[size];
+                }
+                nanos[i] = nano;
+            }
+            pauses[i] = columns.pause(i);
+        }
+        return new MonthStamps(year, month, epochSeconds, nanos, pauses);
+    }
+
+    /**
+     * New stamps with {@code clockTime} appended.
+     */
+    public MonthStamps with(ClockTime clockTime) {
+        int size = epochSeconds.length;
+        LocalDateTime date = clockTime.getDate();
+        long[] appendedEpochSeconds = Arrays.copyOf(epochSeconds, size + 1);
+        appendedEpochSeconds[size] = date.toEpochSecond(ZoneOffset.UTC);
+        int[] appendedNanos = nanos == null ? null : Arrays.copyOf(nanos, size + 1);
+        if (date.getNano() != 0) {
+            if (appendedNanos == null) {
+                appendedNanos = new int[size + 1];
+            }
+            appendedNanos[size] = date.getNano();
+        }
+        int[] appendedPauses = Arrays.copyOf(pauses, size + 1);
+        appendedPauses[size] = clockTime.getPause() == null ? NO_PAUSE : clockTime.getPause();
+        return new MonthStamps(year, month, appendedEpochSeconds, appendedNanos, appendedPauses);
+    }
+
+    /**
+     * New {@link ClockTime} of the stamp at {@code index}; changing it does not change the stamps.
+     */
+    @Override
+    public ClockTime get(int index) {
+        Objects.checkIndex(index, epochSeconds.length);
+        return new ClockTime().setDate(LocalDateTime.ofEpochSecond(epochSeconds[index], nanos == null ? 0 : nanos[index],
+                ZoneOffset.UTC)).setPause(hasPause(index) ? pauses[index] : null);
+    }
+
+    @Override
+    public int size() {
+        return epochSeconds.length;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public boolean hasPause(int index) {
+        return pauses[index] != NO_PAUSE;
+    }
+
+    public int pause(int index) {
+        return hasPause(index) ? pauses[index] : 0;
+    }
+
+    public int minuteOfDay(int index) {
+        return (int) (Math.floorMod(epochSeconds[index], SECONDS_PER_DAY) / 60);
+    }
+
+    /**
+     * Number of stamps at {@code day} of the month.
+     */
+    public int countAtDay(int day) {
+        return dayStarts[day + 1] - dayStarts[day];
+    }
+
+    /**
+     * List index of the {@code n}-th stamp at {@code day} in date order.
+     */
+    public int indexAtDay(int day, int n) {
+        return byDay[dayStarts[day] + n];
+    }
+
+    /**
+     * True if the stamps are in date order and all belong to this month.
+     */
+    public boolean isSortedMonth() {
+        for (int i = 0; i < epochSeconds.length; i++) {
+            if (dayOf(i) == 0 || (i > 0 && compare(i - 1, i) > 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void indexDays() {
+        int[] days = new int[epochSeconds.length];
+        for (int i = 0; i < epochSeconds.length; i++) {
+            days[i] = dayOf(i);
+            dayStarts[days[i] + 1]++;
+        }
+        for (int day = 0; day < DAY_SLOTS; day++) {
+            dayStarts[day + 1] += dayStarts[day];
+        }
+        int[] next = Arrays.copyOf(dayStarts, DAY_SLOTS);
+        for (int i = 0; i < epochSeconds.length; i++) {
+            byDay[next[days[i]]++] = i;
+        }
+        for (int day = 1; day < DAY_SLOTS; day++) {
+            sortDay(dayStarts[day], dayStarts[day + 1]);
+        }
+    }
+
+    //stable insertion sort, days hold a handful of stamps
+    private void sortDay(int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int index = byDay[i];
+            int j = i - 1;
+            while (j >= from && compare(byDay[j], index) > 0) {
+                byDay[j + 1] = byDay[j];
+                j--;
+            }
+            byDay[j + 1] = index;
+        }
+    }
+
+    private int compare(int left, int right) {
+        int compared = Long.compare(epochSeconds[left], epochSeconds[right]);
+        if (compared != 0 || nanos == null) {
+            return compared;
+        }
+        return Integer.compare(nanos[left], nanos[right]);
+    }
+
+    private int dayOf(int index) {
+        long day = Math.floorDiv(epochSeconds[index], SECONDS_PER_DAY) - firstEpochDay + 1;
+        return day >= 1 && day <= lengthOfMonth ? (int) day : 0;
+    }
+}
@@ -0,0 +1,20 @@
+package de.trundicho.timeclockstamper.core.domain.model;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import lombok.Data;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+
+@Data
+@ToString
+@Accessors(chain = true)
+public class OvertimeReport {
+
+    private YearMonth from;
+    private YearMonth to;
+    private int overtimeMinutes;
+    private String overtime;
+    private List<MonthOvertime> months;
+}
@@ -0,0 +1,27 @@
+package de.trundicho.timeclockstamper.core.domain.model;
+
+import java.time.LocalDateTime;
+
+import lombok.Data;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+
+/**
+ * Stamps of one day reduced to what the current state and the running worked minutes need. Only valid while the month it was
+ * built from still has {@code monthVersion}.
+ */
+@Data
+@ToString
+@Accessors(chain = true)
+public class StampState {
+
+    private int year;
+    private int month;
+    private int day;
+    private long monthVersion;
+    private int clockTimeCount;
+    private int clockTimesWithoutPause;
+    private int pairedMinutes;
+    private int pauseMinutes;
+    private LocalDateTime openSince;
+}
@@ -0,0 +1,18 @@
+package de.trundicho.timeclockstamper.core.domain.model;
+
+import lombok.Data;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+
+@Data
+@ToString
+@Accessors(chain = true)
+public class TimerSnapshot {
+
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+    private long p50Nanos;
+    private long p99Nanos;
+    private long p999Nanos;
+}
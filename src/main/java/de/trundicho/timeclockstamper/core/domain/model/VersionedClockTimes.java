@@ -0,0 +1,16 @@
+package de.trundicho.timeclockstamper.core.domain.model;
+
+import java.util.List;
+
+import lombok.Data;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+
+@Data
+@ToString
+@Accessors(chain = true)
+public class VersionedClockTimes {
+
+    private List<ClockTime> clockTimes;
+    private long version;
+}
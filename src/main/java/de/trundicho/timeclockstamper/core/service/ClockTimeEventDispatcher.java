@@ -0,0 +1,143 @@
+package de.trundicho.timeclockstamper.core.service;
+
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import de.trundicho.timeclockstamper.core.domain.model.ClockTimeEvent;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Delivers events to listeners off the writing thread. Every subscriber has its own bounded queue that is drained by at most one
+ * task at a time, so events arrive in order and a slow listener only delays itself. A full queue drops its oldest event: listeners
+ * show the latest state, so the newest event is the one worth keeping. Writers of the same month may publish out of commit order,
+ * so an event of an older month version than the last one delivered for that month is skipped. Appends merged into one write
+ * share its version and are all delivered.
+ */
+@Slf4j
+class ClockTimeEventDispatcher {
+
+    private final Executor executor;
+    private final Metrics.Counter droppedEvents;
+    private final List<QueuedSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    ClockTimeEventDispatcher(Executor executor, Metrics.Counter droppedEvents) {
+        this.executor = executor;
+        this.droppedEvents = droppedEvents;
+    }
+
+    /**
+     * Cached daemon threads shared by all dispatchers of the process. Every subscription drains on at most one thread at a time, so
+     * a blocking listener holds only its own thread and never delays the subscribers of other services.
+     */
+    static Executor sharedExecutor() {
+        return SharedExecutor.INSTANCE;
+    }
+
+    Subscription subscribe(Consumer<ClockTimeEvent> listener, int queueCapacity) {
+        QueuedSubscription subscription = new QueuedSubscription(listener, queueCapacity);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    void publish(ClockTimeEvent event) {
+        for (QueuedSubscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    private class QueuedSubscription implements Subscription {
+
+        private final Consumer<ClockTimeEvent> listener;
+        private final ArrayBlockingQueue<ClockTimeEvent> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicLong dropped = new AtomicLong();
+        //only used by the single running drain, which is handed over through scheduled
+        private final Map<YearMonth, Long> deliveredVersions = new HashMap<>();
+        private volatile boolean closed;
+
+        QueuedSubscription(Consumer<ClockTimeEvent> listener, int queueCapacity) {
+            if (queueCapacity < 1) {
+                throw new IllegalArgumentException("Queue capacity must be at least one");
+            }
+            this.listener = listener;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        void offer(ClockTimeEvent event) {
+            while (!queue.offer(event)) {
+                if (queue.poll() != null) {
+                    dropped.incrementAndGet();
+                    droppedEvents.increment();
+                }
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (!closed && scheduled.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        //delivers at most one queue length per run, so busy subscribers do not starve the others
+        private void drain() {
+            for (int i = queue.size(); i > 0 && !closed; i--) {
+                ClockTimeEvent event = queue.poll();
+                if (event == null) {
+                    break;
+                }
+                Long deliveredVersion = deliveredVersions.get(event.getYearMonth());
+                if (deliveredVersion != null && deliveredVersion > event.getVersion()) {
+                    continue;
+                }
+                deliveredVersions.put(event.getYearMonth(), event.getVersion());
+                try {
+                    listener.accept(event);
+                } catch (RuntimeException e) {
+                    log.warn("Clock time event listener failed", e);
+                }
+            }
+            scheduled.set(false);
+            if (!queue.isEmpty()) {
+                schedule();
+            }
+        }
+
+        @Override
+        public long getDroppedEvents() {
+            return dropped.get();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            subscriptions.remove(this);
+            queue.clear();
+        }
+    }
+
+    private static class SharedExecutor {
+
+        private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+        private static final Executor INSTANCE = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "clock-time-events-" + THREAD_NUMBER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -1,12 +1,93 @@
 package de.trundicho.timeclockstamper.core.service;
 
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.List;
 
 import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.domain.model.VersionedClockTimes;
 
 public interface ClockTimePersistencePort {
 
+    /**
+     * Returned by the conditional writes if the partition was not at the expected version.
+     */
+    long CONFLICT = -1;
+
     void write(List<ClockTime> clockTimes, Integer year, Integer month);
 
     List<ClockTime> read(Integer year, Integer month);
+
+    /**
+     * Persists one new stamp. {@code clockTimes} already contains the stamp together with the rest of the month, so
+     * implementations without an append path simply rewrite the month.
+     */
+    default void append(ClockTime clockTime, List<ClockTime> clockTimes, Integer year, Integer month) {
+        write(clockTimes, year, month);
+    }
+
+    /**
+     * Reads all clock times from month {@code from} up to and including month {@code to}, one month partition at a time.
+     */
+    default List<ClockTime> readRange(YearMonth from, YearMonth to) {
+        List<ClockTime> clockTimes = new ArrayList<>();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            clockTimes.addAll(read(month.getYear(), month.getMonthValue()));
+        }
+        return clockTimes;
+    }
+
+    /**
+     * Version of a month partition. It is never negative, grows with every write and changes only after the written data is
+     * visible to readers. Clients keep versions as tokens of conditional reads, so a version must never come back with other data,
+     * also not after a restart: either it is persisted with the data or it is taken from a clock that only grows.
+     */
+    long version(Integer year, Integer month);
+
+    default VersionedClockTimes readVersioned(Integer year, Integer month) {
+        long version = version(year, month);
+        return new VersionedClockTimes().setVersion(version).setClockTimes(read(year, month));
+    }
+
+    /**
+     * The clock times of one day together with the version of their month partition, in the order of the month.
+     */
+    default VersionedClockTimes readDayVersioned(int year, int month, int day) {
+        VersionedClockTimes versioned = readVersioned(year, month);
+        List<ClockTime> clockTimesOfDay = new ArrayList<>();
+        for (ClockTime clockTime : versioned.getClockTimes()) {
+            LocalDateTime date = clockTime.getDate();
+            if (date.getDayOfMonth() == day && date.getMonthValue() == month && date.getYear() == year) {
+                clockTimesOfDay.add(clockTime);
+            }
+        }
+        return versioned.setClockTimes(clockTimesOfDay);
+    }
+
+    /**
+     * Writes the month only if its partition is still at {@code expectedVersion}.
+     *
+     * @return the version of the partition after the write or {@link #CONFLICT} if it was modified in the meantime
+     */
+    long compareAndWrite(List<ClockTime> clockTimes, Integer year, Integer month, long expectedVersion);
+
+    /**
+     * Appends one stamp if the partition is still at {@code expectedVersion}. Appends commute, so implementations with a real append
+     * path may succeed regardless of the version; those return true from {@link #mergesAppends()}.
+     *
+     * @return the version of the partition after the write or {@link #CONFLICT}
+     */
+    default long compareAndAppend(ClockTime clockTime, List<ClockTime> clockTimes, Integer year, Integer month,
+            long expectedVersion) {
+        return compareAndWrite(clockTimes, year, month, expectedVersion);
+    }
+
+    /**
+     * True if {@link #compareAndAppend} may succeed at another version than the expected one, so the month at the returned version
+     * can contain more than {@code clockTimes}, e.g. stamps committed by the same group commit.
+     */
+    default boolean mergesAppends() {
+        return false;
+    }
 }
@@ -0,0 +1,20 @@
+package de.trundicho.timeclockstamper.core.service;
+
+import java.util.regex.Pattern;
+
+public interface ClockTimePersistencePortFactory {
+
+    Pattern TENANT_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    ClockTimePersistencePort create(String tenantId);
+
+    /**
+     * Tenant ids name folders and database users, so only letters, digits, '_' and '-' are allowed.
+     */
+    static String requireValidTenantId(String tenantId) {
+        if (tenantId == null || !TENANT_ID.matcher(tenantId).matches()) {
+            throw new IllegalArgumentException("Invalid tenant id " + tenantId);
+        }
+        return tenantId;
+    }
+}
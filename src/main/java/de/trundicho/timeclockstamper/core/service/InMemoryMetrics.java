@@ -0,0 +1,117 @@
+package de.trundicho.timeclockstamper.core.service;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import de.trundicho.timeclockstamper.core.domain.model.MetricsSnapshot;
+import de.trundicho.timeclockstamper.core.domain.model.TimerSnapshot;
+
+/**
+ * Keeps counters and latency histograms in memory. Histograms use power-of-two buckets split into four sub-buckets, so reported
+ * percentiles are the upper bound of their bucket and at most 25% above the recorded value.
+ */
+public class InMemoryMetrics implements Metrics {
+
+    private final Map<String, HistogramTimer> timers = new ConcurrentHashMap<>();
+    private final Map<String, AdderCounter> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public Timer timer(String name) {
+        return timers.computeIfAbsent(name, n -> new HistogramTimer());
+    }
+
+    @Override
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, n -> new AdderCounter());
+    }
+
+    @Override
+    public MetricsSnapshot snapshot() {
+        Map<String, Long> counterValues = new TreeMap<>();
+        counters.forEach((name, counter) -> counterValues.put(name, counter.sum.sum()));
+        Map<String, TimerSnapshot> timerValues = new TreeMap<>();
+        timers.forEach((name, timer) -> timerValues.put(name, timer.snapshot()));
+        return new MetricsSnapshot().setCounters(counterValues).setTimers(timerValues);
+    }
+
+    private static class AdderCounter implements Counter {
+
+        private final LongAdder sum = new LongAdder();
+
+        @Override
+        public void increment(long amount) {
+            sum.add(amount);
+        }
+    }
+
+    private static class HistogramTimer implements Timer {
+
+        private static final int SUB_BUCKET_BITS = 2;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(64 * SUB_BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        @Override
+        public void record(long nanos) {
+            long value = Math.max(nanos, 0);
+            buckets.incrementAndGet(bucket(value));
+            count.increment();
+            totalNanos.add(value);
+            maxNanos.accumulate(value);
+        }
+
+        TimerSnapshot snapshot() {
+            long[] counts = new long[buckets.length()];
+            long total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets.get(i);
+                total += counts[i];
+            }
+            long max = maxNanos.get();
+            return new TimerSnapshot().setCount(total)
+                                      .setTotalNanos(totalNanos.sum())
+                                      .setMaxNanos(max)
+                                      .setP50Nanos(percentile(counts, total, 0.5, max))
+                                      .setP99Nanos(percentile(counts, total, 0.99, max))
+                                      .setP999Nanos(percentile(counts, total, 0.999, max));
+        }
+
+        private static long percentile(long[] counts, long total, double quantile, long max) {
+            long rank = (long) Math.ceil(total * quantile);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && seen > 0) {
+                    return Math.min(upperBound(i), max);
+                }
+            }
+            return 0;
+        }
+
+        private static int bucket(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+        }
+
+        private static long upperBound(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+            long subBucket = bucket % SUB_BUCKETS;
+            long lowerBound = (1L << exponent) + (subBucket << (exponent - SUB_BUCKET_BITS));
+            return lowerBound + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+        }
+    }
+}
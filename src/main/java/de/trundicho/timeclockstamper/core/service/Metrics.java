@@ -0,0 +1,42 @@
+package de.trundicho.timeclockstamper.core.service;
+
+import de.trundicho.timeclockstamper.core.domain.model.MetricsSnapshot;
+
+/**
+ * Minimal meter registry in the spirit of Micrometer. Meters are looked up by name once and then recorded to on the hot path, so
+ * implementations must make {@link Timer#record(long)} and {@link Counter#increment(long)} cheap and thread safe.
+ */
+public interface Metrics {
+
+    Timer timer(String name);
+
+    Counter counter(String name);
+
+    MetricsSnapshot snapshot();
+
+    static Metrics noop() {
+        return NoopMetrics.INSTANCE;
+    }
+
+    interface Timer {
+
+        void record(long nanos);
+
+        default long start() {
+            return System.nanoTime();
+        }
+
+        default void stop(long startNanos) {
+            record(System.nanoTime() - startNanos);
+        }
+    }
+
+    interface Counter {
+
+        void increment(long amount);
+
+        default void increment() {
+            increment(1);
+        }
+    }
+}
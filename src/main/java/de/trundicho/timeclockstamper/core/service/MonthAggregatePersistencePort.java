@@ -0,0 +1,13 @@
+package de.trundicho.timeclockstamper.core.service;
+
+import de.trundicho.timeclockstamper.core.domain.model.MonthAggregate;
+
+public interface MonthAggregatePersistencePort {
+
+    /**
+     * @return the stored aggregate or null if there is none
+     */
+    MonthAggregate read(int year, int month);
+
+    void write(MonthAggregate monthAggregate);
+}
@@ -0,0 +1,224 @@
+package de.trundicho.timeclockstamper.core.service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import de.trundicho.timeclockstamper.core.domain.model.ClockStatus;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTimeBatchData;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTimeData;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTimeEvent;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTimeField;
+import de.trundicho.timeclockstamper.core.domain.model.MetricsSnapshot;
+import de.trundicho.timeclockstamper.core.domain.model.OvertimeReport;
+
+/**
+ * Serves many tenants from one process. Every tenant gets its own persistence shard and {@link TimeClockStamperService}; operations
+ * of one tenant are serialized through striped read/write locks, different tenants proceed in parallel.
+ * <p>
+ * Services of the most recently used tenants are kept, up to a limit; tenants with subscribers are never dropped. All services share
+ * the clock and the metrics. A tenant's service is created outside the lock of the service map, so a slow persistence factory
+ * only delays callers of that tenant.
+ */
+public class MultiTenantTimeClockStamperService {
+
+    private static final int DEFAULT_MAX_TENANTS = 10_000;
+
+    private final Clock clock;
+    private final ClockTimePersistencePortFactory persistencePortFactory;
+    private final int hoursToWorkPerDayInMinutes;
+    private final Metrics metrics;
+    private final StripedLocks locks;
+    private final ReentrantLock servicesLock = new ReentrantLock();
+    private final Map<String, CompletableFuture<TimeClockStamperService>> services;
+
+    public MultiTenantTimeClockStamperService(String timeZone, ClockTimePersistencePortFactory persistencePortFactory) {
+        this(timeZone, persistencePortFactory, 480, 1024);
+    }
+
+    public MultiTenantTimeClockStamperService(String timeZone, ClockTimePersistencePortFactory persistencePortFactory,
+            int hoursToWorkPerDayInMinutes, int lockStripes) {
+        this(Clock.system(ZoneId.of(timeZone)), persistencePortFactory, hoursToWorkPerDayInMinutes, lockStripes, DEFAULT_MAX_TENANTS,
+                Metrics.noop());
+    }
+
+    public MultiTenantTimeClockStamperService(Clock clock, ClockTimePersistencePortFactory persistencePortFactory,
+            int hoursToWorkPerDayInMinutes, int lockStripes, int maxTenants, Metrics metrics) {
+        this.clock = clock;
+        this.persistencePortFactory = persistencePortFactory;
+        this.hoursToWorkPerDayInMinutes = hoursToWorkPerDayInMinutes;
+        this.metrics = metrics;
+        this.locks = new StripedLocks(lockStripes);
+        this.services = new LinkedHashMap<>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<TimeClockStamperService>> eldest) {
+                TimeClockStamperService service = eldest.getValue().getNow(null);
+                return size() > maxTenants && service != null && !service.hasSubscribers();
+            }
+        };
+    }
+
+    public ClockTimeData stampInOrOut(String tenantId) {
+        return write(tenantId, TimeClockStamperService::stampInOrOut);
+    }
+
+    public ClockTimeData getTimeClockResponse(String tenantId) {
+        return read(tenantId, TimeClockStamperService::getTimeClockResponse);
+    }
+
+    public ClockTimeData getTimeClockResponse(String tenantId, Set<ClockTimeField> fields) {
+        return read(tenantId, service -> service.getTimeClockResponse(fields));
+    }
+
+    public Optional<ClockTimeData> getTimeClockResponseIfModified(String tenantId, String version) {
+        return read(tenantId, service -> service.getTimeClockResponseIfModified(version));
+    }
+
+    public ClockStatus getClockStatus(String tenantId) {
+        return read(tenantId, TimeClockStamperService::getClockStatus);
+    }
+
+    public String getOvertimeMonth(String tenantId, Integer year, Integer month) {
+        return read(tenantId, service -> service.getOvertimeMonth(year, month));
+    }
+
+    public OvertimeReport getOvertimeRange(String tenantId, YearMonth from, YearMonth to) {
+        return read(tenantId, service -> service.getOvertimeRange(from, to));
+    }
+
+    public OvertimeReport getOvertimeYear(String tenantId, int year) {
+        return read(tenantId, service -> service.getOvertimeYear(year));
+    }
+
+    public ClockTimeData stamp(String tenantId, LocalTime time) {
+        return write(tenantId, service -> service.stamp(time));
+    }
+
+    public ClockTimeData setToday(String tenantId, ClockTimeData clockTimeData) {
+        return write(tenantId, service -> service.setToday(clockTimeData));
+    }
+
+    public ClockTimeData setDay(String tenantId, ClockTimeData clockTimeData, int year, int month, int day) {
+        return write(tenantId, service -> service.setDay(clockTimeData, year, month, day));
+    }
+
+    public ClockTimeBatchData setDays(String tenantId, Map<LocalDate, List<ClockTime>> clockTimesByDay) {
+        return write(tenantId, service -> service.setDays(clockTimesByDay));
+    }
+
+    public int importClockTimes(String tenantId, Iterator<ClockTime> clockTimes) {
+        return write(tenantId, service -> service.importClockTimes(clockTimes));
+    }
+
+    public void exportClockTimes(String tenantId, YearMonth from, YearMonth to, Consumer<ClockTime> consumer) {
+        read(tenantId, service -> {
+            service.exportClockTimes(from, to, consumer);
+            return null;
+        });
+    }
+
+    /**
+     * Metrics of all tenants together.
+     */
+    public MetricsSnapshot getMetricsSnapshot() {
+        return metrics.snapshot();
+    }
+
+    public ClockTimeData getDay(String tenantId, int year, int month, int day) {
+        return read(tenantId, service -> service.getDay(year, month, day));
+    }
+
+    public Optional<ClockTimeData> getDayIfModified(String tenantId, String version, int year, int month, int day) {
+        return read(tenantId, service -> service.getDayIfModified(version, year, month, day));
+    }
+
+    /**
+     * Events of one tenant only. Subscribing takes no tenant lock, events are delivered after the writing operation released it.
+     */
+    public Subscription subscribe(String tenantId, Consumer<ClockTimeEvent> listener) {
+        return service(tenantId).subscribe(listener);
+    }
+
+    private <T> T read(String tenantId, Function<TimeClockStamperService, T> operation) {
+        return locked(tenantId, ReadWriteLock::readLock, operation);
+    }
+
+    private <T> T write(String tenantId, Function<TimeClockStamperService, T> operation) {
+        return locked(tenantId, ReadWriteLock::writeLock, operation);
+    }
+
+    private <T> T locked(String tenantId, Function<ReadWriteLock, Lock> mode, Function<TimeClockStamperService, T> operation) {
+        TimeClockStamperService service = service(tenantId);
+        Lock lock = mode.apply(locks.forKey(tenantId));
+        lock.lock();
+        try {
+            return operation.apply(service);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The map lock is only held to look up or publish the tenant's future and to drop it if creating the service failed. Callers
+     * of a tenant that is being created wait for its future.
+     */
+    private TimeClockStamperService service(String tenantId) {
+        ClockTimePersistencePortFactory.requireValidTenantId(tenantId);
+        CompletableFuture<TimeClockStamperService> created = new CompletableFuture<>();
+        CompletableFuture<TimeClockStamperService> existing;
+        servicesLock.lock();
+        try {
+            existing = services.putIfAbsent(tenantId, created);
+        } finally {
+            servicesLock.unlock();
+        }
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            created.complete(TimeClockStamperService.builder(persistencePortFactory.create(tenantId))
+                                                    .clock(clock)
+                                                    .hoursToWorkPerDayInMinutes(hoursToWorkPerDayInMinutes)
+                                                    .metrics(metrics)
+                                                    .build());
+        } catch (RuntimeException | Error e) {
+            servicesLock.lock();
+            try {
+                services.remove(tenantId, created);
+            } finally {
+                servicesLock.unlock();
+            }
+            created.completeExceptionally(e);
+            throw e;
+        }
+        return created.join();
+    }
+
+    private static TimeClockStamperService await(CompletableFuture<TimeClockStamperService> service) {
+        try {
+            return service.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
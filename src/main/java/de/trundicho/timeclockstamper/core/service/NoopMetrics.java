@@ -0,0 +1,33 @@
+package de.trundicho.timeclockstamper.core.service;
+
+import java.util.Map;
+
+import de.trundicho.timeclockstamper.core.domain.model.MetricsSnapshot;
+
+final class NoopMetrics implements Metrics {
+
+    static final NoopMetrics INSTANCE = new NoopMetrics();
+
+    private static final Timer TIMER = nanos -> {
+    };
+    private static final Counter COUNTER = amount -> {
+    };
+
+    private NoopMetrics() {
+    }
+
+    @Override
+    public Timer timer(String name) {
+        return TIMER;
+    }
+
+    @Override
+    public Counter counter(String name) {
+        return COUNTER;
+    }
+
+    @Override
+    public MetricsSnapshot snapshot() {
+        return new MetricsSnapshot().setCounters(Map.of()).setTimers(Map.of());
+    }
+}
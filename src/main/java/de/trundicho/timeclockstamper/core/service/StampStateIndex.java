@@ -0,0 +1,135 @@
+package de.trundicho.timeclockstamper.core.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.domain.model.StampState;
+import de.trundicho.timeclockstamper.core.domain.model.VersionedClockTimes;
+
+/**
+ * Today's stamp state, answered from one small record instead of the month. The record is replaced after every committed write of
+ * the current month and trusted as long as the month still has the version the record was built from, also after a restart when
+ * the persistence keeps its versions; otherwise today is read once with the version of its month and the record is rebuilt.
+ */
+class StampStateIndex {
+
+    private final ClockTimePersistencePort clockTimePersistencePort;
+    private final StampStatePersistencePort stampStatePersistencePort;
+    private final Metrics.Counter rebuilds;
+    private final ReentrantLock lock = new ReentrantLock();
+    private StampState stampState;
+
+    StampStateIndex(ClockTimePersistencePort clockTimePersistencePort, StampStatePersistencePort stampStatePersistencePort,
+            Metrics.Counter rebuilds) {
+        this.clockTimePersistencePort = clockTimePersistencePort;
+        this.stampStatePersistencePort = stampStatePersistencePort;
+        this.rebuilds = rebuilds;
+    }
+
+    StampState stampState(LocalDateTime today) {
+        lock.lock();
+        try {
+            int year = today.getYear();
+            int month = today.getMonthValue();
+            if (stampState == null) {
+                stampState = stampStatePersistencePort.read();
+            }
+            if (matches(stampState, today, clockTimePersistencePort.version(year, month))) {
+                return stampState;
+            }
+            VersionedClockTimes versioned = clockTimePersistencePort.readDayVersioned(year, month, today.getDayOfMonth());
+            stampState = build(versioned.getClockTimes(), today, versioned.getVersion());
+            stampStatePersistencePort.write(stampState);
+            rebuilds.increment();
+            return stampState;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the record with today's state of a month that was just committed at {@code version}, unless the record already is
+     * at that version or later. {@code clockTimesOfMonth} must be exactly the month at that version.
+     */
+    void committed(List<ClockTime> clockTimesOfMonth, int year, int month, long version, LocalDateTime today) {
+        lock.lock();
+        try {
+            if (today.getYear() != year || today.getMonthValue() != month) {
+                return;
+            }
+            if (stampState == null) {
+                stampState = stampStatePersistencePort.read();
+            }
+            if (isOfDay(stampState, today) && stampState.getMonthVersion() >= version) {
+                return;
+            }
+            stampState = build(clockTimesOfMonth, today, version);
+            stampStatePersistencePort.write(stampState);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Today's state computed from the given month without touching the record, for a month that was just written.
+     */
+    StampState stampStateOf(List<ClockTime> clockTimesOfMonth, LocalDateTime today) {
+        return build(clockTimesOfMonth, today, -1);
+    }
+
+    private static boolean matches(StampState stampState, LocalDateTime today, long monthVersion) {
+        return isOfDay(stampState, today) && stampState.getMonthVersion() == monthVersion;
+    }
+
+    private static boolean isOfDay(StampState stampState, LocalDateTime today) {
+        return stampState != null && stampState.getDay() == today.getDayOfMonth() && stampState.getMonth() == today.getMonthValue()
+                && stampState.getYear() == today.getYear();
+    }
+
+    private StampState build(List<ClockTime> clockTimesOfMonth, LocalDateTime today, long monthVersion) {
+        StampState state = new StampState().setYear(today.getYear())
+                                           .setMonth(today.getMonthValue())
+                                           .setDay(today.getDayOfMonth())
+                                           .setMonthVersion(monthVersion);
+        int clockTimeCount = 0;
+        int clockTimesWithoutPause = 0;
+        int pairedMinutes = 0;
+        int pauseMinutes = 0;
+        LocalDateTime lastClockTime = null;
+        for (ClockTime clockTime : clockTimesOfMonth) {
+            LocalDateTime date = clockTime.getDate();
+            if (date.getDayOfMonth() != today.getDayOfMonth() || date.getMonthValue() != today.getMonthValue()
+                    || date.getYear() != today.getYear()) {
+                continue;
+            }
+            clockTimeCount++;
+            if (clockTime.getPause() != null) {
+                pauseMinutes += clockTime.getPause();
+            } else {
+                int minutes = date.getHour() * 60 + date.getMinute();
+                pairedMinutes += clockTimesWithoutPause++ % 2 == 0 ? -minutes : minutes;
+                lastClockTime = date;
+            }
+        }
+        return state.setClockTimeCount(clockTimeCount)
+                    .setClockTimesWithoutPause(clockTimesWithoutPause)
+                    .setPairedMinutes(pairedMinutes)
+                    .setPauseMinutes(pauseMinutes)
+                    .setOpenSince(clockTimesWithoutPause % 2 == 1 ? lastClockTime : null);
+    }
+
+    static class InMemoryStampStatePersistence implements StampStatePersistencePort {
+
+        @Override
+        public StampState read() {
+            return null;
+        }
+
+        @Override
+        public void write(StampState stampState) {
+            //kept in the index only
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package de.trundicho.timeclockstamper.core.service;
+
+import de.trundicho.timeclockstamper.core.domain.model.StampState;
+
+public interface StampStatePersistencePort {
+
+    /**
+     * @return the stored state or null if there is none
+     */
+    StampState read();
+
+    void write(StampState stampState);
+}
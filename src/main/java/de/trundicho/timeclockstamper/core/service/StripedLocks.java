@@ -0,0 +1,27 @@
+package de.trundicho.timeclockstamper.core.service;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Fixed set of read/write locks a key is hashed onto, so unrelated keys rarely contend while memory stays constant.
+ */
+class StripedLocks {
+
+    private final ReadWriteLock[] locks;
+    private final int mask;
+
+    StripedLocks(int minimumStripes) {
+        int stripes = Integer.highestOneBit(Math.max(1, minimumStripes - 1)) << 1;
+        locks = new ReadWriteLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantReadWriteLock();
+        }
+        mask = stripes - 1;
+    }
+
+    ReadWriteLock forKey(Object key) {
+        int hash = key.hashCode();
+        return locks[(hash ^ (hash >>> 16)) & mask];
+    }
+}
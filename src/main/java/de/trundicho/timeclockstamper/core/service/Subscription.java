@@ -0,0 +1,15 @@
+package de.trundicho.timeclockstamper.core.service;
+
+/**
+ * Listener registration returned by {@link TimeClockStamperService#subscribe}. Closing it stops the delivery of further events.
+ */
+public interface Subscription extends AutoCloseable {
+
+    /**
+     * Events that were discarded because the listener fell behind by more than its queue capacity.
+     */
+    long getDroppedEvents();
+
+    @Override
+    void close();
+}
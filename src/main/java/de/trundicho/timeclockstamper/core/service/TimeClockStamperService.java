@@ -1,27 +1,67 @@
 package de.trundicho.timeclockstamper.core.service;
 
+import java.time.Clock;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.YearMonth;
 import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import de.trundicho.timeclockstamper.core.domain.model.ClockStatus;
 import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTimeBatchData;
 import de.trundicho.timeclockstamper.core.domain.model.ClockTimeData;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTimeEvent;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTimeField;
 import de.trundicho.timeclockstamper.core.domain.model.ClockType;
+import de.trundicho.timeclockstamper.core.domain.model.MetricsSnapshot;
+import de.trundicho.timeclockstamper.core.domain.model.MonthOvertime;
+import de.trundicho.timeclockstamper.core.domain.model.OvertimeReport;
+import de.trundicho.timeclockstamper.core.domain.model.StampState;
+import de.trundicho.timeclockstamper.core.domain.model.VersionedClockTimes;
 
-import lombok.extern.slf4j.Slf4j;
-
-@Slf4j
 public class TimeClockStamperService {
 
+    private static final int EVENT_QUEUE_CAPACITY = 64;
+    private static final Set<ClockTimeField> ALL_FIELDS = EnumSet.allOf(ClockTimeField.class);
+    private static final Set<ClockTimeField> STATUS_FIELDS = EnumSet.of(ClockTimeField.CURRENT_STATE,
+            ClockTimeField.HOURS_WORKED_TODAY);
+
     private final int hoursToWorkPerDayInMinutes;
     private final ClockTimePersistencePort clockTimePersistencePort;
-    private final String timezone;
+    private final Clock clock;
+    private final WorkingTimeCalculator workingTimeCalculator;
+    private final WorkingTimeIndex workingTimeIndex;
+    private final StampStateIndex stampStateIndex;
+    private final ClockTimeEventDispatcher eventDispatcher;
+    private final Metrics metrics;
+    private final Metrics.Counter stamps;
+    private final Metrics.Counter overriddenDays;
+    private final Metrics.Counter importedClockTimes;
+    private final Metrics.Counter writeRetries;
+    private final Metrics.Counter notModified;
+    private final StripedLocks monthRetryLocks = new StripedLocks(16);
 
     public TimeClockStamperService(String timeZone, ClockTimePersistencePort clockTimePersistencePort) {
         this(timeZone, clockTimePersistencePort, 480);
@@ -29,9 +69,33 @@ public class TimeClockStamperService {
 
     public TimeClockStamperService(String timeZone, ClockTimePersistencePort clockTimePersistencePort,
             int hoursToWorkPerDayInMinutes) {
+        this(Clock.system(ZoneId.of(timeZone)), clockTimePersistencePort, hoursToWorkPerDayInMinutes,
+                new WorkingTimeIndex.InMemoryMonthAggregatePersistence(), new StampStateIndex.InMemoryStampStatePersistence(),
+                Metrics.noop());
+    }
+
+    /**
+     * Takes "now" and the time zone from {@code clock}, so a simulation can run the service on virtual time. All other
+     * constructors and the {@link #builder(ClockTimePersistencePort) builder} end up here.
+     */
+    public TimeClockStamperService(Clock clock, ClockTimePersistencePort clockTimePersistencePort, int hoursToWorkPerDayInMinutes,
+            MonthAggregatePersistencePort monthAggregatePersistencePort, StampStatePersistencePort stampStatePersistencePort,
+            Metrics metrics) {
         this.clockTimePersistencePort = clockTimePersistencePort;
-        this.timezone = timeZone;
+        this.clock = clock;
         this.hoursToWorkPerDayInMinutes = hoursToWorkPerDayInMinutes;
+        this.workingTimeCalculator = new WorkingTimeCalculator(hoursToWorkPerDayInMinutes);
+        this.workingTimeIndex = new WorkingTimeIndex(workingTimeCalculator, monthAggregatePersistencePort, hoursToWorkPerDayInMinutes);
+        this.stampStateIndex = new StampStateIndex(clockTimePersistencePort, stampStatePersistencePort,
+                metrics.counter("service.state.rebuilds"));
+        this.eventDispatcher = new ClockTimeEventDispatcher(ClockTimeEventDispatcher.sharedExecutor(),
+                metrics.counter("service.events.dropped"));
+        this.metrics = metrics;
+        this.stamps = metrics.counter("service.stamps");
+        this.overriddenDays = metrics.counter("service.days.overridden");
+        this.importedClockTimes = metrics.counter("service.clockTimes.imported");
+        this.writeRetries = metrics.counter("service.write.retries");
+        this.notModified = metrics.counter("service.reads.notModified");
     }
 
     public ClockTimeData stampInOrOut() {
@@ -39,134 +103,225 @@ public class TimeClockStamperService {
     }
 
     public ClockTimeData getTimeClockResponse() {
-        List<ClockTime> clockTimes = clockTimePersistencePort.read(null, null);
-        return createClockTimeResponse(clockTimes, null, null);
+        return getTimeClockResponse(ALL_FIELDS);
+    }
+
+    /**
+     * Like {@link #getTimeClockResponse()}, but only computes the requested fields, all others stay null. Asking for the current
+     * state alone skips the day list and the overtime of the month.
+     */
+    public ClockTimeData getTimeClockResponse(Set<ClockTimeField> fields) {
+        if (STATUS_FIELDS.containsAll(fields)) {
+            ClockStatus clockStatus = getClockStatus();
+            ClockTimeData clockTimeData = new ClockTimeData();
+            if (fields.contains(ClockTimeField.CURRENT_STATE)) {
+                clockTimeData.setCurrentState(clockStatus.getCurrentState());
+            }
+            if (fields.contains(ClockTimeField.HOURS_WORKED_TODAY)) {
+                clockTimeData.setHoursWorkedToday(clockStatus.getHoursWorkedToday());
+            }
+            return clockTimeData;
+        }
+        LocalDateTime today = getLocalDateTime();
+        return versionedResponse(today.getYear(), today.getMonthValue(), today.getDayOfMonth(), fields);
+    }
+
+    /**
+     * Empty if {@code version} still is the version of the current response, which is checked without reading the month.
+     */
+    public Optional<ClockTimeData> getTimeClockResponseIfModified(String version) {
+        LocalDateTime today = getLocalDateTime();
+        return getDayIfModified(version, today.getYear(), today.getMonthValue(), today.getDayOfMonth());
+    }
+
+    /**
+     * Current state, open session and worked minutes of today. Answered from the stamp state record, the month is only read if the
+     * record is missing or stale.
+     */
+    public ClockStatus getClockStatus() {
+        LocalDateTime now = getLocalDateTime();
+        return clockStatus(stampStateIndex.stampState(now), now);
+    }
+
+    /**
+     * Registers {@code listener} for an event after every committed stamp and day change. Events are delivered asynchronously and
+     * in order; if the listener falls more than 64 events behind, the oldest are dropped. Every event carries the version of its
+     * month, and an event is never delivered after one of a newer version of the same month.
+     */
+    public Subscription subscribe(Consumer<ClockTimeEvent> listener) {
+        return subscribe(listener, EVENT_QUEUE_CAPACITY);
+    }
+
+    public Subscription subscribe(Consumer<ClockTimeEvent> listener, int queueCapacity) {
+        return eventDispatcher.subscribe(listener, queueCapacity);
+    }
+
+    boolean hasSubscribers() {
+        return eventDispatcher.hasSubscribers();
+    }
+
+    private ClockStatus clockStatus(StampState stampState, LocalDateTime now) {
+        int workedMinutes = 0;
+        if (stampState.getClockTimesWithoutPause() > 0) {
+            int pairedMinutes = stampState.getPairedMinutes();
+            if (stampState.getOpenSince() != null) {
+                //add fake clockOut
+                pairedMinutes += now.getHour() * 60 + now.getMinute();
+            }
+            workedMinutes = pairedMinutes - stampState.getPauseMinutes();
+        } else if (stampState.getClockTimeCount() > 0) {
+            workedMinutes = hoursToWorkPerDayInMinutes;
+        }
+        return new ClockStatus().setCurrentState(stampState.getOpenSince() != null ? ClockType.CLOCK_IN : ClockType.CLOCK_OUT)
+                                .setOpenSince(stampState.getOpenSince())
+                                .setWorkedMinutesToday(workedMinutes)
+                                .setHoursWorkedToday(hoursWorkedAndLeft(workedMinutes));
     }
 
     public String getOvertimeMonth(Integer year, Integer month) {
-        List<ClockTime> clockTimes = clockTimePersistencePort.read(year, month);
-        return overtimeMonth(clockTimes, year, month);
+        VersionedClockTimes versioned = clockTimePersistencePort.readVersioned(year, month);
+        return overtimeMonth(versioned.getClockTimes(), versioned.getVersion(), year, month);
     }
 
-    private ClockTimeData createClockTimeResponse(List<ClockTime> clockTimes, Integer year, Integer month) {
-        LocalDateTime localDateTime = localDate(year, month, null);
-        return createClockTimeResponse(clockTimes, localDateTime.getYear(), localDateTime.getMonthValue(), localDateTime.getDayOfMonth());
-    }
-
-    private ClockTimeData createClockTimeResponse(List<ClockTime> clockTimes, Integer year, Integer month, Integer day) {
-        List<ClockTime> filteredPerDay = clockTimes.stream()
-                                                   .filter(c -> (year == null || c.getDate().getYear() == year) && (month == null
-                                                           || c.getDate().getMonthValue() == month) && (day == null
-                                                           || c.getDate().getDayOfMonth() == day))
-                                                   .collect(Collectors.toList());
-        List<ClockTime> filteredPerMonth = clockTimes.stream()
-                                                     .filter(c -> (year == null || c.getDate().getYear() == year) && (month == null
-                                                             || c.getDate().getMonthValue() == month))
-                                                     .collect(Collectors.toList());
-        ClockType clockType = ClockType.valueOf(currentStampState(filteredPerDay));
-        String hoursWorkedToday = hoursWorkedAtDay(filteredPerDay);
-        return new ClockTimeData().setCurrentState(clockType)
-                                  .setHoursWorkedToday(hoursWorkedToday)
-                                  .setOvertimeMonth(overtimeMonth(filteredPerMonth, year, month))
-                                  .setClockTimes(filteredPerDay);
-    }
-
-    private String currentStampState(List<ClockTime> clockTimes) {
-        return getCurrentClockType(clockTimes).toString();
-    }
-
-    private String hoursWorkedAtDay(List<ClockTime> clockTimesOfADay) {
-        LocalDateTime today = clockNow().getDate();
-        Optional<ClockTime> first = clockTimesOfADay.stream()
-                                                    .filter(c -> c.getDate().getYear() == today.getYear()
-                                                            && c.getDate().getMonthValue() == today.getMonthValue()
-                                                            && c.getDate().getDayOfMonth() == today.getDayOfMonth())
-                                                    .findFirst();
-        if (first.isEmpty() && getCurrentClockType(clockTimesOfADay) == ClockType.CLOCK_IN) {
-            return "Can not compute time worked this day";
+    /**
+     * Overtime of all months from {@code from} to {@code to} (both inclusive), loaded and computed in parallel on a bounded pool
+     * of daemon threads reserved for overtime ranges. Months that do not fit into its queue are computed by the calling thread.
+     */
+    public OvertimeReport getOvertimeRange(YearMonth from, YearMonth to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Range start " + from + " is after range end " + to);
         }
-        List<ClockTime> day = new ArrayList<>(clockTimesOfADay);
-        int overallWorkedMinutes = 0;
-        if (getCurrentClockType(day) == ClockType.CLOCK_IN) {
-            //add fake clockOut
-            day.add(clockNow());
+        List<CompletableFuture<MonthOvertime>> loads = new ArrayList<>();
+        for (YearMonth yearMonth = from; !yearMonth.isAfter(to); yearMonth = yearMonth.plusMonths(1)) {
+            YearMonth month = yearMonth;
+            loads.add(CompletableFuture.supplyAsync(() -> monthOvertime(month), OvertimeRangeExecutor.INSTANCE));
         }
-        if (!day.isEmpty()) {
-            overallWorkedMinutes = getOverallMinutes(day);
+        List<MonthOvertime> months = new ArrayList<>(loads.size());
+        for (CompletableFuture<MonthOvertime> load : loads) {
+            months.add(joinUnwrapped(load));
         }
-        return toHoursAndMinutes(overallWorkedMinutes) + ". Left: " + toHoursAndMinutes(hoursToWorkPerDayInMinutes - overallWorkedMinutes);
+        int overtimeMinutes = 0;
+        for (MonthOvertime monthOvertime : months) {
+            overtimeMinutes += monthOvertime.getOvertimeMinutes();
+        }
+        return new OvertimeReport().setFrom(from)
+                                   .setTo(to)
+                                   .setOvertimeMinutes(overtimeMinutes)
+                                   .setOvertime(toHoursAndMinutes(overtimeMinutes))
+                                   .setMonths(months);
     }
 
-    private String overtimeMonth(List<ClockTime> clockTimes, Integer year, Integer month) {
-        final ClockTime currentMonth;
-        if (year != null && month != null) {
-            LocalDateTime monthDate = LocalDateTime.of(year, month, 1, 0, 0);
-            currentMonth = new ClockTime().setDate(monthDate);
-        } else {
-            currentMonth = clockNow();
-        }
-        final int monthInteger = Objects.requireNonNullElseGet(month, () -> currentMonth.getDate().getMonthValue());
-        final int yearInteger = Objects.requireNonNullElseGet(year, () -> currentMonth.getDate().getYear());
-        List<ClockTime> allClocksThisMonth = new ArrayList<>(clockTimes).stream()
-                                                                        .filter(clockTime ->
-                                                                                clockTime.getDate().getMonthValue() == monthInteger
-                                                                                        && clockTime.getDate().getYear() == yearInteger)
-                                                                        .collect(Collectors.toList());
-        if (month == null && getCurrentClockType(clockTimes) == ClockType.CLOCK_IN) {
-            //remove last stamp
-            if (!allClocksThisMonth.isEmpty()) {
-                allClocksThisMonth.remove(allClocksThisMonth.size() - 1);
+    public OvertimeReport getOvertimeYear(int year) {
+        return getOvertimeRange(YearMonth.of(year, 1), YearMonth.of(year, 12));
+    }
+
+    private MonthOvertime monthOvertime(YearMonth yearMonth) {
+        int year = yearMonth.getYear();
+        int month = yearMonth.getMonthValue();
+        VersionedClockTimes versioned = clockTimePersistencePort.readVersioned(year, month);
+        int overtimeMinutes = workingTimeIndex.overtimeMinutes(versioned.getClockTimes(), year, month, versioned.getVersion());
+        return new MonthOvertime().setYearMonth(yearMonth)
+                                  .setOvertimeMinutes(overtimeMinutes)
+                                  .setOvertime(toHoursAndMinutes(overtimeMinutes));
+    }
+
+    private static <T> T joinUnwrapped(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
             }
+            throw e;
         }
-        int dayOfMonth = month == null ? currentMonth.getDate().getDayOfMonth() : 31;
-        int overallWorkedMinutes = 0;
-        for (int i = 1; i <= dayOfMonth; i++) {
-            final int dom = i;
-            List<ClockTime> clocksAtDay = allClocksThisMonth.stream()
-                                                            .filter(clockTime -> clockTime.getDate().getDayOfMonth() == dom)
-                                                            .collect(Collectors.toList());
-            if (clocksAtDay.isEmpty()) {
-                overallWorkedMinutes += hoursToWorkPerDayInMinutes;
-            } else {
-                overallWorkedMinutes += getOverallMinutes(clocksAtDay);
+    }
+
+    private ClockTimeData createClockTimeResponse(List<ClockTime> clockTimes, long version, Integer year, Integer month) {
+        LocalDateTime localDateTime = localDate(year, month, null);
+        return createClockTimeResponse(clockTimes, version, localDateTime.getYear(), localDateTime.getMonthValue(),
+                localDateTime.getDayOfMonth());
+    }
+
+    private ClockTimeData createClockTimeResponse(List<ClockTime> clockTimes, long version, Integer year, Integer month, Integer day) {
+        return createClockTimeResponse(clockTimes, version, year, month, day, ALL_FIELDS);
+    }
+
+    /**
+     * {@code version} is the version of the month partition {@code clockTimes} were read from or written to.
+     */
+    private ClockTimeData createClockTimeResponse(List<ClockTime> clockTimes, long version, Integer year, Integer month, Integer day,
+            Set<ClockTimeField> fields) {
+        ClockTimeData clockTimeData = new ClockTimeData();
+        if (fields.contains(ClockTimeField.CLOCK_TIMES) || fields.contains(ClockTimeField.HOURS_WORKED_TODAY)) {
+            List<ClockTime> filteredPerDay = clockTimes.stream()
+                                                       .filter(c -> (year == null || c.getDate().getYear() == year) && (month == null
+                                                               || c.getDate().getMonthValue() == month) && (day == null
+                                                               || c.getDate().getDayOfMonth() == day))
+                                                       .collect(Collectors.toList());
+            ClockType clockType = workingTimeCalculator.currentClockType(filteredPerDay);
+            if (fields.contains(ClockTimeField.CURRENT_STATE)) {
+                clockTimeData.setCurrentState(clockType);
             }
+            if (fields.contains(ClockTimeField.HOURS_WORKED_TODAY)) {
+                clockTimeData.setHoursWorkedToday(hoursWorkedAtDay(filteredPerDay, clockType));
+            }
+            if (fields.contains(ClockTimeField.CLOCK_TIMES)) {
+                clockTimeData.setClockTimes(filteredPerDay);
+            }
+        } else if (fields.contains(ClockTimeField.CURRENT_STATE)) {
+            clockTimeData.setCurrentState(clockTypeAtDay(clockTimes, year, month, day));
+        }
+        if (fields.contains(ClockTimeField.OVERTIME_MONTH)) {
+            clockTimeData.setOvertimeMonth(overtimeMonth(clockTimes, version, year, month));
         }
-        int minutesToWorkUntilToday = dayOfMonth * hoursToWorkPerDayInMinutes;
-        return toHoursAndMinutes(overallWorkedMinutes - minutesToWorkUntilToday);
+        return clockTimeData;
     }
 
-    private int getOverallMinutes(List<ClockTime> todayClockTimes) {
-        int allPausesOnDay = todayClockTimes.stream()
-                                                .map(ClockTime::getPause)
-                                                .filter(Objects::nonNull)
-                                                .mapToInt(Integer::intValue)
-                                                .sum();
-        List<ClockTime> todayClocksReverse = todayClockTimes.stream().filter(c -> c.getPause() == null).collect(Collectors.toList());
-        Collections.reverse(todayClocksReverse);
-        if (todayClocksReverse.size() % 2 == 1) {
-            log.error("Not correct clocked day: " + todayClocksReverse + " assuming 8 hours of work");
-            return hoursToWorkPerDayInMinutes;
+    private static ClockType clockTypeAtDay(List<ClockTime> clockTimes, int year, int month, int day) {
+        int clockTimesWithoutPause = 0;
+        for (int i = 0, size = clockTimes.size(); i < size; i++) {
+            ClockTime clockTime = clockTimes.get(i);
+            LocalDateTime date = clockTime.getDate();
+            if (clockTime.getPause() == null && date.getDayOfMonth() == day && date.getMonthValue() == month
+                    && date.getYear() == year) {
+                clockTimesWithoutPause++;
+            }
         }
-        if (todayClocksReverse.isEmpty()) {
-            log.info("Not clocked on this day, assuming 8 hours of work");
-            return hoursToWorkPerDayInMinutes;
+        return clockTimesWithoutPause % 2 == 0 ? ClockType.CLOCK_OUT : ClockType.CLOCK_IN;
+    }
+
+    private String hoursWorkedAtDay(List<ClockTime> clockTimesOfADay, ClockType clockType) {
+        LocalDateTime today = getLocalDateTime();
+        boolean stampedToday = false;
+        for (ClockTime clockTime : clockTimesOfADay) {
+            LocalDateTime date = clockTime.getDate();
+            if (date.getYear() == today.getYear() && date.getMonthValue() == today.getMonthValue()
+                    && date.getDayOfMonth() == today.getDayOfMonth()) {
+                stampedToday = true;
+                break;
+            }
+        }
+        if (!stampedToday && clockType == ClockType.CLOCK_IN) {
+            return "Can not compute time worked this day";
         }
-        LocalDateTime lastClock = todayClocksReverse.get(0).getDate();
         int overallWorkedMinutes = 0;
-        for (int i = 1; i < todayClocksReverse.size(); i++) {
-            if (i % 2 == 0) {
-                lastClock = todayClocksReverse.get(i).getDate();
-                continue;
-            }
-            ClockTime clockTime = todayClocksReverse.get(i);
-            int hour = lastClock.getHour();
-            int minute = lastClock.getMinute();
-            lastClock = clockTime.getDate();
-            int minutes1 = toMinutes(hour, minute);
-            int minutes2 = toMinutes(lastClock.getHour(), lastClock.getMinute());
-            overallWorkedMinutes += minutes1 - minutes2;
+        if (!clockTimesOfADay.isEmpty()) {
+            //add fake clockOut
+            ClockTime clockOut = clockType == ClockType.CLOCK_IN ? new ClockTime().setDate(today) : null;
+            overallWorkedMinutes = workingTimeCalculator.workedMinutes(clockTimesOfADay, clockOut);
         }
-        return overallWorkedMinutes - allPausesOnDay;
+        return hoursWorkedAndLeft(overallWorkedMinutes);
+    }
+
+    private String hoursWorkedAndLeft(int overallWorkedMinutes) {
+        return toHoursAndMinutes(overallWorkedMinutes) + ". Left: " + toHoursAndMinutes(hoursToWorkPerDayInMinutes - overallWorkedMinutes);
+    }
+
+    private String overtimeMonth(List<ClockTime> clockTimes, long version, Integer year, Integer month) {
+        if (year != null && month != null) {
+            return toHoursAndMinutes(workingTimeIndex.overtimeMinutes(clockTimes, year, month, version));
+        }
+        return toHoursAndMinutes(workingTimeCalculator.overtimeMinutes(clockTimes, year, month, getLocalDateTime()));
     }
 
     private ClockTime clockNow() {
@@ -174,15 +329,7 @@ public class TimeClockStamperService {
     }
 
     private LocalDateTime getLocalDateTime() {
-        return LocalDateTime.now(ZoneId.of(timezone));
-    }
-
-    private ClockType getCurrentClockType(List<ClockTime> clockTimes) {
-        List<ClockTime> clockTimesWithoutPause = clockTimes.stream().filter(c -> c.getPause() == null).collect(Collectors.toList());
-        if (clockTimesWithoutPause.size() % 2 == 0) {
-            return ClockType.CLOCK_OUT;
-        }
-        return ClockType.CLOCK_IN;
+        return LocalDateTime.now(clock);
     }
 
     private String toHoursAndMinutes(int overallWorkedMinutes) {
@@ -201,10 +348,6 @@ public class TimeClockStamperService {
         return "" + currentMonth;
     }
 
-    private int toMinutes(int hour, int minute) {
-        return hour * 60 + minute;
-    }
-
     private LocalDateTime localDate(Integer year, Integer month, Integer day) {
         LocalDateTime now = getLocalDateTime();
         return LocalDateTime.of(year == null ? now.getYear() : year, month == null ? now.getMonth().getValue() : month,
@@ -223,28 +366,151 @@ public class TimeClockStamperService {
         LocalDateTime localDateTime = localDate(null, null, null);
         int year = localDateTime.getYear();
         int month = localDateTime.getMonthValue();
-        List<ClockTime> clockTimeDb = new ArrayList<>(clockTimePersistencePort.read(year, month));
-        clockTimeDb.add(clockTime);
-        clockTimePersistencePort.write(clockTimeDb, year, month);
-        return createClockTimeResponse(clockTimeDb, year, month);
+        return retryOnConflict(year, month, () -> {
+            VersionedClockTimes versioned = clockTimePersistencePort.readVersioned(year, month);
+            List<ClockTime> clockTimeDb = new ArrayList<>(versioned.getClockTimes());
+            clockTimeDb.add(clockTime);
+            long committed = clockTimePersistencePort.compareAndAppend(clockTime, clockTimeDb, year, month, versioned.getVersion());
+            if (committed == ClockTimePersistencePort.CONFLICT) {
+                return null;
+            }
+            stamps.increment();
+            List<Integer> days = List.of(clockTime.getDate().getDayOfMonth());
+            if (clockTimePersistencePort.mergesAppends()) {
+                VersionedClockTimes written = afterMergedAppend(versioned, year, month, days);
+                return createClockTimeResponse(written.getClockTimes(), written.getVersion(), year, month);
+            }
+            afterCommit(versioned, clockTimeDb, committed, year, month, days);
+            return createClockTimeResponse(clockTimeDb, committed, year, month);
+        });
     }
 
     private ClockTimeData stampByOverrideDay(List<ClockTime> clockTimesToSave, int year, int month, int day) {
-        List<ClockTime> clockTimeDb = new ArrayList<>(clockTimePersistencePort.read(year, month));
-        List<ClockTime> clockTimes = clockTimeDb.stream()
-                                                .filter(c -> !(c.getDate().getYear() == year && c.getDate().getMonthValue() == month
-                                                        && c.getDate().getDayOfMonth() == day))
-                                                .collect(Collectors.toCollection(ArrayList::new));
-        clockTimes.addAll(clockTimesToSave.stream()
-                                          .filter(c -> c.getDate().getYear() == year && c.getDate().getMonthValue() == month
-                                                  && c.getDate().getDayOfMonth() == day)
-                                          .collect(Collectors.toList()));
-        clockTimePersistencePort.write(clockTimes, year, month);
-        return createClockTimeResponse(clockTimes, year, month, day);
+        VersionedClockTimes written = overrideDays(Map.of(day, clockTimesToSave), year, month);
+        return createClockTimeResponse(written.getClockTimes(), written.getVersion(), year, month, day);
+    }
+
+    /**
+     * Replaces the given days of one month with a single versioned read and write. Returns the written clock times of the month.
+     */
+    private VersionedClockTimes overrideDays(Map<Integer, List<ClockTime>> clockTimesToSaveByDay, int year, int month) {
+        return retryOnConflict(year, month, () -> {
+            VersionedClockTimes versioned = clockTimePersistencePort.readVersioned(year, month);
+            List<ClockTime> clockTimes = versioned.getClockTimes()
+                                                  .stream()
+                                                  .filter(c -> !(c.getDate().getYear() == year && c.getDate().getMonthValue() == month
+                                                          && clockTimesToSaveByDay.containsKey(c.getDate().getDayOfMonth())))
+                                                  .collect(Collectors.toCollection(ArrayList::new));
+            clockTimesToSaveByDay.forEach((day, clockTimesToSave) -> {
+                for (ClockTime clockTime : clockTimesToSave) {
+                    LocalDateTime date = clockTime.getDate();
+                    if (date.getYear() == year && date.getMonthValue() == month && date.getDayOfMonth() == day) {
+                        clockTimes.add(clockTime);
+                    }
+                }
+            });
+            long committed = clockTimePersistencePort.compareAndWrite(clockTimes, year, month, versioned.getVersion());
+            if (committed == ClockTimePersistencePort.CONFLICT) {
+                return null;
+            }
+            overriddenDays.increment(clockTimesToSaveByDay.size());
+            afterCommit(versioned, clockTimes, committed, year, month, clockTimesToSaveByDay.keySet());
+            return new VersionedClockTimes().setClockTimes(clockTimes).setVersion(committed);
+        });
+    }
+
+    /**
+     * Runs after every committed write: brings the working time index and today's stamp state record to the committed month
+     * version and notifies subscribers. {@code written} must be exactly the month at {@code version}.
+     */
+    private void afterCommit(VersionedClockTimes before, List<ClockTime> written, long version, int year, int month,
+            Collection<Integer> days) {
+        Integer overtimeBefore = overtimeBeforeChange(before, year, month);
+        workingTimeIndex.update(written, year, month, days, before.getVersion(), version);
+        stampStateIndex.committed(written, year, month, version, getLocalDateTime());
+        publish(written, version, year, month, days, overtimeBefore);
+    }
+
+    /**
+     * Runs after an append to a store that merges appends. The month at the committed version is not known, so the month
+     * aggregate is dropped instead of updated, and the month is read back for the stamp state record, the event and the response.
+     */
+    private VersionedClockTimes afterMergedAppend(VersionedClockTimes before, int year, int month, Collection<Integer> days) {
+        Integer overtimeBefore = overtimeBeforeChange(before, year, month);
+        workingTimeIndex.invalidate(year, month);
+        VersionedClockTimes written = clockTimePersistencePort.readVersioned(year, month);
+        stampStateIndex.committed(written.getClockTimes(), year, month, written.getVersion(), getLocalDateTime());
+        publish(written.getClockTimes(), written.getVersion(), year, month, days, overtimeBefore);
+        return written;
+    }
+
+    /**
+     * Overtime of the month before a committed change, taken from the not yet updated index. Null if nobody listens.
+     */
+    private Integer overtimeBeforeChange(VersionedClockTimes before, int year, int month) {
+        return eventDispatcher.hasSubscribers() ? workingTimeIndex.overtimeMinutes(before.getClockTimes(), year, month,
+                before.getVersion()) : null;
+    }
+
+    /**
+     * Builds the event from the written month, so listeners never cause a read. Today's state only changes if the current month
+     * was written, otherwise it comes from the stamp state record.
+     */
+    private void publish(List<ClockTime> clockTimesOfMonth, long version, int year, int month, Collection<Integer> days,
+            Integer overtimeBefore) {
+        if (overtimeBefore == null) {
+            return;
+        }
+        LocalDateTime now = getLocalDateTime();
+        ClockStatus clockStatus = now.getYear() == year && now.getMonthValue() == month ? clockStatus(
+                stampStateIndex.stampStateOf(clockTimesOfMonth, now), now) : getClockStatus();
+        int overtimeMinutes = workingTimeIndex.overtimeMinutes(clockTimesOfMonth, year, month, version);
+        eventDispatcher.publish(new ClockTimeEvent().setYearMonth(YearMonth.of(year, month))
+                                                    .setVersion(version)
+                                                    .setDays(List.copyOf(days))
+                                                    .setCurrentState(clockStatus.getCurrentState())
+                                                    .setOpenSince(clockStatus.getOpenSince())
+                                                    .setWorkedMinutesToday(clockStatus.getWorkedMinutesToday())
+                                                    .setHoursWorkedToday(clockStatus.getHoursWorkedToday())
+                                                    .setOvertimeMonthMinutes(overtimeMinutes)
+                                                    .setOvertimeDeltaMinutes(overtimeMinutes - overtimeBefore));
+    }
+
+    /**
+     * Runs the versioned write {@code attempt} until it does not report a conflict by returning null. The first attempt is
+     * optimistic, writers that lost a race retry one at a time per month with a backoff in between, so they only compete with
+     * first attempts and other processes on the store and a few retries suffice.
+     */
+    private <T> T retryOnConflict(int year, int month, Supplier<T> attempt) {
+        T result = attempt.get();
+        if (result != null) {
+            return result;
+        }
+        writeRetries.increment();
+        Lock retryLock = monthRetryLocks.forKey(YearMonth.of(year, month)).writeLock();
+        retryLock.lock();
+        try {
+            for (int retry = 1; retry < WriteBackoff.MAX_ATTEMPTS; retry++) {
+                WriteBackoff.afterConflict(retry - 1);
+                result = attempt.get();
+                if (result != null) {
+                    return result;
+                }
+                writeRetries.increment();
+            }
+        } finally {
+            retryLock.unlock();
+        }
+        throw concurrentModification(year, month);
+    }
+
+    private IllegalStateException concurrentModification(int year, int month) {
+        return new IllegalStateException(
+                "Could not write " + year + "-" + prependZero(month) + " after " + WriteBackoff.MAX_ATTEMPTS + " concurrent modifications");
     }
 
     public ClockTimeData setToday(ClockTimeData clockTimeData) {
-        LocalDateTime today = LocalDateTime.now(ZoneId.of(timezone));
+        LocalDateTime today = getLocalDateTime();
         return stampByOverrideDay(clockTimeData.getClockTimes(), today.getYear(), today.getMonthValue(), today.getDayOfMonth());
     }
 
@@ -252,8 +518,230 @@ public class TimeClockStamperService {
         return stampByOverrideDay(clockTimeData.getClockTimes(), year, month, day);
     }
 
+    /**
+     * Replaces all given days at once. Days are grouped by month, so every touched month is read and written once.
+     */
+    public ClockTimeBatchData setDays(Map<LocalDate, List<ClockTime>> clockTimesByDay) {
+        Map<YearMonth, Map<Integer, List<ClockTime>>> daysByMonth = new TreeMap<>();
+        clockTimesByDay.forEach((date, clockTimes) -> daysByMonth.computeIfAbsent(YearMonth.from(date), m -> new TreeMap<>())
+                                                                 .put(date.getDayOfMonth(), clockTimes));
+        List<ClockTimeData> days = new ArrayList<>();
+        List<MonthOvertime> months = new ArrayList<>();
+        for (Map.Entry<YearMonth, Map<Integer, List<ClockTime>>> entry : daysByMonth.entrySet()) {
+            int year = entry.getKey().getYear();
+            int month = entry.getKey().getMonthValue();
+            VersionedClockTimes written = overrideDays(entry.getValue(), year, month);
+            for (Integer day : entry.getValue().keySet()) {
+                days.add(createClockTimeResponse(written.getClockTimes(), written.getVersion(), year, month, day));
+            }
+            int overtimeMinutes = workingTimeIndex.overtimeMinutes(written.getClockTimes(), year, month, written.getVersion());
+            months.add(new MonthOvertime().setYearMonth(entry.getKey())
+                                          .setOvertimeMinutes(overtimeMinutes)
+                                          .setOvertime(toHoursAndMinutes(overtimeMinutes)));
+        }
+        return new ClockTimeBatchData().setDays(days).setMonths(months);
+    }
+
     public ClockTimeData getDay(int year, int month, int day) {
-        List<ClockTime> clockTimes = clockTimePersistencePort.read(year, month);
-        return createClockTimeResponse(clockTimes, year, month, day);
+        return versionedResponse(year, month, day, ALL_FIELDS);
+    }
+
+    public Optional<ClockTimeData> getDayIfModified(String version, int year, int month, int day) {
+        if (version != null && version.equals(currentVersion(year, month, day))) {
+            notModified.increment();
+            return Optional.empty();
+        }
+        return Optional.of(getDay(year, month, day));
+    }
+
+    /**
+     * Only reads the day from the persistence unless the overtime of the month is asked for.
+     */
+    private ClockTimeData versionedResponse(int year, int month, int day, Set<ClockTimeField> fields) {
+        VersionedClockTimes versioned = fields.contains(ClockTimeField.OVERTIME_MONTH)
+                ? clockTimePersistencePort.readVersioned(year, month)
+                : clockTimePersistencePort.readDayVersioned(year, month, day);
+        LocalDateTime now = getLocalDateTime();
+        boolean openToday = isToday(now, year, month, day) && stampStateIndex.stampStateOf(versioned.getClockTimes(), now)
+                                                                               .getOpenSince() != null;
+        return createClockTimeResponse(versioned.getClockTimes(), versioned.getVersion(), year, month, day, fields).setVersion(
+                version(versioned.getVersion(), year, month, day, openToday, now));
+    }
+
+    /**
+     * Version of a day response from the month version alone. Today's open session is taken from the stamp state record, which
+     * also stays valid until the month is written.
+     */
+    private String currentVersion(int year, int month, int day) {
+        LocalDateTime now = getLocalDateTime();
+        boolean openToday = isToday(now, year, month, day) && stampStateIndex.stampState(now).getOpenSince() != null;
+        return version(clockTimePersistencePort.version(year, month), year, month, day, openToday, now);
+    }
+
+    /**
+     * {@code monthVersion:date}, plus {@code :minute} of the day while a session is open today, because open worked time grows
+     * every minute. Month versions never repeat, also not over restarts (see {@link ClockTimePersistencePort#version}), so the
+     * token stays valid for every service instance on the same store. Null if the persistence can not tell the month version.
+     */
+    private String version(long monthVersion, int year, int month, int day, boolean openToday, LocalDateTime now) {
+        if (monthVersion < 0) {
+            return null;
+        }
+        String version = monthVersion + ":" + year + "-" + prependZero(month) + "-" + prependZero(day);
+        return openToday ? version + ":" + (now.getHour() * 60 + now.getMinute()) : version;
+    }
+
+    private static boolean isToday(LocalDateTime now, int year, int month, int day) {
+        return now.getDayOfMonth() == day && now.getMonthValue() == month && now.getYear() == year;
+    }
+
+    public MetricsSnapshot getMetricsSnapshot() {
+        return metrics.snapshot();
+    }
+
+    public void rebuildIndex(int year, int month) {
+        VersionedClockTimes versioned = clockTimePersistencePort.readVersioned(year, month);
+        workingTimeIndex.rebuild(versioned.getClockTimes(), year, month, versioned.getVersion());
+    }
+
+    /**
+     * Adds the given stamps to their months. Stamps are collected until the month changes and then written with one versioned read
+     * and write, so only one month is held in memory; input sorted by date, like an export, writes every month once. Stamps that
+     * already exist are skipped. Every written month updates the index and the stamp state and notifies subscribers like any other
+     * change. Returns the number of added stamps.
+     */
+    public int importClockTimes(Iterator<ClockTime> clockTimes) {
+        int imported = 0;
+        YearMonth currentMonth = null;
+        List<ClockTime> clockTimesOfMonth = new ArrayList<>();
+        while (clockTimes.hasNext()) {
+            ClockTime clockTime = clockTimes.next();
+            YearMonth yearMonth = YearMonth.from(clockTime.getDate());
+            if (!yearMonth.equals(currentMonth)) {
+                imported += importMonth(clockTimesOfMonth, currentMonth);
+                currentMonth = yearMonth;
+                clockTimesOfMonth = new ArrayList<>();
+            }
+            clockTimesOfMonth.add(clockTime);
+        }
+        return imported + importMonth(clockTimesOfMonth, currentMonth);
+    }
+
+    private int importMonth(List<ClockTime> clockTimesToImport, YearMonth yearMonth) {
+        if (clockTimesToImport.isEmpty()) {
+            return 0;
+        }
+        int year = yearMonth.getYear();
+        int month = yearMonth.getMonthValue();
+        return retryOnConflict(year, month, () -> {
+            VersionedClockTimes versioned = clockTimePersistencePort.readVersioned(year, month);
+            List<ClockTime> clockTimes = new ArrayList<>(versioned.getClockTimes());
+            Set<ClockTime> existing = new HashSet<>(clockTimes);
+            Set<Integer> days = new TreeSet<>();
+            for (ClockTime clockTime : clockTimesToImport) {
+                if (existing.add(clockTime)) {
+                    clockTimes.add(clockTime);
+                    days.add(clockTime.getDate().getDayOfMonth());
+                }
+            }
+            int imported = clockTimes.size() - versioned.getClockTimes().size();
+            if (imported == 0) {
+                return 0;
+            }
+            long committed = clockTimePersistencePort.compareAndWrite(clockTimes, year, month, versioned.getVersion());
+            if (committed == ClockTimePersistencePort.CONFLICT) {
+                return null;
+            }
+            importedClockTimes.increment(imported);
+            afterCommit(versioned, clockTimes, committed, year, month, days);
+            return imported;
+        });
+    }
+
+    /**
+     * Passes all stamps from {@code from} to {@code to} (both inclusive) to {@code consumer}, reading one month at a time.
+     */
+    public void exportClockTimes(YearMonth from, YearMonth to, Consumer<ClockTime> consumer) {
+        for (YearMonth yearMonth = from; !yearMonth.isAfter(to); yearMonth = yearMonth.plusMonths(1)) {
+            List<ClockTime> clockTimes = new ArrayList<>(clockTimePersistencePort.read(yearMonth.getYear(), yearMonth.getMonthValue()));
+            clockTimes.sort(null);
+            clockTimes.forEach(consumer);
+        }
+    }
+
+    /**
+     * Builder for services that differ from the defaults: 8 hours of work per day, month aggregates and stamp state kept in
+     * memory, no metrics. Either a time zone or a clock is required.
+     */
+    public static Builder builder(ClockTimePersistencePort clockTimePersistencePort) {
+        return new Builder(clockTimePersistencePort);
+    }
+
+    public static final class Builder {
+
+        private final ClockTimePersistencePort clockTimePersistencePort;
+        private Clock clock;
+        private int hoursToWorkPerDayInMinutes = 480;
+        private MonthAggregatePersistencePort monthAggregatePersistencePort = new WorkingTimeIndex.InMemoryMonthAggregatePersistence();
+        private StampStatePersistencePort stampStatePersistencePort = new StampStateIndex.InMemoryStampStatePersistence();
+        private Metrics metrics = Metrics.noop();
+
+        private Builder(ClockTimePersistencePort clockTimePersistencePort) {
+            this.clockTimePersistencePort = clockTimePersistencePort;
+        }
+
+        public Builder timeZone(String timeZone) {
+            this.clock = Clock.system(ZoneId.of(timeZone));
+            return this;
+        }
+
+        public Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public Builder hoursToWorkPerDayInMinutes(int hoursToWorkPerDayInMinutes) {
+            this.hoursToWorkPerDayInMinutes = hoursToWorkPerDayInMinutes;
+            return this;
+        }
+
+        public Builder monthAggregatePersistence(MonthAggregatePersistencePort monthAggregatePersistencePort) {
+            this.monthAggregatePersistencePort = monthAggregatePersistencePort;
+            return this;
+        }
+
+        public Builder stampStatePersistence(StampStatePersistencePort stampStatePersistencePort) {
+            this.stampStatePersistencePort = stampStatePersistencePort;
+            return this;
+        }
+
+        public Builder metrics(Metrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        public TimeClockStamperService build() {
+            if (clock == null) {
+                throw new IllegalStateException("Time zone or clock of the service is missing");
+            }
+            return new TimeClockStamperService(clock, clockTimePersistencePort, hoursToWorkPerDayInMinutes,
+                    monthAggregatePersistencePort, stampStatePersistencePort, metrics);
+        }
+    }
+
+    private static class OvertimeRangeExecutor {
+
+        private static final int THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+        private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+        private static final ThreadPoolExecutor INSTANCE = new ThreadPoolExecutor(THREADS, THREADS, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(256), runnable -> {
+            Thread thread = new Thread(runnable, "overtime-range-" + THREAD_NUMBER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+
+        static {
+            INSTANCE.allowCoreThreadTimeOut(true);
+        }
     }
 }
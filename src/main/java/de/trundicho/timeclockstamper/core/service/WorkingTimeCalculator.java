@@ -0,0 +1,183 @@
+package de.trundicho.timeclockstamper.core.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.domain.model.ClockType;
+import de.trundicho.timeclockstamper.core.domain.model.MonthStamps;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Computes clock state, worked minutes and overtime in a single pass over the stamps without intermediate collections. Stamps are
+ * grouped by day through fixed day-of-month tables, so the order of stamps within a day is the order of the given list.
+ */
+@Slf4j
+public class WorkingTimeCalculator {
+
+    private static final int DAY_SLOTS = 32;
+
+    private final int hoursToWorkPerDayInMinutes;
+
+    public WorkingTimeCalculator(int hoursToWorkPerDayInMinutes) {
+        this.hoursToWorkPerDayInMinutes = hoursToWorkPerDayInMinutes;
+    }
+
+    public ClockType currentClockType(List<ClockTime> clockTimes) {
+        int clockTimesWithoutPause = 0;
+        for (int i = 0, size = clockTimes.size(); i < size; i++) {
+            if (clockTimes.get(i).getPause() == null) {
+                clockTimesWithoutPause++;
+            }
+        }
+        return clockTimesWithoutPause % 2 == 0 ? ClockType.CLOCK_OUT : ClockType.CLOCK_IN;
+    }
+
+    public int workedMinutes(List<ClockTime> clockTimesOfADay) {
+        return workedMinutes(clockTimesOfADay, null);
+    }
+
+    /**
+     * Worked minutes of a day, treating {@code clockOut} (if not null) as an additional last stamp.
+     */
+    public int workedMinutes(List<ClockTime> clockTimesOfADay, ClockTime clockOut) {
+        int pauses = 0;
+        int clockTimesWithoutPause = 0;
+        int pairedMinutes = 0;
+        for (int i = 0, size = clockTimesOfADay.size(); i < size; i++) {
+            ClockTime clockTime = clockTimesOfADay.get(i);
+            if (clockTime.getPause() != null) {
+                pauses += clockTime.getPause();
+            } else {
+                pairedMinutes += signedMinutes(clockTime.getDate(), clockTimesWithoutPause++);
+            }
+        }
+        if (clockOut != null) {
+            pairedMinutes += signedMinutes(clockOut.getDate(), clockTimesWithoutPause++);
+        }
+        if (clockTimesWithoutPause % 2 == 1) {
+            List<ClockTime> day = new ArrayList<>(clockTimesOfADay);
+            if (clockOut != null) {
+                day.add(clockOut);
+            }
+            log.error("Not correct clocked day: " + reversedWithoutPause(day, -1, -1, -1, 0) + " assuming 8 hours of work");
+            return hoursToWorkPerDayInMinutes;
+        }
+        if (clockTimesWithoutPause == 0) {
+            log.info("Not clocked on this day, assuming 8 hours of work");
+            return hoursToWorkPerDayInMinutes;
+        }
+        return pairedMinutes - pauses;
+    }
+
+    /**
+     * Worked minutes of {@code day}, computed on the columns with the stamps of the day in date order.
+     */
+    public int workedMinutes(MonthStamps stamps, int day) {
+        int pauses = 0;
+        int clockTimesWithoutPause = 0;
+        int pairedMinutes = 0;
+        for (int n = 0, count = stamps.countAtDay(day); n < count; n++) {
+            int index = stamps.indexAtDay(day, n);
+            if (stamps.hasPause(index)) {
+                pauses += stamps.pause(index);
+            } else {
+                int minutes = stamps.minuteOfDay(index);
+                pairedMinutes += clockTimesWithoutPause++ % 2 == 0 ? -minutes : minutes;
+            }
+        }
+        if (clockTimesWithoutPause % 2 == 1) {
+            List<ClockTime> clockTimesOfDay = new ArrayList<>();
+            for (int n = 0, count = stamps.countAtDay(day); n < count; n++) {
+                clockTimesOfDay.add(stamps.get(stamps.indexAtDay(day, n)));
+            }
+            log.error("Not correct clocked day: " + reversedWithoutPause(clockTimesOfDay, -1, -1, -1, 0) + " assuming 8 hours of work");
+            return hoursToWorkPerDayInMinutes;
+        }
+        if (clockTimesWithoutPause == 0) {
+            log.info("Not clocked on this day, assuming 8 hours of work");
+            return hoursToWorkPerDayInMinutes;
+        }
+        return pairedMinutes - pauses;
+    }
+
+    /**
+     * Overtime of a month in minutes. Without a month, the current month up to {@code now} is computed and a trailing clock in is
+     * ignored.
+     */
+    public int overtimeMinutes(List<ClockTime> clockTimes, Integer year, Integer month, LocalDateTime now) {
+        final int monthInteger = month != null ? month : now.getMonthValue();
+        final int yearInteger = year != null ? year : now.getYear();
+        final int lastDay = month == null ? now.getDayOfMonth() : 31;
+        int ignoredIndex = -1;
+        if (month == null && currentClockType(clockTimes) == ClockType.CLOCK_IN) {
+            //remove last stamp
+            for (int i = clockTimes.size() - 1; i >= 0; i--) {
+                if (isInMonth(clockTimes.get(i).getDate(), yearInteger, monthInteger)) {
+                    ignoredIndex = i;
+                    break;
+                }
+            }
+        }
+        int[] stamps = new int[DAY_SLOTS];
+        int[] clockTimesWithoutPause = new int[DAY_SLOTS];
+        int[] pairedMinutes = new int[DAY_SLOTS];
+        int[] pauses = new int[DAY_SLOTS];
+        for (int i = 0, size = clockTimes.size(); i < size; i++) {
+            ClockTime clockTime = clockTimes.get(i);
+            LocalDateTime date = clockTime.getDate();
+            if (i == ignoredIndex || !isInMonth(date, yearInteger, monthInteger)) {
+                continue;
+            }
+            int day = date.getDayOfMonth();
+            stamps[day]++;
+            if (clockTime.getPause() != null) {
+                pauses[day] += clockTime.getPause();
+            } else {
+                pairedMinutes[day] += signedMinutes(date, clockTimesWithoutPause[day]++);
+            }
+        }
+        int overtime = 0;
+        for (int day = 1; day <= lastDay; day++) {
+            if (stamps[day] == 0) {
+                continue;
+            }
+            int worked;
+            if (clockTimesWithoutPause[day] % 2 == 1) {
+                log.error("Not correct clocked day: " + reversedWithoutPause(clockTimes, ignoredIndex, yearInteger, monthInteger, day)
+                        + " assuming 8 hours of work");
+                worked = hoursToWorkPerDayInMinutes;
+            } else if (clockTimesWithoutPause[day] == 0) {
+                log.info("Not clocked on this day, assuming 8 hours of work");
+                worked = hoursToWorkPerDayInMinutes;
+            } else {
+                worked = pairedMinutes[day] - pauses[day];
+            }
+            overtime += worked - hoursToWorkPerDayInMinutes;
+        }
+        return overtime;
+    }
+
+    private static int signedMinutes(LocalDateTime date, int indexWithoutPause) {
+        int minutes = date.getHour() * 60 + date.getMinute();
+        return indexWithoutPause % 2 == 0 ? -minutes : minutes;
+    }
+
+    private static boolean isInMonth(LocalDateTime date, int year, int month) {
+        return date.getMonthValue() == month && date.getYear() == year;
+    }
+
+    private static List<ClockTime> reversedWithoutPause(List<ClockTime> clockTimes, int ignoredIndex, int year, int month, int day) {
+        List<ClockTime> reversed = new ArrayList<>();
+        for (int i = clockTimes.size() - 1; i >= 0; i--) {
+            ClockTime clockTime = clockTimes.get(i);
+            if (i != ignoredIndex && clockTime.getPause() == null && (day == 0 || (isInMonth(clockTime.getDate(), year, month)
+                    && clockTime.getDate().getDayOfMonth() == day))) {
+                reversed.add(clockTime);
+            }
+        }
+        return reversed;
+    }
+}
@@ -0,0 +1,205 @@
+package de.trundicho.timeclockstamper.core.service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.domain.model.MonthAggregate;
+import de.trundicho.timeclockstamper.core.domain.model.MonthStamps;
+
+/**
+ * Per-day worked minutes, pauses and the running overtime balance of a month. A change to one day only recomputes that day. Every
+ * aggregate carries the version of the month partition it was computed from: it is only used for exactly that version (and the
+ * same stamp count and daily target), and an aggregate is never replaced by one of an older version, so updates that arrive out of
+ * commit order can not leave a stale aggregate behind. Days are computed from their stamps in date order, the way they are
+ * persisted.
+ */
+class WorkingTimeIndex {
+
+    private static final int CACHED_MONTHS = 64;
+
+    private final WorkingTimeCalculator workingTimeCalculator;
+    private final MonthAggregatePersistencePort monthAggregatePersistencePort;
+    private final int hoursToWorkPerDayInMinutes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<YearMonth, MonthAggregate> aggregates = new LinkedHashMap<>(16, 0.75f, true) {
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<YearMonth, MonthAggregate> eldest) {
+            return size() > CACHED_MONTHS;
+        }
+    };
+
+    WorkingTimeIndex(WorkingTimeCalculator workingTimeCalculator, MonthAggregatePersistencePort monthAggregatePersistencePort,
+            int hoursToWorkPerDayInMinutes) {
+        this.workingTimeCalculator = workingTimeCalculator;
+        this.monthAggregatePersistencePort = monthAggregatePersistencePort;
+        this.hoursToWorkPerDayInMinutes = hoursToWorkPerDayInMinutes;
+    }
+
+    /**
+     * Overtime of the month at {@code version}. Stale aggregates are rebuilt outside the lock, so months can be computed in
+     * parallel.
+     */
+    int overtimeMinutes(List<ClockTime> clockTimesOfMonth, int year, int month, long version) {
+        lock.lock();
+        try {
+            MonthAggregate aggregate = aggregate(year, month);
+            if (matches(aggregate, version, clockTimesOfMonth.size())) {
+                return aggregate.getOvertimeMinutes();
+            }
+        } finally {
+            lock.unlock();
+        }
+        MonthAggregate aggregate = build(clockTimesOfMonth, year, month, version);
+        storeIfNewer(aggregate);
+        return aggregate.getOvertimeMinutes();
+    }
+
+    /**
+     * Applies a committed change of {@code days} that moved the month from {@code previousVersion} to {@code version}. The change is
+     * applied day by day if the cached aggregate is at {@code previousVersion}, dropped if the cached aggregate is already at
+     * {@code version} or later, and otherwise the month is rebuilt from {@code clockTimesOfMonth}.
+     */
+    void update(List<ClockTime> clockTimesOfMonth, int year, int month, Collection<Integer> days, long previousVersion,
+            long version) {
+        lock.lock();
+        try {
+            MonthAggregate aggregate = aggregate(year, month);
+            if (aggregate != null && aggregate.getVersion() >= version) {
+                return;
+            }
+            if (!matches(aggregate, previousVersion, aggregate == null ? -1 : aggregate.getClockTimeCount())) {
+                rebuild(clockTimesOfMonth, year, month, version);
+                return;
+            }
+            for (int day : days) {
+                List<ClockTime> clockTimesOfDay = new ArrayList<>();
+                for (ClockTime clockTime : clockTimesOfMonth) {
+                    if (isAtDay(clockTime.getDate(), year, month, day)) {
+                        clockTimesOfDay.add(clockTime);
+                    }
+                }
+                aggregate.setOvertimeMinutes(aggregate.getOvertimeMinutes() - overtimeOfDay(aggregate, day));
+                setDay(aggregate, day, clockTimesOfDay);
+                aggregate.setOvertimeMinutes(aggregate.getOvertimeMinutes() + overtimeOfDay(aggregate, day));
+            }
+            aggregate.setClockTimeCount(clockTimesOfMonth.size()).setVersion(version);
+            monthAggregatePersistencePort.write(aggregate);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops the aggregate of the month, e.g. after a write whose resulting month is not known. It is rebuilt on the next read.
+     */
+    void invalidate(int year, int month) {
+        lock.lock();
+        try {
+            aggregates.remove(YearMonth.of(year, month));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    MonthAggregate rebuild(List<ClockTime> clockTimesOfMonth, int year, int month, long version) {
+        MonthAggregate aggregate = build(clockTimesOfMonth, year, month, version);
+        storeIfNewer(aggregate);
+        return aggregate;
+    }
+
+    private void storeIfNewer(MonthAggregate aggregate) {
+        lock.lock();
+        try {
+            YearMonth yearMonth = YearMonth.of(aggregate.getYear(), aggregate.getMonth());
+            MonthAggregate cached = aggregates.get(yearMonth);
+            if (cached == null || cached.getVersion() < aggregate.getVersion()) {
+                aggregates.put(yearMonth, aggregate);
+                monthAggregatePersistencePort.write(aggregate);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private MonthAggregate build(List<ClockTime> clockTimesOfMonth, int year, int month, long version) {
+        MonthStamps stamps = MonthStamps.of(clockTimesOfMonth, year, month);
+        MonthAggregate aggregate = new MonthAggregate().setYear(year)
+                                                       .setMonth(month)
+                                                       .setHoursToWorkPerDayInMinutes(hoursToWorkPerDayInMinutes)
+                                                       .setClockTimeCount(clockTimesOfMonth.size())
+                                                       .setVersion(version);
+        int overtime = 0;
+        for (int day = 1; day < MonthAggregate.DAY_SLOTS; day++) {
+            setDay(aggregate, day, stamps);
+            overtime += overtimeOfDay(aggregate, day);
+        }
+        aggregate.setOvertimeMinutes(overtime);
+        return aggregate;
+    }
+
+    private MonthAggregate aggregate(int year, int month) {
+        return aggregates.computeIfAbsent(YearMonth.of(year, month), m -> monthAggregatePersistencePort.read(year, month));
+    }
+
+    /**
+     * The stamp count is checked as well because appends may commit other stamps with the same write, e.g. in a group commit.
+     */
+    private boolean matches(MonthAggregate aggregate, long version, int clockTimeCount) {
+        return aggregate != null && aggregate.getVersion() == version
+                && aggregate.getHoursToWorkPerDayInMinutes() == hoursToWorkPerDayInMinutes
+                && aggregate.getClockTimeCount() == clockTimeCount;
+    }
+
+    private void setDay(MonthAggregate aggregate, int day, List<ClockTime> clockTimesOfDay) {
+        clockTimesOfDay.sort(null);
+        int pauses = 0;
+        for (ClockTime clockTime : clockTimesOfDay) {
+            if (clockTime.getPause() != null) {
+                pauses += clockTime.getPause();
+            }
+        }
+        aggregate.getStampCounts()[day] = clockTimesOfDay.size();
+        aggregate.getPauseMinutes()[day] = pauses;
+        aggregate.getWorkedMinutes()[day] = clockTimesOfDay.isEmpty() ? 0 : workingTimeCalculator.workedMinutes(clockTimesOfDay);
+    }
+
+    private void setDay(MonthAggregate aggregate, int day, MonthStamps stamps) {
+        int count = stamps.countAtDay(day);
+        int pauses = 0;
+        for (int n = 0; n < count; n++) {
+            pauses += stamps.pause(stamps.indexAtDay(day, n));
+        }
+        aggregate.getStampCounts()[day] = count;
+        aggregate.getPauseMinutes()[day] = pauses;
+        aggregate.getWorkedMinutes()[day] = count == 0 ? 0 : workingTimeCalculator.workedMinutes(stamps, day);
+    }
+
+    private int overtimeOfDay(MonthAggregate aggregate, int day) {
+        return aggregate.getStampCounts()[day] == 0 ? 0 : aggregate.getWorkedMinutes()[day] - hoursToWorkPerDayInMinutes;
+    }
+
+    private static boolean isAtDay(LocalDateTime date, int year, int month, int day) {
+        return date.getDayOfMonth() == day && date.getMonthValue() == month && date.getYear() == year;
+    }
+
+    static class InMemoryMonthAggregatePersistence implements MonthAggregatePersistencePort {
+
+        @Override
+        public MonthAggregate read(int year, int month) {
+            return null;
+        }
+
+        @Override
+        public void write(MonthAggregate monthAggregate) {
+            //kept in the index cache only
+        }
+    }
+}
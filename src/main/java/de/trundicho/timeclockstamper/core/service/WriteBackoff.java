@@ -0,0 +1,34 @@
+package de.trundicho.timeclockstamper.core.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retry policy of optimistic month writes: a few attempts with a random pause below an exponentially growing bound in between
+ * (full jitter), so writers that collided spread out instead of colliding again.
+ */
+public final class WriteBackoff {
+
+    public static final int MAX_ATTEMPTS = 12;
+    private static final long FIRST_BOUND_MICROS = 1_000;
+    private static final long MAX_BOUND_MICROS = 100_000;
+
+    private WriteBackoff() {
+    }
+
+    /**
+     * Pauses after the lost attempt {@code attempt} (counted from 0) unless it was the last one.
+     */
+    public static void afterConflict(int attempt) {
+        if (attempt + 1 >= MAX_ATTEMPTS) {
+            return;
+        }
+        long bound = Math.min(MAX_BOUND_MICROS, FIRST_BOUND_MICROS << Math.min(attempt, 20));
+        try {
+            TimeUnit.MICROSECONDS.sleep(ThreadLocalRandom.current().nextLong(bound) + 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying a write", e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package de.trundicho.timeclockstamper.core;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.trundicho.timeclockstamper.core.adapters.api.AsyncTimeClockStamperApiImpl;
+import de.trundicho.timeclockstamper.core.adapters.api.BoundedIoExecutor;
+import de.trundicho.timeclockstamper.core.adapters.api.ClockTimeDataDto;
+import de.trundicho.timeclockstamper.core.adapters.api.TimeClockStamperApiImpl;
+import de.trundicho.timeclockstamper.core.adapters.persistence.FilePersistence;
+import de.trundicho.timeclockstamper.core.domain.model.VersionedClockTimes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AsyncTimeClockStamperApiTest {
+
+    private static final String TIME_ZONE = "Europe/Berlin";
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void whenStampingConcurrently_thenEveryStampIsPersisted() throws Exception {
+        FilePersistence filePersistence = new FilePersistence(folder.toString() + "/", "clockTime-list.json", TIME_ZONE);
+        try (BoundedIoExecutor executor = BoundedIoExecutor.virtualThreadsIfAvailable(4, 100)) {
+            AsyncTimeClockStamperApiImpl api = new AsyncTimeClockStamperApiImpl(new TimeClockStamperApiImpl(TIME_ZONE, filePersistence),
+                    executor);
+            List<CompletableFuture<ClockTimeDataDto>> stamps = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                stamps.add(api.stampInOrOut());
+            }
+            CompletableFuture.allOf(stamps.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+
+            assertThat(filePersistence.read(null, null)).hasSize(50);
+            assertThat(api.getTimeClockResponse().get(30, TimeUnit.SECONDS).getClockTimes()).hasSize(50);
+        }
+    }
+
+    @Test
+    void whenExecutorIsSaturated_thenFurtherCallsFailWithoutBlocking() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        FilePersistence blockingPersistence = new FilePersistence(folder.toString() + "/", "clockTime-list.json", TIME_ZONE) {
+
+            @Override
+            public VersionedClockTimes readVersioned(Integer year, Integer month) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.readVersioned(year, month);
+            }
+        };
+        try (BoundedIoExecutor executor = BoundedIoExecutor.platformThreads(1, 1)) {
+            AsyncTimeClockStamperApiImpl api = new AsyncTimeClockStamperApiImpl(
+                    new TimeClockStamperApiImpl(TIME_ZONE, blockingPersistence), executor);
+            CompletableFuture<String> running = api.getOvertimeMonth(2021, 1);
+            CompletableFuture<String> queued = api.getOvertimeMonth(2021, 2);
+            CompletableFuture<String> rejected = api.getOvertimeMonth(2021, 3);
+
+            assertThat(rejected).isCompletedExceptionally();
+            assertThatThrownBy(rejected::get).isInstanceOf(ExecutionException.class)
+                                             .hasCauseInstanceOf(RejectedExecutionException.class);
+            release.countDown();
+            assertThat(running.get(30, TimeUnit.SECONDS)).isEqualTo("00h00m");
+            assertThat(queued.get(30, TimeUnit.SECONDS)).isEqualTo("00h00m");
+        }
+    }
+
+    @Test
+    void whenClosed_thenOnlyTheOwnedExecutorIsShutDown() throws Exception {
+        FilePersistence filePersistence = new FilePersistence(folder.toString() + "/", "clockTime-list.json", TIME_ZONE);
+        AsyncTimeClockStamperApiImpl owning = new AsyncTimeClockStamperApiImpl(TIME_ZONE, filePersistence);
+        assertThat(owning.getOvertimeMonth(2021, 1).get(30, TimeUnit.SECONDS)).isEqualTo("00h00m");
+        owning.close();
+
+        assertThatThrownBy(owning.getOvertimeMonth(2021, 1)::get).hasCauseInstanceOf(RejectedExecutionException.class);
+        try (BoundedIoExecutor executor = BoundedIoExecutor.platformThreads(1, 10)) {
+            AsyncTimeClockStamperApiImpl borrowing = new AsyncTimeClockStamperApiImpl(
+                    new TimeClockStamperApiImpl(TIME_ZONE, filePersistence), executor);
+            borrowing.close();
+
+            assertThat(borrowing.getOvertimeMonth(2021, 1).get(30, TimeUnit.SECONDS)).isEqualTo("00h00m");
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package de.trundicho.timeclockstamper.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.trundicho.timeclockstamper.core.adapters.api.BulkFormat;
+import de.trundicho.timeclockstamper.core.adapters.api.ClockTimeEventDto;
+import de.trundicho.timeclockstamper.core.adapters.api.TimeClockStamperApiImpl;
+import de.trundicho.timeclockstamper.core.adapters.persistence.FilePersistence;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BulkImportExportTest {
+
+    private static final String TIME_ZONE = "Europe/Berlin";
+    private static final String CSV = "date,pause\n"
+            + "2021-01-04T17:30,\n"
+            + "2021-01-04T09:00:00,\n"
+            + "\n"
+            + "2021-01-04T17:30,45\n"
+            + "2021-02-10T08:15,\n"
+            + "2021-03-01T17:00,\n"
+            + "2021-03-01T08:00,\n";
+
+    @TempDir
+    Path folder;
+    private final Map<YearMonth, Integer> writesPerMonth = new HashMap<>();
+    private FilePersistence filePersistence;
+    private TimeClockStamperApiImpl api;
+
+    @BeforeEach
+    void setup() {
+        filePersistence = new FilePersistence(folder.toString() + "/", "clockTime-list.json", TIME_ZONE) {
+
+            @Override
+            public long compareAndWrite(List<ClockTime> clockTimes, Integer year, Integer month, long expectedVersion) {
+                writesPerMonth.merge(YearMonth.of(year, month), 1, Integer::sum);
+                return super.compareAndWrite(clockTimes, year, month, expectedVersion);
+            }
+        };
+        api = new TimeClockStamperApiImpl(TIME_ZONE, filePersistence);
+    }
+
+    @Test
+    void whenImportingCsv_thenEveryMonthIsWrittenOnce() throws IOException {
+        int imported = api.importClockTimes(input(CSV), BulkFormat.CSV);
+
+        assertThat(imported).isEqualTo(6);
+        assertThat(writesPerMonth).containsOnly(Map.entry(YearMonth.of(2021, 1), 1), Map.entry(YearMonth.of(2021, 2), 1),
+                Map.entry(YearMonth.of(2021, 3), 1));
+        assertThat(filePersistence.read(2021, 1)).containsExactly(new ClockTime().setDate(LocalDateTime.of(2021, 1, 4, 9, 0)),
+                new ClockTime().setDate(LocalDateTime.of(2021, 1, 4, 17, 30)),
+                new ClockTime().setDate(LocalDateTime.of(2021, 1, 4, 17, 30)).setPause(45));
+        assertThat(api.getOvertimeMonth(2021, 1)).isEqualTo("-00h15m");
+    }
+
+    @Test
+    void whenMonthsAreInterleaved_thenEveryRunOfAMonthIsWrittenAndSubscribersAreNotified() throws IOException, InterruptedException {
+        BlockingQueue<ClockTimeEventDto> events = new LinkedBlockingQueue<>();
+        api.subscribe(events::add);
+
+        int imported = api.importClockTimes(input("2021-03-01T08:00,\n2021-01-04T09:00,\n2021-03-01T17:00,\n"), BulkFormat.CSV);
+
+        assertThat(imported).isEqualTo(3);
+        assertThat(writesPerMonth).containsOnly(Map.entry(YearMonth.of(2021, 1), 1), Map.entry(YearMonth.of(2021, 3), 2));
+        assertThat(filePersistence.read(2021, 3)).hasSize(2);
+        assertThat(events.poll(5, TimeUnit.SECONDS).getYearMonth()).isEqualTo(YearMonth.of(2021, 3));
+        assertThat(events.poll(5, TimeUnit.SECONDS).getYearMonth()).isEqualTo(YearMonth.of(2021, 1));
+        ClockTimeEventDto march = events.poll(5, TimeUnit.SECONDS);
+        assertThat(march.getYearMonth()).isEqualTo(YearMonth.of(2021, 3));
+        assertThat(march.getOvertimeMonthMinutes()).isEqualTo(60);
+    }
+
+    @Test
+    void whenExportedNdjsonIsImportedAgain_thenNothingIsAdded() throws IOException {
+        api.importClockTimes(input(CSV), BulkFormat.CSV);
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        api.exportClockTimes(YearMonth.of(2020, 12), YearMonth.of(2021, 3), BulkFormat.NDJSON, ndjson);
+
+        assertThat(ndjson.toString(StandardCharsets.UTF_8).lines()).hasSize(6)
+                                                                   .first()
+                                                                   .isEqualTo("{\"date\":\"2021-01-04T09:00:00\",\"pause\":null}");
+        writesPerMonth.clear();
+        assertThat(api.importClockTimes(new ByteArrayInputStream(ndjson.toByteArray()), BulkFormat.NDJSON)).isZero();
+        assertThat(writesPerMonth).isEmpty();
+    }
+
+    @Test
+    void whenExportingCsv_thenItCanBeImportedElsewhere() throws IOException {
+        api.importClockTimes(input(CSV), BulkFormat.CSV);
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        api.exportClockTimes(YearMonth.of(2021, 1), YearMonth.of(2021, 2), BulkFormat.CSV, csv);
+
+        assertThat(csv.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "date,pause\n2021-01-04T09:00,\n2021-01-04T17:30,\n2021-01-04T17:30,45\n2021-02-10T08:15,\n");
+        TimeClockStamperApiImpl other = new TimeClockStamperApiImpl(TIME_ZONE,
+                new FilePersistence(folder.toString() + "/other-", "clockTime-list.json", TIME_ZONE));
+        assertThat(other.importClockTimes(new ByteArrayInputStream(csv.toByteArray()), BulkFormat.CSV)).isEqualTo(4);
+    }
+
+    @Test
+    void whenCsvLineIsInvalid_thenNothingIsWritten() {
+        assertThatThrownBy(() -> api.importClockTimes(input("2021-01-04T09:00,\nyesterday,\n"), BulkFormat.CSV)).isInstanceOf(
+                IOException.class).hasMessageContaining("line 2");
+        assertThat(writesPerMonth).isEmpty();
+    }
+
+    private static ByteArrayInputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
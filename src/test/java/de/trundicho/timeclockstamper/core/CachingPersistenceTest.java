@@ -0,0 +1,151 @@
+package de.trundicho.timeclockstamper.core;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.trundicho.timeclockstamper.core.adapters.persistence.CachingPersistence;
+import de.trundicho.timeclockstamper.core.adapters.persistence.FilePersistence;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.service.ClockTimePersistencePort;
+import de.trundicho.timeclockstamper.core.service.TimeClockStamperService;
+import de.trundicho.timeclockstamper.core.service.WriteBackoff;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CachingPersistenceTest {
+
+    private final CountingPersistence delegate = new CountingPersistence();
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void whenMonthWasWritten_thenReadIsServedFromCache() {
+        CachingPersistence cachingPersistence = new CachingPersistence(delegate, "Europe/Berlin");
+        ClockTime stamp2 = clockTime(2021, 1, 4, 17);
+        ClockTime stamp1 = clockTime(2021, 1, 4, 9);
+        cachingPersistence.write(List.of(stamp2, stamp1), 2021, 1);
+
+        assertThat(cachingPersistence.read(2021, 1)).containsExactly(stamp1, stamp2);
+        assertThat(delegate.reads).isZero();
+        assertThat(delegate.writes).isEqualTo(1);
+        assertThat(cachingPersistence.getHitCount()).isEqualTo(1);
+        assertThat(cachingPersistence.getMissCount()).isZero();
+    }
+
+    @Test
+    void whenMonthLimitIsExceeded_thenLeastRecentlyUsedMonthIsEvicted() {
+        CachingPersistence cachingPersistence = new CachingPersistence(delegate, "Europe/Berlin", 2, 1000);
+        cachingPersistence.read(2021, 1);
+        cachingPersistence.read(2021, 2);
+        cachingPersistence.read(2021, 1);
+        cachingPersistence.read(2021, 3);
+        cachingPersistence.read(2021, 1);
+        cachingPersistence.read(2021, 2);
+
+        assertThat(cachingPersistence.getCachedMonths()).isEqualTo(2);
+        assertThat(cachingPersistence.getMissCount()).isEqualTo(4);
+        assertThat(cachingPersistence.getHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    void whenClockTimeLimitIsExceeded_thenOldMonthsAreEvicted() {
+        CachingPersistence cachingPersistence = new CachingPersistence(delegate, "Europe/Berlin", 12, 2);
+        cachingPersistence.write(List.of(clockTime(2021, 1, 4, 9), clockTime(2021, 1, 4, 17)), 2021, 1);
+        cachingPersistence.write(List.of(clockTime(2021, 2, 4, 9)), 2021, 2);
+
+        assertThat(cachingPersistence.getCachedMonths()).isEqualTo(1);
+        cachingPersistence.read(2021, 2);
+        assertThat(delegate.reads).isZero();
+    }
+
+    @Test
+    void whenEveryWriteConflicts_thenWriteFailsAfterTheLastAttempt() {
+        CachingPersistence cachingPersistence = new CachingPersistence(delegate, "Europe/Berlin");
+        delegate.conflicting = true;
+
+        assertThatThrownBy(() -> cachingPersistence.write(List.of(clockTime(2021, 1, 4, 9)), 2021, 1)).isInstanceOf(
+                IllegalStateException.class);
+        assertThat(delegate.conflicts).isEqualTo(WriteBackoff.MAX_ATTEMPTS);
+        assertThat(cachingPersistence.getCachedMonths()).isZero();
+    }
+
+    @Test
+    void whenStampingConcurrently_thenEveryStampIsCachedAndPersisted() throws Exception {
+        FilePersistence filePersistence = new FilePersistence(folder + "/", "clockTime-list.json", "Europe/Berlin");
+        CachingPersistence cachingPersistence = new CachingPersistence(filePersistence, "Europe/Berlin", 2, 1000);
+        TimeClockStamperService service = new TimeClockStamperService("Europe/Berlin", cachingPersistence);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                int offset = thread * 25;
+                futures.add(executor.submit(() -> {
+                    for (int i = offset; i < offset + 25; i++) {
+                        service.stamp(LocalTime.of(i / 60, i % 60));
+                        //reads of other months evict and reload months while stamps are appended
+                        service.getOvertimeMonth(2021, 1 + i % 3);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(filePersistence.read(null, null)).hasSize(200);
+        assertThat(cachingPersistence.read(null, null)).hasSize(200).isSorted();
+        assertThat(cachingPersistence.getCachedMonths()).isLessThanOrEqualTo(2);
+    }
+
+    private static ClockTime clockTime(int year, int month, int day, int hour) {
+        return new ClockTime().setDate(LocalDateTime.of(year, month, day, hour, 0));
+    }
+
+    private static class CountingPersistence implements ClockTimePersistencePort {
+
+        private int reads;
+        private int writes;
+        private int conflicts;
+        private boolean conflicting;
+
+        @Override
+        public void write(List<ClockTime> clockTimes, Integer year, Integer month) {
+            writes++;
+        }
+
+        @Override
+        public List<ClockTime> read(Integer year, Integer month) {
+            reads++;
+            return new ArrayList<>();
+        }
+
+        @Override
+        public long version(Integer year, Integer month) {
+            return writes;
+        }
+
+        @Override
+        public long compareAndWrite(List<ClockTime> clockTimes, Integer year, Integer month, long expectedVersion) {
+            if (conflicting) {
+                conflicts++;
+                return CONFLICT;
+            }
+            write(clockTimes, year, month);
+            return writes;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package de.trundicho.timeclockstamper.core;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.trundicho.timeclockstamper.core.adapters.persistence.BinaryClockTimeCodec;
+import de.trundicho.timeclockstamper.core.adapters.persistence.ClockTimeFileConverter;
+import de.trundicho.timeclockstamper.core.adapters.persistence.FilePersistence;
+import de.trundicho.timeclockstamper.core.adapters.persistence.JsonClockTimeCodec;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ClockTimeCodecTest {
+
+    private static final String TIME_ZONE = "Europe/Berlin";
+
+    private final BinaryClockTimeCodec binaryCodec = new BinaryClockTimeCodec();
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void whenEncodedBinary_thenDecodedEqualAndSmallerThanJson() throws IOException {
+        List<ClockTime> clockTimes = month();
+
+        byte[] binary = binaryCodec.encode(clockTimes);
+
+        assertThat(binaryCodec.decode(binary, 0, binary.length)).isEqualTo(clockTimes);
+        assertThat(binary.length * 5).isLessThan(new JsonClockTimeCodec().encode(clockTimes).length);
+    }
+
+    @Test
+    void whenBinaryIsCorrupted_thenChecksumFails() throws IOException {
+        byte[] binary = binaryCodec.encode(month());
+        binary[10] ^= 1;
+
+        assertThatThrownBy(() -> binaryCodec.decode(binary, 0, binary.length)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void whenJsonMonthsAreConverted_thenBinaryPersistenceReadsThem() throws IOException {
+        FilePersistence json = new FilePersistence(folder + "/", "clockTime-list.json", TIME_ZONE);
+        json.write(month(), 2021, 3);
+
+        int converted = ClockTimeFileConverter.jsonToBinary().convert(folder.toString(), "clockTime-list.json", "clockTime-list.bin");
+
+        FilePersistence binary = new FilePersistence(folder + "/", "clockTime-list.bin", TIME_ZONE, binaryCodec);
+        assertThat(converted).isEqualTo(1);
+        assertThat(binary.read(2021, 3)).isEqualTo(json.read(2021, 3));
+        assertThatThrownBy(() -> ClockTimeFileConverter.jsonToBinary().convert(folder.toString(), "clockTime-list.json",
+                "clockTime-list.json")).isInstanceOf(IllegalArgumentException.class);
+        assertThat(json.read(2021, 3)).isEqualTo(binary.read(2021, 3));
+    }
+
+    @Test
+    void whenSourceMonthIsCorrupt_thenConversionFailsWithoutLeavingTemporaryFiles() throws IOException {
+        Files.writeString(folder.resolve("2021-04-clockTime-list.json"), "not json");
+
+        assertThatThrownBy(() -> ClockTimeFileConverter.jsonToBinary().convert(folder.toString(), "clockTime-list.json",
+                "clockTime-list.bin")).isInstanceOf(IOException.class);
+        try (Stream<Path> files = Files.list(folder)) {
+            assertThat(files).map(path -> path.getFileName().toString()).containsExactly("2021-04-clockTime-list.json");
+        }
+    }
+
+    @Test
+    void whenCompactJsonIsWritten_thenPrettyCodecReadsItAndFilesOfAnySizeDecode() throws IOException {
+        FilePersistence compact = new FilePersistence(folder + "/", "clockTime-list.json", TIME_ZONE, new JsonClockTimeCodec(false));
+        List<ClockTime> large = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            large.addAll(month());
+        }
+        FilePersistence small = new FilePersistence(folder + "/", "clockTime-small.json", TIME_ZONE, new JsonClockTimeCodec(false));
+        compact.write(large, 2021, 3);
+        small.write(month().subList(0, 2), 2021, 3);
+
+        FilePersistence pretty = new FilePersistence(folder + "/", "clockTime-list.json", TIME_ZONE);
+        assertThat(pretty.read(2021, 3)).hasSize(large.size());
+        assertThat(small.read(2021, 3)).isEqualTo(month().subList(0, 2));
+        assertThat(compact.read(2021, 3)).hasSize(large.size());
+        assertThat(new JsonClockTimeCodec(false).encode(month()).length).isLessThan(new JsonClockTimeCodec().encode(month()).length);
+    }
+
+    private static List<ClockTime> month() {
+        List<ClockTime> clockTimes = new ArrayList<>();
+        for (int day = 1; day <= 31; day++) {
+            clockTimes.add(new ClockTime().setDate(LocalDateTime.of(2021, 3, day, 8, day)));
+            clockTimes.add(new ClockTime().setDate(LocalDateTime.of(2021, 3, day, 12, 0, 13, 123_456_789)));
+            clockTimes.add(new ClockTime().setDate(LocalDateTime.of(2021, 3, day, 12, 30)));
+            clockTimes.add(new ClockTime().setDate(LocalDateTime.of(2021, 3, day, 17, 5)));
+            clockTimes.add(new ClockTime().setDate(LocalDateTime.of(2021, 3, day, 17, 5)).setPause(day % 3 == 0 ? -15 : 30));
+        }
+        return clockTimes;
+    }
+}
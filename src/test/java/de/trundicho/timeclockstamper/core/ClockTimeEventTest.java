@@ -0,0 +1,116 @@
+package de.trundicho.timeclockstamper.core;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.trundicho.timeclockstamper.core.adapters.persistence.FilePersistence;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTimeData;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTimeEvent;
+import de.trundicho.timeclockstamper.core.domain.model.ClockType;
+import de.trundicho.timeclockstamper.core.service.InMemoryMetrics;
+import de.trundicho.timeclockstamper.core.service.Subscription;
+import de.trundicho.timeclockstamper.core.service.TimeClockStamperService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClockTimeEventTest {
+
+    private static final String TIME_ZONE = "Europe/Berlin";
+    private static final LocalDate PAST_DAY = LocalDate.of(2022, 1, 5);
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void whenStampingAndSettingDays_thenSubscribersGetStateAndOvertimeDelta() throws InterruptedException {
+        TimeClockStamperService service = service(new InMemoryMetrics());
+        BlockingQueue<ClockTimeEvent> events = new LinkedBlockingQueue<>();
+        Subscription subscription = service.subscribe(events::add);
+
+        setPastDay(service, 17, 30);
+        ClockTimeEvent pastDay = events.poll(5, TimeUnit.SECONDS);
+        assertThat(pastDay.getYearMonth()).isEqualTo(YearMonth.of(2022, 1));
+        assertThat(pastDay.getDays()).containsExactly(5);
+        assertThat(pastDay.getCurrentState()).isEqualTo(ClockType.CLOCK_OUT);
+        assertThat(pastDay.getOvertimeMonthMinutes()).isEqualTo(30);
+        assertThat(pastDay.getOvertimeDeltaMinutes()).isEqualTo(30);
+
+        setPastDay(service, 17, 0);
+        ClockTimeEvent corrected = events.poll(5, TimeUnit.SECONDS);
+        assertThat(corrected.getOvertimeMonthMinutes()).isZero();
+        assertThat(corrected.getOvertimeDeltaMinutes()).isEqualTo(-30);
+        assertThat(corrected.getVersion()).isGreaterThan(pastDay.getVersion());
+
+        LocalDateTime today = LocalDateTime.now(ZoneId.of(TIME_ZONE));
+        service.stamp(LocalTime.of(0, 0));
+        ClockTimeEvent stamped = events.poll(5, TimeUnit.SECONDS);
+        assertThat(stamped.getYearMonth()).isEqualTo(YearMonth.from(today));
+        assertThat(stamped.getDays()).containsExactly(today.getDayOfMonth());
+        assertThat(stamped.getCurrentState()).isEqualTo(ClockType.CLOCK_IN);
+        assertThat(stamped.getOpenSince()).isEqualTo(today.toLocalDate().atStartOfDay());
+        assertThat(stamped.getHoursWorkedToday()).isEqualTo(service.getClockStatus().getHoursWorkedToday());
+
+        subscription.close();
+        service.stamp(LocalTime.of(0, 1));
+        assertThat(events.poll(100, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void whenSubscriberFallsBehind_thenOldestEventsAreDropped() throws InterruptedException {
+        InMemoryMetrics metrics = new InMemoryMetrics();
+        TimeClockStamperService service = service(metrics);
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingQueue<ClockTimeEvent> events = new LinkedBlockingQueue<>();
+        Subscription slow = service.subscribe(event -> {
+            awaitQuietly(release);
+            events.add(event);
+        }, 1);
+
+        for (int minute = 1; minute <= 5; minute++) {
+            setPastDay(service, 17, minute);
+        }
+        release.countDown();
+
+        ClockTimeEvent last = null;
+        for (ClockTimeEvent event = events.poll(5, TimeUnit.SECONDS); event != null; event = events.poll(200, TimeUnit.MILLISECONDS)) {
+            last = event;
+        }
+        assertThat(last.getOvertimeMonthMinutes()).isEqualTo(5);
+        assertThat(slow.getDroppedEvents()).isPositive();
+        assertThat(slow.getDroppedEvents()).isEqualTo(metrics.snapshot().getCounters().get("service.events.dropped"));
+        slow.close();
+    }
+
+    private TimeClockStamperService service(InMemoryMetrics metrics) {
+        return TimeClockStamperService.builder(new FilePersistence(folder + "/", "clockTime-list.json", TIME_ZONE))
+                                      .timeZone(TIME_ZONE)
+                                      .metrics(metrics)
+                                      .build();
+    }
+
+    private static void setPastDay(TimeClockStamperService service, int clockOutHour, int clockOutMinute) {
+        service.setDay(new ClockTimeData().setClockTimes(List.of(new ClockTime().setDate(PAST_DAY.atTime(9, 0)),
+                new ClockTime().setDate(PAST_DAY.atTime(clockOutHour, clockOutMinute)))), 2022, 1, 5);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
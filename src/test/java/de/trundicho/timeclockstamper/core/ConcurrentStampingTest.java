@@ -0,0 +1,187 @@
+package de.trundicho.timeclockstamper.core;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.trundicho.timeclockstamper.core.adapters.persistence.CachingPersistence;
+import de.trundicho.timeclockstamper.core.adapters.persistence.FilePersistence;
+import de.trundicho.timeclockstamper.core.adapters.persistence.GroupCommitPersistence;
+import de.trundicho.timeclockstamper.core.adapters.persistence.GroupCommitter;
+import de.trundicho.timeclockstamper.core.adapters.persistence.JdbcPersistence;
+import de.trundicho.timeclockstamper.core.adapters.persistence.JournalPersistence;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.domain.model.MonthAggregate;
+import de.trundicho.timeclockstamper.core.domain.model.VersionedClockTimes;
+import de.trundicho.timeclockstamper.core.service.ClockTimePersistencePort;
+import de.trundicho.timeclockstamper.core.service.MonthAggregatePersistencePort;
+import de.trundicho.timeclockstamper.core.service.TimeClockStamperService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConcurrentStampingTest {
+
+    private static final String TIME_ZONE = "Europe/Berlin";
+    private static final int THREADS = 8;
+    private static final int STAMPS_PER_THREAD = 25;
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void whenStampingConcurrentlyOnFiles_thenNoStampIsLost() throws Exception {
+        FilePersistence persistence = new FilePersistence(folder + "/", "clockTime-list.json", TIME_ZONE);
+        stampConcurrently(persistence);
+
+        assertThat(persistence.read(null, null)).hasSize(THREADS * STAMPS_PER_THREAD);
+    }
+
+    @Test
+    void whenStampingConcurrentlyThroughCacheAndJournal_thenNoStampIsLost() throws Exception {
+        FilePersistence snapshot = new FilePersistence(folder + "/", "clockTime-list.json", TIME_ZONE);
+        JournalPersistence journal = new JournalPersistence(snapshot, folder + "/", "journal.ndjson", TIME_ZONE, 16);
+        stampConcurrently(new CachingPersistence(journal, TIME_ZONE));
+        journal.compact();
+
+        assertThat(snapshot.read(null, null)).hasSize(THREADS * STAMPS_PER_THREAD);
+    }
+
+    @Test
+    void whenStampingConcurrentlyInDatabase_thenNoStampIsLost() throws Exception {
+        DataSource dataSource = JdbcPersistence.h2DataSource("jdbc:h2:" + folder.resolve("clockTimes"));
+        JdbcPersistence.createSchema(dataSource);
+        JdbcPersistence persistence = new JdbcPersistence(dataSource, "alice", TIME_ZONE);
+        stampConcurrently(persistence);
+
+        assertThat(persistence.read(null, null)).hasSize(THREADS * STAMPS_PER_THREAD);
+    }
+
+    @Test
+    void whenStampingConcurrentlyThroughGroupCommit_thenNoStampIsLostAndMonthIsWrittenLessOften() throws Exception {
+        FilePersistence persistence = new FilePersistence(folder + "/", "clockTime-list.json", TIME_ZONE);
+        try (GroupCommitPersistence groupCommit = new GroupCommitPersistence(persistence, TIME_ZONE, Duration.ofMillis(5), 64)) {
+            stampConcurrently(groupCommit);
+
+            assertThat(persistence.read(null, null)).hasSize(THREADS * STAMPS_PER_THREAD);
+            assertThat(groupCommit.getMonthWrites()).isLessThan(THREADS * STAMPS_PER_THREAD);
+        }
+    }
+
+    @Test
+    void whenStampingConcurrentlyThroughGroupCommit_thenTheMonthAggregateIsBuiltFromTheStoredMonth() throws Exception {
+        FilePersistence persistence = new FilePersistence(folder + "/", "clockTime-list.json", TIME_ZONE);
+        LastMonthAggregate monthAggregates = new LastMonthAggregate();
+        YearMonth month = YearMonth.now(ZoneId.of(TIME_ZONE));
+        try (GroupCommitPersistence groupCommit = new GroupCommitPersistence(persistence, TIME_ZONE, Duration.ofMillis(5), 64)) {
+            TimeClockStamperService service = TimeClockStamperService.builder(groupCommit)
+                                                                     .timeZone(TIME_ZONE)
+                                                                     .monthAggregatePersistence(monthAggregates)
+                                                                     .build();
+            stampConcurrently(service);
+            String overtime = service.getOvertimeMonth(month.getYear(), month.getMonthValue());
+
+            assertThat(monthAggregates.last.getClockTimeCount()).isEqualTo(THREADS * STAMPS_PER_THREAD);
+            assertThat(monthAggregates.last.getVersion()).isEqualTo(persistence.version(month.getYear(), month.getMonthValue()));
+            assertThat(overtime).isEqualTo(
+                    new TimeClockStamperService(TIME_ZONE, persistence).getOvertimeMonth(month.getYear(), month.getMonthValue()));
+        }
+    }
+
+    @Test
+    void whenTenantsShareAGroupCommitter_thenTheirStampsAreCommittedTogether() throws Exception {
+        FilePersistence alice = new FilePersistence(folder + "/alice-", "clockTime-list.json", TIME_ZONE);
+        FilePersistence bob = new FilePersistence(folder + "/bob-", "clockTime-list.json", TIME_ZONE);
+        try (GroupCommitter committer = new GroupCommitter(Duration.ofMillis(5), 64)) {
+            GroupCommitPersistence aliceGroupCommit = new GroupCommitPersistence(alice, TIME_ZONE, committer);
+            GroupCommitPersistence bobGroupCommit = new GroupCommitPersistence(bob, TIME_ZONE, committer);
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            Future<?> aliceStamps = executor.submit(() -> {
+                stampConcurrently(aliceGroupCommit);
+                return null;
+            });
+            Future<?> bobStamps = executor.submit(() -> {
+                stampConcurrently(bobGroupCommit);
+                return null;
+            });
+            aliceStamps.get();
+            bobStamps.get();
+            executor.shutdown();
+
+            assertThat(alice.read(null, null)).hasSize(THREADS * STAMPS_PER_THREAD);
+            assertThat(bob.read(null, null)).hasSize(THREADS * STAMPS_PER_THREAD);
+            assertThat(committer.getCommittedBatches()).isLessThan(committer.getMonthWrites());
+        }
+    }
+
+    @Test
+    void whenTheCommitterDies_thenPendingAndLaterAppendsFail() {
+        FilePersistence failing = new FilePersistence(folder + "/", "clockTime-list.json", TIME_ZONE) {
+
+            @Override
+            public VersionedClockTimes readVersioned(Integer year, Integer month) {
+                throw new OutOfMemoryError("test");
+            }
+        };
+        try (GroupCommitPersistence groupCommit = new GroupCommitPersistence(failing, TIME_ZONE)) {
+            ClockTime clockTime = new ClockTime().setDate(LocalDateTime.now(ZoneId.of(TIME_ZONE)));
+
+            assertThatThrownBy(() -> groupCommit.append(clockTime, List.of(clockTime), null, null)).isInstanceOf(
+                    IllegalStateException.class).hasRootCauseInstanceOf(OutOfMemoryError.class);
+            assertThatThrownBy(() -> groupCommit.append(clockTime, List.of(clockTime), null, null)).isInstanceOf(
+                    IllegalStateException.class).hasMessage("Group commit is closed");
+        }
+    }
+
+    private void stampConcurrently(ClockTimePersistencePort persistence) throws Exception {
+        stampConcurrently(new TimeClockStamperService(TIME_ZONE, persistence));
+    }
+
+    private void stampConcurrently(TimeClockStamperService service) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int s = 0; s < STAMPS_PER_THREAD; s++) {
+                    service.stampInOrOut();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+    }
+
+    private static class LastMonthAggregate implements MonthAggregatePersistencePort {
+
+        private volatile MonthAggregate last;
+
+        @Override
+        public MonthAggregate read(int year, int month) {
+            return last;
+        }
+
+        @Override
+        public void write(MonthAggregate monthAggregate) {
+            last = monthAggregate;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package de.trundicho.timeclockstamper.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.trundicho.timeclockstamper.core.adapters.persistence.FilePersistence;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.domain.model.VersionedClockTimes;
+import de.trundicho.timeclockstamper.core.service.ClockTimePersistencePort;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class FilePersistenceTest {
+
+    private static final String PERSISTENCE_FILE = "clockTime-list.json";
+
+    @TempDir
+    Path folder;
+    private FilePersistence filePersistence;
+
+    @BeforeEach
+    void setup() {
+        filePersistence = new FilePersistence(folder.toString() + "/", PERSISTENCE_FILE, "Europe/Berlin");
+    }
+
+    @Test
+    void whenReadingMonth_thenOnlyThatMonthFileIsOpened() throws IOException {
+        ClockTime january = new ClockTime().setDate(LocalDateTime.of(2021, 1, 4, 9, 0));
+        ClockTime february = new ClockTime().setDate(LocalDateTime.of(2021, 2, 4, 9, 0));
+        filePersistence.write(List.of(january), 2021, 1);
+        filePersistence.write(List.of(february), 2021, 2);
+        Files.writeString(folder.resolve("2021-03-" + PERSISTENCE_FILE), "not json");
+        Files.writeString(folder.resolve("2020-02-" + PERSISTENCE_FILE), "not json");
+
+        assertThat(filePersistence.read(2021, 2)).containsExactly(february);
+        assertThat(filePersistence.read(2021, 4)).isEmpty();
+    }
+
+    @Test
+    void whenReadingRange_thenAllMonthsOfRangeAreReturned() throws IOException {
+        ClockTime december = new ClockTime().setDate(LocalDateTime.of(2020, 12, 30, 9, 0));
+        ClockTime january = new ClockTime().setDate(LocalDateTime.of(2021, 1, 4, 9, 0));
+        ClockTime february = new ClockTime().setDate(LocalDateTime.of(2021, 2, 4, 9, 0));
+        filePersistence.write(List.of(december), 2020, 12);
+        filePersistence.write(List.of(january), 2021, 1);
+        filePersistence.write(List.of(february), 2021, 2);
+        Files.writeString(folder.resolve("2021-03-" + PERSISTENCE_FILE), "not json");
+
+        assertThat(filePersistence.readRange(YearMonth.of(2020, 12), YearMonth.of(2021, 1))).containsExactly(december, january);
+    }
+
+    @Test
+    void whenMonthIsReplaced_thenItKeepsThePermissionsOfTheReplacedFile() throws IOException {
+        assumeTrue(folder.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        Path file = folder.resolve("2021-01-" + PERSISTENCE_FILE);
+        filePersistence.write(List.of(new ClockTime().setDate(LocalDateTime.of(2021, 1, 4, 9, 0))), 2021, 1);
+        Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-r-----"));
+
+        filePersistence.write(List.of(new ClockTime().setDate(LocalDateTime.of(2021, 1, 4, 17, 0))), 2021, 1);
+
+        assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(file))).isEqualTo("rw-r-----");
+    }
+
+    @Test
+    void whenAnotherInstanceWroteTheMonth_thenStaleConditionalWriteConflicts() {
+        FilePersistence otherInstance = new FilePersistence(folder.toString() + "/", PERSISTENCE_FILE, "Europe/Berlin");
+        ClockTime january = new ClockTime().setDate(LocalDateTime.of(2021, 1, 4, 9, 0));
+        VersionedClockTimes stale = filePersistence.readVersioned(2021, 1);
+
+        long written = otherInstance.compareAndWrite(List.of(january), 2021, 1, stale.getVersion());
+
+        assertThat(written).isGreaterThan(stale.getVersion());
+        assertThat(filePersistence.version(2021, 1)).isEqualTo(written);
+        assertThat(filePersistence.compareAndWrite(List.of(), 2021, 1, stale.getVersion())).isEqualTo(
+                ClockTimePersistencePort.CONFLICT);
+        assertThat(filePersistence.readVersioned(2021, 1).getClockTimes()).containsExactly(january);
+    }
+
+    @Test
+    void whenMonthCanNotBeRead_thenVersionedReadFailsInsteadOfReturningAnEmptyMonth() throws IOException {
+        Files.writeString(folder.resolve("2021-03-" + PERSISTENCE_FILE), "not json");
+
+        assertThatThrownBy(() -> filePersistence.readVersioned(2021, 3)).isInstanceOf(UncheckedIOException.class);
+    }
+}
@@ -0,0 +1,103 @@
+package de.trundicho.timeclockstamper.core;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.trundicho.timeclockstamper.core.adapters.persistence.JdbcPersistence;
+import de.trundicho.timeclockstamper.core.adapters.persistence.TenantJdbcPersistenceFactory;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.domain.model.VersionedClockTimes;
+import de.trundicho.timeclockstamper.core.service.ClockTimePersistencePort;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JdbcPersistenceTest {
+
+    private static final String TIME_ZONE = "Europe/Berlin";
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void whenStampsAreWrittenAndAppended_thenMonthDayAndRangeReadsFindThem() {
+        JdbcPersistence persistence = new JdbcPersistence(dataSource(), "alice", TIME_ZONE);
+        ClockTime januaryIn = clockTime(2021, 1, 4, 9, 0);
+        ClockTime januaryOut = clockTime(2021, 1, 4, 17, 0);
+        ClockTime februaryIn = clockTime(2021, 2, 1, 8, 0);
+        persistence.write(List.of(januaryOut, januaryIn, februaryIn), 2021, 1);
+        persistence.append(februaryIn, List.of(februaryIn), 2021, 2);
+        ClockTime pause = clockTime(2021, 1, 5, 12, 0).setPause(30);
+        persistence.append(pause, List.of(), 2021, 1);
+
+        assertThat(persistence.read(2021, 1)).containsExactly(januaryIn, januaryOut, pause);
+        assertThat(persistence.readDay(LocalDate.of(2021, 1, 4))).containsExactly(januaryIn, januaryOut);
+        assertThat(persistence.readRange(YearMonth.of(2020, 12), YearMonth.of(2021, 2))).containsExactly(januaryIn, januaryOut,
+                pause, februaryIn);
+        assertThat(new JdbcPersistence(dataSource(), "bob", TIME_ZONE).read(2021, 1)).isEmpty();
+    }
+
+    @Test
+    void whenVersionIsStale_thenConditionalWriteFailsAndVersionsSurviveRestart() {
+        JdbcPersistence persistence = new JdbcPersistence(dataSource(), "alice", TIME_ZONE);
+        ClockTime clockTime = clockTime(2021, 3, 1, 9, 0);
+
+        assertThat(persistence.compareAndWrite(List.of(clockTime), 2021, 3, 0)).isEqualTo(1);
+        assertThat(persistence.compareAndWrite(List.of(), 2021, 3, 0)).isEqualTo(ClockTimePersistencePort.CONFLICT);
+        assertThat(persistence.compareAndAppend(clockTime(2021, 3, 1, 17, 0), List.of(), 2021, 3, 0)).isEqualTo(2);
+
+        VersionedClockTimes restarted = new JdbcPersistence(dataSource(), "alice", TIME_ZONE).readVersioned(2021, 3);
+        assertThat(restarted.getVersion()).isEqualTo(2);
+        assertThat(restarted.getClockTimes()).hasSize(2);
+        assertThat(persistence.compareAndWrite(List.of(clockTime), 2021, 3, 2)).isEqualTo(3);
+        assertThat(persistence.read(2021, 3)).containsExactly(clockTime);
+    }
+
+    @Test
+    void whenDatabaseFails_thenWritesAndVersionsThrowInsteadOfReportingConflicts() throws SQLException {
+        DataSource dataSource = dataSource();
+        JdbcPersistence persistence = new JdbcPersistence(dataSource, "alice", TIME_ZONE);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE clock_time_month");
+            statement.execute("DROP TABLE clock_time");
+        }
+
+        assertThatThrownBy(() -> persistence.compareAndWrite(List.of(), 2021, 3, 0)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> persistence.version(2021, 3)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> persistence.readVersioned(2021, 3)).isInstanceOf(IllegalStateException.class);
+        assertThat(persistence.read(2021, 3)).isEmpty();
+    }
+
+    @Test
+    void whenTenantFactoryIsCreated_thenItCreatesTheTablesAndAdaptersRunNoDdl() {
+        DataSource dataSource = JdbcPersistence.h2DataSource("jdbc:h2:" + folder.resolve("tenants"));
+        JdbcPersistence withoutTables = new JdbcPersistence(dataSource, "alice", TIME_ZONE);
+        assertThatThrownBy(() -> withoutTables.version(2021, 3)).isInstanceOf(IllegalStateException.class);
+
+        ClockTimePersistencePort alice = new TenantJdbcPersistenceFactory(dataSource, TIME_ZONE).create("alice");
+
+        assertThat(alice.compareAndWrite(List.of(clockTime(2021, 3, 1, 9, 0)), 2021, 3, 0)).isEqualTo(1);
+        assertThat(withoutTables.version(2021, 3)).isEqualTo(1);
+    }
+
+    private DataSource dataSource() {
+        DataSource dataSource = JdbcPersistence.h2DataSource("jdbc:h2:" + folder.resolve("clockTimes"));
+        JdbcPersistence.createSchema(dataSource);
+        return dataSource;
+    }
+
+    private static ClockTime clockTime(int year, int month, int day, int hour, int minute) {
+        return new ClockTime().setDate(LocalDateTime.of(year, month, day, hour, minute));
+    }
+}
@@ -0,0 +1,102 @@
+package de.trundicho.timeclockstamper.core;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.trundicho.timeclockstamper.core.adapters.persistence.FilePersistence;
+import de.trundicho.timeclockstamper.core.adapters.persistence.JournalPersistence;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.service.ClockTimePersistencePort;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JournalPersistenceTest {
+
+    private static final String TIME_ZONE = "Europe/Berlin";
+
+    @TempDir
+    Path folder;
+    private FilePersistence snapshot;
+
+    @BeforeEach
+    void setup() {
+        snapshot = new FilePersistence(folder + "/", "clockTime-list.json", TIME_ZONE);
+    }
+
+    @Test
+    void whenStampIsAppended_thenOnlyJournalIsWritten() {
+        JournalPersistence journalPersistence = new JournalPersistence(snapshot, folder + "/", "journal.ndjson", TIME_ZONE, 3);
+        List<ClockTime> month = new ArrayList<>();
+        append(journalPersistence, month, 9);
+        append(journalPersistence, month, 12);
+
+        assertThat(snapshot.read(2021, 1)).isEmpty();
+        assertThat(Files.exists(folder.resolve("2021-01-journal.ndjson"))).isTrue();
+        assertThat(journalPersistence.read(2021, 1)).containsExactlyElementsOf(month);
+
+        append(journalPersistence, month, 13);
+        assertThat(snapshot.read(2021, 1)).containsExactlyElementsOf(month);
+        assertThat(Files.exists(folder.resolve("2021-01-journal.ndjson"))).isFalse();
+    }
+
+    @Test
+    void whenRestarted_thenJournalIsReplayedOnce() {
+        JournalPersistence journalPersistence = new JournalPersistence(snapshot, folder + "/", "journal.ndjson", TIME_ZONE, 10);
+        List<ClockTime> month = new ArrayList<>();
+        append(journalPersistence, month, 9);
+        append(journalPersistence, month, 17);
+
+        new JournalPersistence(snapshot, folder + "/", "journal.ndjson", TIME_ZONE, 10);
+        JournalPersistence restarted = new JournalPersistence(snapshot, folder + "/", "journal.ndjson", TIME_ZONE, 10);
+
+        assertThat(snapshot.read(2021, 1)).containsExactlyElementsOf(month);
+        assertThat(restarted.read(2021, 1)).containsExactlyElementsOf(month);
+    }
+
+    @Test
+    void whenSnapshotCanNotBeRead_thenJournalIsKept() throws IOException {
+        JournalPersistence journalPersistence = new JournalPersistence(snapshot, folder + "/", "journal.ndjson", TIME_ZONE, 10);
+        List<ClockTime> month = new ArrayList<>();
+        append(journalPersistence, month, 9);
+        append(journalPersistence, month, 17);
+        Path snapshotFile = folder.resolve("2021-01-clockTime-list.json");
+        Files.writeString(snapshotFile, "not json");
+
+        new JournalPersistence(snapshot, folder + "/", "journal.ndjson", TIME_ZONE, 10);
+        assertThat(Files.exists(folder.resolve("2021-01-journal.ndjson"))).isTrue();
+
+        Files.delete(snapshotFile);
+        JournalPersistence restarted = new JournalPersistence(snapshot, folder + "/", "journal.ndjson", TIME_ZONE, 10);
+        assertThat(restarted.read(2021, 1)).containsExactlyElementsOf(month);
+        assertThat(snapshot.read(2021, 1)).containsExactlyElementsOf(month);
+    }
+
+    @Test
+    void whenVersionIsStale_thenConditionalAppendConflicts() {
+        JournalPersistence journalPersistence = new JournalPersistence(snapshot, folder + "/", "journal.ndjson", TIME_ZONE, 10);
+        long stale = journalPersistence.version(2021, 1);
+        List<ClockTime> month = new ArrayList<>();
+        append(journalPersistence, month, 9);
+        ClockTime late = new ClockTime().setDate(LocalDateTime.of(2021, 1, 4, 17, 0));
+
+        assertThat(journalPersistence.compareAndAppend(late, List.of(), 2021, 1, stale)).isEqualTo(
+                ClockTimePersistencePort.CONFLICT);
+        long version = journalPersistence.version(2021, 1);
+        assertThat(journalPersistence.compareAndAppend(late, List.of(), 2021, 1, version)).isGreaterThan(version);
+        assertThat(journalPersistence.read(2021, 1)).containsExactly(month.get(0), late);
+    }
+
+    private void append(JournalPersistence journalPersistence, List<ClockTime> month, int hour) {
+        ClockTime clockTime = new ClockTime().setDate(LocalDateTime.of(2021, 1, 4, hour, 0));
+        month.add(clockTime);
+        journalPersistence.append(clockTime, new ArrayList<>(month), 2021, 1);
+    }
+}
@@ -0,0 +1,83 @@
+package de.trundicho.timeclockstamper.core;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.trundicho.timeclockstamper.core.adapters.api.MetricsSnapshotDto;
+import de.trundicho.timeclockstamper.core.adapters.api.TimeClockStamperApiImpl;
+import de.trundicho.timeclockstamper.core.adapters.persistence.CachingPersistence;
+import de.trundicho.timeclockstamper.core.adapters.persistence.FilePersistence;
+import de.trundicho.timeclockstamper.core.adapters.persistence.InstrumentedPersistence;
+import de.trundicho.timeclockstamper.core.adapters.persistence.JsonClockTimeCodec;
+import de.trundicho.timeclockstamper.core.domain.model.MetricsSnapshot;
+import de.trundicho.timeclockstamper.core.domain.model.TimerSnapshot;
+import de.trundicho.timeclockstamper.core.service.InMemoryMetrics;
+import de.trundicho.timeclockstamper.core.service.Metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MetricsTest {
+
+    private static final String TIME_ZONE = "Europe/Berlin";
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void whenRecordingLatencies_thenPercentilesAreWithinBucketPrecision() {
+        Metrics metrics = new InMemoryMetrics();
+        Metrics.Timer timer = metrics.timer("op");
+        for (long nanos = 1; nanos <= 1000; nanos++) {
+            timer.record(nanos * 1000);
+        }
+
+        TimerSnapshot snapshot = metrics.snapshot().getTimers().get("op");
+
+        assertThat(snapshot.getCount()).isEqualTo(1000);
+        assertThat(snapshot.getMaxNanos()).isEqualTo(1_000_000);
+        assertThat(snapshot.getTotalNanos()).isEqualTo(500_500_000L);
+        assertThat(snapshot.getP50Nanos()).isBetween(500_000L, 625_000L);
+        assertThat(snapshot.getP99Nanos()).isBetween(990_000L, 1_000_000L);
+        assertThat(snapshot.getP999Nanos()).isEqualTo(1_000_000);
+    }
+
+    @Test
+    void whenStampingThroughInstrumentedStack_thenSnapshotShowsServicePersistenceFileAndCacheActivity() {
+        Metrics metrics = new InMemoryMetrics();
+        FilePersistence filePersistence = new FilePersistence(folder.toString() + "/", "clockTime-list.json", TIME_ZONE,
+                new JsonClockTimeCodec(), metrics);
+        InstrumentedPersistence persistence = new InstrumentedPersistence(
+                new CachingPersistence(filePersistence, TIME_ZONE, 24, 100_000, metrics), metrics);
+        TimeClockStamperApiImpl api = new TimeClockStamperApiImpl(TIME_ZONE, persistence, 480, metrics);
+
+        api.stampInOrOut();
+        api.stampInOrOut();
+        api.getTimeClockResponse();
+        MetricsSnapshotDto snapshot = api.getMetricsSnapshot();
+
+        assertThat(snapshot.getTimers().get("service.stampInOrOut").getCount()).isEqualTo(2);
+        assertThat(snapshot.getTimers().get("service.getTimeClockResponse").getCount()).isEqualTo(1);
+        assertThat(snapshot.getTimers().get("persistence.compareAndAppend").getCount()).isEqualTo(2);
+        assertThat(snapshot.getCounters()).containsEntry("service.stamps", 2L)
+                                          .containsEntry("cache.misses", 1L)
+                                          .containsEntry("cache.hits", 2L)
+                                          .containsEntry("persistence.clockTimes.written", 2L);
+        assertThat(snapshot.getCounters().get("file.bytes.written")).isPositive();
+    }
+
+    @Test
+    void whenMonthFileIsCorrupt_thenReadErrorIsCounted() throws IOException {
+        Metrics metrics = new InMemoryMetrics();
+        FilePersistence filePersistence = new FilePersistence(folder.toString() + "/", "clockTime-list.json", TIME_ZONE,
+                new JsonClockTimeCodec(), metrics);
+        Files.writeString(folder.resolve("2021-03-clockTime-list.json"), "not json");
+
+        assertThat(filePersistence.read(2021, 3)).isEmpty();
+        MetricsSnapshot snapshot = metrics.snapshot();
+        assertThat(snapshot.getCounters()).containsEntry("file.read.errors", 1L).containsEntry("file.bytes.read", 8L);
+    }
+}
@@ -0,0 +1,97 @@
+package de.trundicho.timeclockstamper.core;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTimeColumns;
+import de.trundicho.timeclockstamper.core.domain.model.MonthStamps;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MonthStampsTest {
+
+    @Test
+    void whenViewingColumns_thenClockTimesAreRestoredExactlyInListOrder() {
+        List<ClockTime> clockTimes = List.of(new ClockTime().setDate(LocalDateTime.of(2022, 3, 31, 17, 5, 42, 123_456_000)),
+                new ClockTime().setDate(LocalDateTime.of(2022, 3, 1, 8, 0)), new ClockTime().setDate(LocalDateTime.of(2022, 3, 31, 9, 0)),
+                new ClockTime().setDate(LocalDateTime.of(2022, 3, 31, 12, 0)).setPause(0),
+                new ClockTime().setDate(LocalDateTime.of(2022, 4, 1, 8, 0)).setPause(-5));
+
+        MonthStamps stamps = MonthStamps.of(clockTimes, 2022, 3);
+
+        assertThat(stamps).isEqualTo(clockTimes);
+        assertThat(stamps.hashCode()).isEqualTo(clockTimes.hashCode());
+        assertThat(stamps.get(1)).isEqualTo(clockTimes.get(1)).isNotSameAs(clockTimes.get(1));
+        assertThat(stamps.countAtDay(31)).isEqualTo(3);
+        assertThat(stamps.indexAtDay(31, 0)).isEqualTo(2);
+        assertThat(stamps.indexAtDay(31, 2)).isEqualTo(0);
+        assertThat(stamps.countAtDay(1)).isEqualTo(1);
+        assertThat(stamps.hasPause(3)).isTrue();
+        assertThat(stamps.minuteOfDay(0)).isEqualTo(17 * 60 + 5);
+        assertThat(stamps.isSortedMonth()).isFalse();
+        assertThat(MonthStamps.of(stamps, 2022, 3)).isSameAs(stamps);
+        ClockTime appended = new ClockTime().setDate(LocalDateTime.of(2022, 3, 2, 8, 0));
+        assertThat(stamps.with(appended).countAtDay(2)).isEqualTo(1);
+        assertThat(stamps.with(appended).get(5)).isEqualTo(appended);
+        stamps.get(3).setPause(30);
+        assertThat(stamps.pause(3)).isZero();
+        assertThat(stamps).hasSize(5);
+        assertThatThrownBy(() -> stamps.add(new ClockTime())).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void whenBuiltFromColumns_thenNoClockTimeIsReadAndElementsAreCreatedOnAccess() {
+        List<ClockTime> clockTimes = List.of(new ClockTime().setDate(LocalDateTime.of(2022, 3, 1, 8, 0)),
+                new ClockTime().setDate(LocalDateTime.of(2022, 3, 1, 12, 0)).setPause(30),
+                new ClockTime().setDate(LocalDateTime.of(2022, 3, 1, 17, 0, 1, 500)));
+
+        MonthStamps stamps = MonthStamps.of(new Columns(clockTimes), 2022, 3);
+
+        assertThat(stamps.countAtDay(1)).isEqualTo(3);
+        assertThat(stamps.pause(1)).isEqualTo(30);
+        assertThat(stamps.minuteOfDay(2)).isEqualTo(17 * 60);
+        assertThat(stamps).isEqualTo(clockTimes);
+        assertThat(stamps.get(0)).isNotSameAs(stamps.get(0));
+    }
+
+    private static class Columns extends AbstractList<ClockTime> implements ClockTimeColumns {
+
+        private final List<ClockTime> clockTimes;
+
+        private Columns(List<ClockTime> clockTimes) {
+            this.clockTimes = clockTimes;
+        }
+
+        @Override
+        public ClockTime get(int index) {
+            throw new UnsupportedOperationException("Columns only");
+        }
+
+        @Override
+        public int size() {
+            return clockTimes.size();
+        }
+
+        @Override
+        public long epochSecond(int index) {
+            return clockTimes.get(index).getDate().toEpochSecond(ZoneOffset.UTC);
+        }
+
+        @Override
+        public int nanos(int index) {
+            return clockTimes.get(index).getDate().getNano();
+        }
+
+        @Override
+        public int pause(int index) {
+            Integer pause = clockTimes.get(index).getPause();
+            return pause == null ? NO_PAUSE : pause;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package de.trundicho.timeclockstamper.core;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.trundicho.timeclockstamper.core.adapters.persistence.FilePersistence;
+import de.trundicho.timeclockstamper.core.adapters.persistence.TenantFilePersistenceFactory;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTimeData;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTimeEvent;
+import de.trundicho.timeclockstamper.core.service.ClockTimePersistencePortFactory;
+import de.trundicho.timeclockstamper.core.service.InMemoryMetrics;
+import de.trundicho.timeclockstamper.core.service.Metrics;
+import de.trundicho.timeclockstamper.core.service.MultiTenantTimeClockStamperService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MultiTenantTimeClockStamperServiceTest {
+
+    private static final String TIME_ZONE = "Europe/Berlin";
+    private static final Clock CLOCK = Clock.fixed(LocalDateTime.of(2021, 6, 3, 18, 0).atZone(ZoneId.of(TIME_ZONE)).toInstant(),
+            ZoneId.of(TIME_ZONE));
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void whenTenantsStamp_thenEveryTenantOnlySeesItsOwnMonth() {
+        InMemoryMetrics metrics = new InMemoryMetrics();
+        MultiTenantTimeClockStamperService service = service(tenantFiles(), 16, metrics);
+
+        service.stamp("alice", LocalTime.of(8, 0));
+        service.stamp("alice", LocalTime.of(16, 0));
+        service.stamp("bob", LocalTime.of(9, 0));
+
+        assertThat(service.getDay("alice", 2021, 6, 3).getClockTimes()).hasSize(2);
+        assertThat(service.getDay("bob", 2021, 6, 3).getClockTimes()).extracting(ClockTime::getDate)
+                                                                        .containsExactly(LocalDateTime.of(2021, 6, 3, 9, 0));
+        List<ClockTime> exported = new ArrayList<>();
+        service.exportClockTimes("alice", YearMonth.of(2021, 6), YearMonth.of(2021, 6), exported::add);
+        assertThat(exported).hasSize(2);
+        assertThat(Files.exists(folder.resolve("alice").resolve("2021-06-clockTime-list.json"))).isTrue();
+        assertThat(Files.exists(folder.resolve("bob").resolve("2021-06-clockTime-list.json"))).isTrue();
+        assertThat(service.getMetricsSnapshot().getCounters()).containsEntry("service.stamps", 3L);
+    }
+
+    @Test
+    void whenTenantIdIsNoPlainName_thenItIsRejectedBeforeTouchingStorage() throws Exception {
+        MultiTenantTimeClockStamperService service = service(tenantFiles(), 16, Metrics.noop());
+
+        for (String tenantId : new String[] { "../x", "a/b", "..", "", " ", null }) {
+            assertThatThrownBy(() -> service.stampInOrOut(tenantId)).isInstanceOf(IllegalArgumentException.class);
+        }
+        try (Stream<Path> files = Files.list(folder)) {
+            assertThat(files).isEmpty();
+        }
+        assertThat(Files.exists(folder.resolveSibling("x"))).isFalse();
+    }
+
+    @Test
+    void whenOneTenantIsBusy_thenItsNextCallWaitsWhileOtherTenantsProceed() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger writing = new AtomicInteger();
+        AtomicInteger maxWriting = new AtomicInteger();
+        ClockTimePersistencePortFactory tenantFiles = tenantFiles();
+        ClockTimePersistencePortFactory factory = tenantId -> !"slow".equals(tenantId) ? tenantFiles.create(tenantId)
+                : new FilePersistence(folder + "/", "slow-clockTime-list.json", TIME_ZONE) {
+
+                    @Override
+                    public long compareAndWrite(List<ClockTime> clockTimes, Integer year, Integer month, long expectedVersion) {
+                        maxWriting.accumulateAndGet(writing.incrementAndGet(), Math::max);
+                        entered.countDown();
+                        try {
+                            release.await();
+                            return super.compareAndWrite(clockTimes, year, month, expectedVersion);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new IllegalStateException(e);
+                        } finally {
+                            writing.decrementAndGet();
+                        }
+                    }
+                };
+        //"slow" and "fast" hash onto different lock stripes
+        MultiTenantTimeClockStamperService service = service(factory, 16, Metrics.noop());
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ClockTimeData> first = executor.submit(() -> service.stamp("slow", LocalTime.of(8, 0)));
+            assertThat(entered.await(10, TimeUnit.SECONDS)).isTrue();
+            Future<ClockTimeData> second = executor.submit(() -> service.stamp("slow", LocalTime.of(9, 0)));
+
+            assertThat(service.stamp("fast", LocalTime.of(8, 0)).getClockTimes()).hasSize(1);
+            Thread.sleep(200);
+            assertThat(second).isNotDone();
+
+            release.countDown();
+            first.get(10, TimeUnit.SECONDS);
+            second.get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+        assertThat(maxWriting).hasValue(1);
+        assertThat(service.getDay("slow", 2021, 6, 3).getClockTimes()).hasSize(2);
+    }
+
+    @Test
+    void whenMoreTenantsThanTheLimitAreUsed_thenSubscribedTenantsKeepTheirService() throws InterruptedException {
+        MultiTenantTimeClockStamperService service = service(tenantFiles(), 1, Metrics.noop());
+        BlockingQueue<ClockTimeEvent> events = new LinkedBlockingQueue<>();
+        service.subscribe("alice", events::add);
+
+        service.stamp("bob", LocalTime.of(8, 0));
+        service.stamp("carol", LocalTime.of(8, 0));
+        service.stamp("alice", LocalTime.of(8, 0));
+
+        ClockTimeEvent event = events.poll(5, TimeUnit.SECONDS);
+        assertThat(event).isNotNull();
+        assertThat(event.getDays()).containsExactly(3);
+    }
+
+    @Test
+    void whenATenantIsSlowToCreate_thenOtherTenantsAreServedMeanwhileAndFailedCreationsAreRetried() throws Exception {
+        CountDownLatch creating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger failures = new AtomicInteger(1);
+        ClockTimePersistencePortFactory files = tenantFiles();
+        ClockTimePersistencePortFactory factory = tenantId -> {
+            if (tenantId.equals("slow")) {
+                creating.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+            }
+            if (tenantId.equals("broken") && failures.getAndDecrement() > 0) {
+                throw new IllegalStateException("Shard unavailable");
+            }
+            return files.create(tenantId);
+        };
+        MultiTenantTimeClockStamperService service = service(factory, 16, Metrics.noop());
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ClockTimeData> slow = executor.submit(() -> service.stamp("slow", LocalTime.of(8, 0)));
+            assertThat(creating.await(10, TimeUnit.SECONDS)).isTrue();
+            Future<ClockTimeData> waiting = executor.submit(() -> service.stamp("slow", LocalTime.of(9, 0)));
+
+            assertThat(service.stamp("fast", LocalTime.of(8, 0)).getClockTimes()).hasSize(1);
+            assertThatThrownBy(() -> service.stamp("broken", LocalTime.of(8, 0))).hasMessage("Shard unavailable");
+            assertThat(service.stamp("broken", LocalTime.of(8, 0)).getClockTimes()).hasSize(1);
+            assertThat(slow).isNotDone();
+
+            release.countDown();
+            slow.get(10, TimeUnit.SECONDS);
+            waiting.get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+        assertThat(service.getDay("slow", 2021, 6, 3).getClockTimes()).hasSize(2);
+    }
+
+    private ClockTimePersistencePortFactory tenantFiles() {
+        return new TenantFilePersistenceFactory(folder.toString(), "clockTime-list.json", TIME_ZONE);
+    }
+
+    private static MultiTenantTimeClockStamperService service(ClockTimePersistencePortFactory factory, int maxTenants,
+            Metrics metrics) {
+        return new MultiTenantTimeClockStamperService(CLOCK, factory, 480, 1024, maxTenants, metrics);
+    }
+}
@@ -0,0 +1,73 @@
+package de.trundicho.timeclockstamper.core;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.trundicho.timeclockstamper.core.adapters.persistence.FilePersistence;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.domain.model.MonthOvertime;
+import de.trundicho.timeclockstamper.core.domain.model.OvertimeReport;
+import de.trundicho.timeclockstamper.core.service.TimeClockStamperService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OvertimeReportTest {
+
+    private static final String TIME_ZONE = "Europe/Berlin";
+
+    @TempDir
+    Path folder;
+    private TimeClockStamperService service;
+
+    @BeforeEach
+    void setup() {
+        FilePersistence filePersistence = new FilePersistence(folder.toString() + "/", "clockTime-list.json", TIME_ZONE);
+        for (YearMonth yearMonth = YearMonth.of(2020, 11); !yearMonth.isAfter(YearMonth.of(2021, 12));
+                yearMonth = yearMonth.plusMonths(1)) {
+            List<ClockTime> clockTimes = new ArrayList<>();
+            for (int day = 1; day <= yearMonth.getMonthValue(); day++) {
+                clockTimes.add(new ClockTime().setDate(yearMonth.atDay(day).atTime(8, 0)));
+                clockTimes.add(new ClockTime().setDate(yearMonth.atDay(day).atTime(16, day)));
+            }
+            filePersistence.write(clockTimes, yearMonth.getYear(), yearMonth.getMonthValue());
+        }
+        service = new TimeClockStamperService(TIME_ZONE, filePersistence);
+    }
+
+    @Test
+    void whenReportingRange_thenMonthsAreInOrderAndSumUp() {
+        OvertimeReport report = service.getOvertimeRange(YearMonth.of(2020, 11), YearMonth.of(2021, 2));
+
+        assertThat(report.getMonths().stream().map(MonthOvertime::getYearMonth).collect(Collectors.toList())).containsExactly(
+                YearMonth.of(2020, 11), YearMonth.of(2020, 12), YearMonth.of(2021, 1), YearMonth.of(2021, 2));
+        assertThat(report.getMonths().stream().map(MonthOvertime::getOvertime).collect(Collectors.toList())).containsExactly(
+                service.getOvertimeMonth(2020, 11), service.getOvertimeMonth(2020, 12), service.getOvertimeMonth(2021, 1),
+                service.getOvertimeMonth(2021, 2));
+        assertThat(report.getOvertimeMinutes()).isEqualTo(66 + 78 + 1 + 3);
+        assertThat(report.getOvertime()).isEqualTo("02h28m");
+    }
+
+    @Test
+    void whenReportingYear_thenAllTwelveMonthsAreIncluded() {
+        OvertimeReport report = service.getOvertimeYear(2021);
+
+        assertThat(report.getMonths()).hasSize(12);
+        assertThat(report.getOvertimeMinutes()).isEqualTo(report.getMonths().stream().mapToInt(MonthOvertime::getOvertimeMinutes).sum());
+        assertThat(report.getMonths().get(11).getOvertimeMinutes()).isEqualTo(78);
+    }
+
+    @Test
+    void whenRangeIsReversed_thenItIsRejected() {
+        assertThatThrownBy(() -> service.getOvertimeRange(YearMonth.of(2021, 2), YearMonth.of(2021, 1))).isInstanceOf(
+                IllegalArgumentException.class);
+    }
+}
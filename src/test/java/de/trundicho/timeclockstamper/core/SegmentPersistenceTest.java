@@ -0,0 +1,71 @@
+package de.trundicho.timeclockstamper.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.trundicho.timeclockstamper.core.adapters.persistence.SegmentPersistence;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.service.TimeClockStamperService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SegmentPersistenceTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void whenMonthIsWritten_thenMappedReadAndDayLookupReturnSortedStamps() {
+        SegmentPersistence segmentPersistence = new SegmentPersistence(folder + "/", "clockTime.segment", "Europe/Berlin");
+        ClockTime evening = new ClockTime().setDate(LocalDateTime.of(2021, 5, 3, 17, 15, 42, 1000));
+        ClockTime pause = new ClockTime().setDate(LocalDateTime.of(2021, 5, 3, 17, 15)).setPause(30);
+        ClockTime morning = new ClockTime().setDate(LocalDateTime.of(2021, 5, 3, 8, 0));
+        ClockTime nextDay = new ClockTime().setDate(LocalDateTime.of(2021, 5, 4, 0, 0));
+        ClockTime otherMonth = new ClockTime().setDate(LocalDateTime.of(2021, 6, 1, 8, 0));
+        segmentPersistence.write(List.of(nextDay, evening, otherMonth, pause, morning), 2021, 5);
+
+        assertThat(segmentPersistence.read(2021, 5)).containsExactly(morning, pause, evening, nextDay);
+        assertThat(segmentPersistence.readDay(2021, 5, 3)).containsExactly(morning, pause, evening);
+        assertThat(segmentPersistence.readDay(2021, 5, 5)).isEmpty();
+        assertThat(segmentPersistence.readDayVersioned(2021, 5, 3).getClockTimes()).containsExactly(morning, pause, evening);
+        assertThat(segmentPersistence.read(2021, 6)).isEmpty();
+
+        segmentPersistence.write(List.of(morning), 2021, 5);
+        assertThat(segmentPersistence.read(2021, 5)).containsExactly(morning);
+        assertThat(new SegmentPersistence(folder + "/", "clockTime.segment", "Europe/Berlin").read(2021, 5)).containsExactly(morning);
+    }
+
+    @Test
+    void whenSegmentHasAnotherFormatVersion_thenVersionedReadsFail() throws IOException {
+        SegmentPersistence segmentPersistence = new SegmentPersistence(folder + "/", "clockTime.segment", "Europe/Berlin");
+        segmentPersistence.write(List.of(new ClockTime().setDate(LocalDateTime.of(2021, 5, 3, 8, 0))), 2021, 5);
+        Path segment = folder.resolve("2021-05-clockTime.segment");
+        byte[] content = Files.readAllBytes(segment);
+        content[7] = 2;
+        Files.write(segment, content);
+
+        assertThatThrownBy(() -> segmentPersistence.readVersioned(2021, 5)).isInstanceOf(UncheckedIOException.class);
+        assertThatThrownBy(() -> segmentPersistence.readDayVersioned(2021, 5, 3)).isInstanceOf(UncheckedIOException.class);
+        assertThat(segmentPersistence.read(2021, 5)).isEmpty();
+    }
+
+    @Test
+    void whenOvertimeIsComputedFromSegment_thenItMatchesTheStamps() {
+        SegmentPersistence segmentPersistence = new SegmentPersistence(folder + "/", "clockTime.segment", "Europe/Berlin");
+        segmentPersistence.write(List.of(new ClockTime().setDate(LocalDateTime.of(2021, 5, 3, 8, 0)),
+                new ClockTime().setDate(LocalDateTime.of(2021, 5, 3, 12, 0)).setPause(30),
+                new ClockTime().setDate(LocalDateTime.of(2021, 5, 3, 17, 0))), 2021, 5);
+
+        TimeClockStamperService service = new TimeClockStamperService("Europe/Berlin", segmentPersistence);
+
+        assertThat(service.getOvertimeMonth(2021, 5)).isEqualTo("00h30m");
+    }
+}
@@ -0,0 +1,71 @@
+package de.trundicho.timeclockstamper.core;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.trundicho.timeclockstamper.core.adapters.api.ClockTimeBatchDataDto;
+import de.trundicho.timeclockstamper.core.adapters.api.ClockTimeDataDto;
+import de.trundicho.timeclockstamper.core.adapters.api.ClockTimeDto;
+import de.trundicho.timeclockstamper.core.adapters.api.MonthOvertimeDto;
+import de.trundicho.timeclockstamper.core.adapters.api.TimeClockStamperApiImpl;
+import de.trundicho.timeclockstamper.core.adapters.persistence.FilePersistence;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SetDaysTest {
+
+    private static final String TIME_ZONE = "Europe/Berlin";
+
+    @TempDir
+    Path folder;
+    private final Map<YearMonth, Integer> writesPerMonth = new HashMap<>();
+
+    @Test
+    void whenSettingAWeek_thenEachMonthIsWrittenOnceAndResultMatchesSingleDays() {
+        Map<LocalDate, List<ClockTimeDto>> week = new LinkedHashMap<>();
+        for (LocalDate date = LocalDate.of(2022, 2, 4); !date.isBefore(LocalDate.of(2022, 1, 29)); date = date.minusDays(1)) {
+            week.put(date, List.of(new ClockTimeDto().setDate(date.atTime(8, 0)),
+                    new ClockTimeDto().setDate(date.atTime(16, date.getDayOfMonth() % 10))));
+        }
+        TimeClockStamperApiImpl batchApi = new TimeClockStamperApiImpl(TIME_ZONE, countingPersistence("batch-"));
+        TimeClockStamperApiImpl singleApi = new TimeClockStamperApiImpl(TIME_ZONE,
+                new FilePersistence(folder.toString() + "/single-", "clockTime-list.json", TIME_ZONE));
+
+        ClockTimeBatchDataDto result = batchApi.setDays(week);
+
+        assertThat(writesPerMonth).containsOnly(Map.entry(YearMonth.of(2022, 1), 1), Map.entry(YearMonth.of(2022, 2), 1));
+        List<ClockTimeDataDto> singleDays = new ArrayList<>();
+        for (LocalDate date = LocalDate.of(2022, 1, 29); !date.isAfter(LocalDate.of(2022, 2, 4)); date = date.plusDays(1)) {
+            singleDays.add(singleApi.setDay(new ClockTimeDataDto().setClockTimes(week.get(date)), date.getYear(),
+                    date.getMonthValue(), date.getDayOfMonth()));
+        }
+        assertThat(result.getDays()).hasSize(7);
+        assertThat(result.getDays().stream().map(ClockTimeDataDto::getClockTimes).collect(Collectors.toList())).isEqualTo(
+                singleDays.stream().map(ClockTimeDataDto::getClockTimes).collect(Collectors.toList()));
+        assertThat(result.getMonths().stream().map(MonthOvertimeDto::getOvertime).collect(Collectors.toList())).containsExactly(
+                singleApi.getOvertimeMonth(2022, 1), singleApi.getOvertimeMonth(2022, 2));
+        assertThat(result.getMonths().get(0).getOvertimeMinutes()).isEqualTo(9 + 0 + 1);
+    }
+
+    private FilePersistence countingPersistence(String prefix) {
+        return new FilePersistence(folder.toString() + "/" + prefix, "clockTime-list.json", TIME_ZONE) {
+
+            @Override
+            public long compareAndWrite(List<ClockTime> clockTimes, Integer year, Integer month, long expectedVersion) {
+                writesPerMonth.merge(YearMonth.of(year, month), 1, Integer::sum);
+                return super.compareAndWrite(clockTimes, year, month, expectedVersion);
+            }
+        };
+    }
+}
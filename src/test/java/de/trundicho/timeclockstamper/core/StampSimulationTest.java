@@ -0,0 +1,62 @@
+package de.trundicho.timeclockstamper.core;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.trundicho.timeclockstamper.core.adapters.persistence.FilePersistence;
+import de.trundicho.timeclockstamper.core.adapters.persistence.JsonClockTimeCodec;
+import de.trundicho.timeclockstamper.core.app.SimulatedMonth;
+import de.trundicho.timeclockstamper.core.app.SimulationReport;
+import de.trundicho.timeclockstamper.core.app.StampSimulation;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.service.Metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StampSimulationTest {
+
+    private static final String TIME_ZONE = "Europe/Berlin";
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void whenSimulatingMonths_thenEveryWorkingDayIsStampedOnVirtualTime() {
+        SimulationReport report = simulation(folder.resolve("run1")).run(LocalDate.of(2022, 1, 1), LocalDate.of(2022, 3, 31));
+
+        assertThat(report.getUsers()).isEqualTo(3);
+        assertThat(report.getStamps()).isGreaterThan(3 * 60 * 2);
+        assertThat(report.getMonths()).extracting(SimulatedMonth::getYearMonth)
+                                      .containsExactly(YearMonth.of(2022, 1), YearMonth.of(2022, 2), YearMonth.of(2022, 3));
+        assertThat(report.getMonths()).allSatisfy(month -> assertThat(month.getOperations()).isPositive());
+
+        List<ClockTime> january = persistence(folder.resolve("run1"), "user-0").read(2022, 1);
+        Map<LocalDate, Long> clockTimesWithoutPauseByDay = january.stream()
+                                                                  .filter(c -> c.getPause() == null)
+                                                                  .collect(Collectors.groupingBy(c -> c.getDate().toLocalDate(),
+                                                                          Collectors.counting()));
+        assertThat(clockTimesWithoutPauseByDay).hasSizeGreaterThan(15);
+        assertThat(clockTimesWithoutPauseByDay.values()).allSatisfy(count -> assertThat(count % 2).isZero());
+
+        SimulationReport again = simulation(folder.resolve("run2")).run(LocalDate.of(2022, 1, 1), LocalDate.of(2022, 3, 31));
+        assertThat(again.getStamps()).isEqualTo(report.getStamps());
+        assertThat(again.getCorrections()).isEqualTo(report.getCorrections());
+    }
+
+    private static StampSimulation simulation(Path runFolder) {
+        runFolder.toFile().mkdirs();
+        return new StampSimulation((userId, clock) -> new FilePersistence(runFolder + "/", userId + "-clockTime-list.json", clock,
+                new JsonClockTimeCodec(), Metrics.noop()), TIME_ZONE, 3, 2, 42);
+    }
+
+    private static FilePersistence persistence(Path runFolder, String userId) {
+        return new FilePersistence(runFolder + "/", userId + "-clockTime-list.json", TIME_ZONE);
+    }
+}
@@ -0,0 +1,101 @@
+package de.trundicho.timeclockstamper.core;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.trundicho.timeclockstamper.core.adapters.persistence.FileMonthAggregatePersistence;
+import de.trundicho.timeclockstamper.core.adapters.persistence.FilePersistence;
+import de.trundicho.timeclockstamper.core.adapters.persistence.FileStampStatePersistence;
+import de.trundicho.timeclockstamper.core.domain.model.ClockStatus;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTimeData;
+import de.trundicho.timeclockstamper.core.domain.model.ClockType;
+import de.trundicho.timeclockstamper.core.service.InMemoryMetrics;
+import de.trundicho.timeclockstamper.core.service.TimeClockStamperService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StampStateIndexTest {
+
+    private static final String TIME_ZONE = "Europe/Berlin";
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void whenPollingStatus_thenOwnWritesUpdateTheRecordWithoutReadingTheMonth() {
+        InMemoryMetrics metrics = new InMemoryMetrics();
+        TimeClockStamperService service = service(metrics);
+        LocalDateTime today = LocalDateTime.now(ZoneId.of(TIME_ZONE));
+        service.setToday(new ClockTimeData().setClockTimes(List.of(clockTime(today, 0, 0), clockTime(today, 0, 10),
+                clockTime(today, 0, 10).setPause(3))));
+
+        ClockStatus clockedOut = service.getClockStatus();
+        service.getClockStatus();
+        assertThat(clockedOut.getCurrentState()).isEqualTo(ClockType.CLOCK_OUT);
+        assertThat(clockedOut.getOpenSince()).isNull();
+        assertThat(clockedOut.getWorkedMinutesToday()).isEqualTo(7);
+        assertThat(clockedOut.getHoursWorkedToday()).isEqualTo(service.getTimeClockResponse().getHoursWorkedToday());
+        assertThat(rebuilds(metrics)).isZero();
+
+        service.stamp(LocalTime.of(0, 20));
+        ClockStatus clockedIn = service.getClockStatus();
+        assertThat(clockedIn.getCurrentState()).isEqualTo(ClockType.CLOCK_IN);
+        assertThat(clockedIn.getOpenSince()).isEqualTo(clockTime(today, 0, 20).getDate());
+        assertThat(rebuilds(metrics)).isZero();
+    }
+
+    @Test
+    void whenRecordIsFromAnEarlierRunAndMonthIsUnchanged_thenItIsTrusted() {
+        LocalDateTime today = LocalDateTime.now(ZoneId.of(TIME_ZONE));
+        service(new InMemoryMetrics()).setToday(new ClockTimeData().setClockTimes(List.of(clockTime(today, 0, 0))));
+        assertThat(Files.exists(folder.resolve("clockTime-state.json"))).isTrue();
+
+        InMemoryMetrics metrics = new InMemoryMetrics();
+        assertThat(service(metrics).getClockStatus().getCurrentState()).isEqualTo(ClockType.CLOCK_IN);
+        assertThat(rebuilds(metrics)).isZero();
+    }
+
+    @Test
+    void whenRecordIsMissingCorruptOrStale_thenItIsRebuiltFromTheMonth() throws Exception {
+        LocalDateTime today = LocalDateTime.now(ZoneId.of(TIME_ZONE));
+        service(new InMemoryMetrics()).setToday(new ClockTimeData().setClockTimes(List.of(clockTime(today, 0, 0))));
+        Files.delete(folder.resolve("clockTime-state.json"));
+
+        InMemoryMetrics metrics = new InMemoryMetrics();
+        assertThat(service(metrics).getClockStatus().getCurrentState()).isEqualTo(ClockType.CLOCK_IN);
+        assertThat(Files.exists(folder.resolve("clockTime-state.json"))).isTrue();
+
+        FilePersistence filePersistence = new FilePersistence(folder + "/", "clockTime-list.json", TIME_ZONE);
+        filePersistence.write(List.of(clockTime(today, 0, 0), clockTime(today, 0, 5)), today.getYear(), today.getMonthValue());
+        assertThat(service(metrics).getClockStatus().getCurrentState()).isEqualTo(ClockType.CLOCK_OUT);
+
+        Files.writeString(folder.resolve("clockTime-state.json"), "{broken");
+        assertThat(service(metrics).getClockStatus().getWorkedMinutesToday()).isEqualTo(5);
+        assertThat(rebuilds(metrics)).isEqualTo(3);
+    }
+
+    private TimeClockStamperService service(InMemoryMetrics metrics) {
+        return TimeClockStamperService.builder(new FilePersistence(folder + "/", "clockTime-list.json", TIME_ZONE))
+                                      .timeZone(TIME_ZONE)
+                                      .monthAggregatePersistence(new FileMonthAggregatePersistence(folder + "/", "clockTime-aggregate.json"))
+                                      .stampStatePersistence(new FileStampStatePersistence(folder + "/", "clockTime-state.json"))
+                                      .metrics(metrics)
+                                      .build();
+    }
+
+    private static long rebuilds(InMemoryMetrics metrics) {
+        return metrics.snapshot().getCounters().get("service.state.rebuilds");
+    }
+
+    private static ClockTime clockTime(LocalDateTime day, int hour, int minute) {
+        return new ClockTime().setDate(day.toLocalDate().atTime(hour, minute));
+    }
+}
@@ -2,19 +2,30 @@ package de.trundicho.timeclockstamper.core;
 
 import java.io.File;
 import java.io.IOException;
+import java.time.Clock;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import de.trundicho.timeclockstamper.core.adapters.api.ClockTimeDataDto;
 import de.trundicho.timeclockstamper.core.adapters.api.ClockTimeDto;
+import de.trundicho.timeclockstamper.core.adapters.api.ClockTimeFieldDto;
 import de.trundicho.timeclockstamper.core.adapters.api.ClockTypeDto;
 import de.trundicho.timeclockstamper.core.adapters.api.TimeClockStamperApiImpl;
 import de.trundicho.timeclockstamper.core.adapters.persistence.FilePersistence;
+import de.trundicho.timeclockstamper.core.adapters.persistence.InstrumentedPersistence;
+import de.trundicho.timeclockstamper.core.adapters.persistence.JsonClockTimeCodec;
 import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.domain.model.TimerSnapshot;
+import de.trundicho.timeclockstamper.core.service.InMemoryMetrics;
+import de.trundicho.timeclockstamper.core.service.Metrics;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.json.JsonMapper;
@@ -46,6 +57,60 @@ class TimeClockStamperServiceTest {
         assertThat(timeClockStamperService.stampInOrOut().getCurrentState()).isEqualTo(ClockTypeDto.CLOCK_IN);
     }
 
+    @Test
+    void whenAskingForSelectedFields_thenOnlyTheseAreComputed() throws IOException {
+        LocalDateTime now = LocalDateTime.of(2021, 6, 3, 10, 0);
+        Clock clock = Clock.fixed(now.atZone(ZoneId.of(PropertiesUtil.getString("time.zone"))).toInstant(),
+                ZoneId.of(PropertiesUtil.getString("time.zone")));
+        TimeClockStamperApiImpl timeClockStamperService = new TimeClockStamperApiImpl(clock, new FilePersistence(
+                PropertiesUtil.getString("persistence.folder"), persistenceFile, clock, new JsonClockTimeCodec(), Metrics.noop()), 480,
+                Metrics.noop());
+        objectMapper.writeValue(new File(createFileName(now)), List.of(createClockTime(now, 0, 0).setPause(15),
+                createClockTime(now, 0, 1)));
+
+        ClockTimeDataDto state = timeClockStamperService.getTimeClockResponse(EnumSet.of(ClockTimeFieldDto.CURRENT_STATE));
+        assertThat(state.getCurrentState()).isEqualTo(ClockTypeDto.CLOCK_IN);
+        assertThat(state.getHoursWorkedToday()).isNull();
+        assertThat(state.getOvertimeMonth()).isNull();
+        assertThat(state.getClockTimes()).isNull();
+
+        ClockTimeDataDto stamps = timeClockStamperService.getTimeClockResponse(
+                EnumSet.of(ClockTimeFieldDto.CLOCK_TIMES, ClockTimeFieldDto.OVERTIME_MONTH));
+        ClockTimeDataDto full = timeClockStamperService.getTimeClockResponse();
+        assertThat(stamps.getCurrentState()).isNull();
+        assertThat(stamps.getClockTimes()).isEqualTo(full.getClockTimes()).hasSize(2);
+        assertThat(stamps.getOvertimeMonth()).isEqualTo(full.getOvertimeMonth());
+        assertThat(full.getCurrentState()).isEqualTo(ClockTypeDto.CLOCK_IN);
+    }
+
+    @Test
+    void whenVersionIsUnchanged_thenConditionalReadsSkipTheMonth() {
+        InMemoryMetrics metrics = new InMemoryMetrics();
+        TimeClockStamperApiImpl api = new TimeClockStamperApiImpl(PropertiesUtil.getString("time.zone"), new InstrumentedPersistence(
+                new FilePersistence(PropertiesUtil.getString("persistence.folder"), persistenceFile, PropertiesUtil.getString("time.zone")),
+                metrics), 480, metrics);
+        ClockTimeDataDto day = api.getDay(2022, 1, 5);
+        assertThat(day.getVersion()).isNotNull();
+        long reads = monthReads(metrics);
+        assertThat(api.getDayIfModified(day.getVersion(), 2022, 1, 5)).isEmpty();
+        assertThat(monthReads(metrics)).isEqualTo(reads);
+
+        api.setDay(new ClockTimeDataDto().setClockTimes(List.of(createClockTimeDto(specificDay, 9, 0))), 2022, 1, 5);
+        Optional<ClockTimeDataDto> modified = api.getDayIfModified(day.getVersion(), 2022, 1, 5);
+        assertThat(modified).isPresent();
+        assertThat(modified.get().getClockTimes()).hasSize(1);
+        assertThat(api.getDayIfModified(modified.get().getVersion(), 2022, 1, 5)).isEmpty();
+        assertThat(api.getDayIfModified(null, 2022, 1, 5)).isPresent();
+        TimeClockStamperApiImpl restarted = new TimeClockStamperApiImpl(PropertiesUtil.getString("time.zone"), new FilePersistence(
+                PropertiesUtil.getString("persistence.folder"), persistenceFile, PropertiesUtil.getString("time.zone")));
+        assertThat(restarted.getDayIfModified(modified.get().getVersion(), 2022, 1, 5)).isEmpty();
+
+        ClockTimeDataDto current = api.getTimeClockResponse();
+        assertThat(api.getTimeClockResponseIfModified(current.getVersion())).isEmpty();
+        api.stampInOrOut();
+        assertThat(api.getTimeClockResponseIfModified(current.getVersion())).isPresent();
+    }
+
     @Test
     void whenPauseExists_thenItIsSubstracted() throws IOException {
         LocalDateTime now = LocalDateTime.now();
@@ -98,6 +163,11 @@ class TimeClockStamperServiceTest {
         assertThat(updated.getHoursWorkedToday()).isEqualTo("08h30m. Left: -00h30m");
     }
 
+    private static long monthReads(InMemoryMetrics metrics) {
+        Map<String, TimerSnapshot> timers = metrics.snapshot().getTimers();
+        return timers.get("persistence.read").getCount() + timers.get("persistence.readVersioned").getCount();
+    }
+
     private ClockTime createClockTime(LocalDateTime now, int hour, int minute) {
         return new ClockTime().setDate(LocalDateTime.of(now.getYear(), now.getMonth(), now.getDayOfMonth(), hour, minute));
     }
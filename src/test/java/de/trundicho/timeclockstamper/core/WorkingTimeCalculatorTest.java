@@ -0,0 +1,169 @@
+package de.trundicho.timeclockstamper.core;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.domain.model.ClockType;
+import de.trundicho.timeclockstamper.core.domain.model.MonthStamps;
+import de.trundicho.timeclockstamper.core.service.WorkingTimeCalculator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkingTimeCalculatorTest {
+
+    private static final int HOURS_TO_WORK_PER_DAY_IN_MINUTES = 480;
+
+    private final WorkingTimeCalculator workingTimeCalculator = new WorkingTimeCalculator(HOURS_TO_WORK_PER_DAY_IN_MINUTES);
+
+    @Test
+    void whenComputingRandomMonths_thenResultsMatchPerDayFiltering() {
+        Random random = new Random(4711);
+        for (int run = 0; run < 2000; run++) {
+            YearMonth yearMonth = YearMonth.of(2019 + random.nextInt(4), 1 + random.nextInt(12));
+            List<ClockTime> clockTimes = randomMonth(random, yearMonth);
+            LocalDateTime now = yearMonth.atDay(1 + random.nextInt(yearMonth.lengthOfMonth())).atTime(random.nextInt(24), 30);
+            MonthStamps stamps = MonthStamps.of(clockTimes, yearMonth.getYear(), yearMonth.getMonthValue());
+            assertThat(stamps).isEqualTo(clockTimes);
+
+            assertThat(workingTimeCalculator.currentClockType(clockTimes)).isEqualTo(legacyClockType(clockTimes));
+            assertThat(workingTimeCalculator.overtimeMinutes(clockTimes, yearMonth.getYear(), yearMonth.getMonthValue(), now))
+                    .isEqualTo(legacyOvertime(clockTimes, yearMonth.getYear(), yearMonth.getMonthValue(), now));
+            assertThat(workingTimeCalculator.overtimeMinutes(clockTimes, null, null, now)).isEqualTo(
+                    legacyOvertime(clockTimes, null, null, now));
+            assertThat(workingTimeCalculator.overtimeMinutes(clockTimes, yearMonth.getYear(), null, now)).isEqualTo(
+                    legacyOvertime(clockTimes, yearMonth.getYear(), null, now));
+            for (int day = 1; day <= yearMonth.lengthOfMonth(); day++) {
+                int dom = day;
+                List<ClockTime> clockTimesOfDay = clockTimes.stream()
+                                                            .filter(c -> c.getDate().getDayOfMonth() == dom
+                                                                    && YearMonth.from(c.getDate()).equals(yearMonth))
+                                                            .collect(Collectors.toList());
+                if (clockTimesOfDay.isEmpty()) {
+                    continue;
+                }
+                assertThat(workingTimeCalculator.workedMinutes(clockTimesOfDay)).isEqualTo(legacyOverallMinutes(clockTimesOfDay));
+                List<ClockTime> sortedDay = new ArrayList<>(clockTimesOfDay);
+                Collections.sort(sortedDay);
+                assertThat(stamps.countAtDay(day)).isEqualTo(clockTimesOfDay.size());
+                assertThat(workingTimeCalculator.workedMinutes(stamps, day)).isEqualTo(legacyOverallMinutes(sortedDay));
+                ClockTime clockOut = new ClockTime().setDate(clockTimesOfDay.get(0).getDate().withHour(23).withMinute(59));
+                List<ClockTime> withClockOut = new ArrayList<>(clockTimesOfDay);
+                withClockOut.add(clockOut);
+                assertThat(workingTimeCalculator.workedMinutes(clockTimesOfDay, clockOut)).isEqualTo(
+                        legacyOverallMinutes(withClockOut));
+            }
+        }
+    }
+
+    @Test
+    void whenDayIsClockedInAndOutWithPause_thenPauseIsSubtracted() {
+        LocalDateTime day = LocalDateTime.of(2022, 1, 5, 0, 0);
+        List<ClockTime> clockTimes = List.of(new ClockTime().setDate(day.withHour(9)), new ClockTime().setDate(day.withHour(17)),
+                new ClockTime().setDate(day.withHour(17)).setPause(30));
+
+        assertThat(workingTimeCalculator.workedMinutes(clockTimes)).isEqualTo(450);
+        assertThat(workingTimeCalculator.overtimeMinutes(clockTimes, 2022, 1, day)).isEqualTo(-30);
+    }
+
+    private static List<ClockTime> randomMonth(Random random, YearMonth yearMonth) {
+        List<ClockTime> clockTimes = new ArrayList<>();
+        int days = random.nextInt(yearMonth.lengthOfMonth() + 1);
+        for (int i = 0; i < days; i++) {
+            int day = 1 + random.nextInt(yearMonth.lengthOfMonth());
+            int stamps = random.nextInt(7);
+            for (int s = 0; s < stamps; s++) {
+                ClockTime clockTime = new ClockTime().setDate(yearMonth.atDay(day).atTime(random.nextInt(24), random.nextInt(60)));
+                if (random.nextInt(6) == 0) {
+                    clockTime.setPause(random.nextInt(90));
+                }
+                clockTimes.add(clockTime);
+            }
+        }
+        if (random.nextInt(4) == 0) {
+            YearMonth otherMonth = yearMonth.plusMonths(random.nextBoolean() ? 1 : -1);
+            clockTimes.add(new ClockTime().setDate(otherMonth.atDay(1).atTime(8, 0)));
+        }
+        if (random.nextBoolean()) {
+            Collections.sort(clockTimes);
+        } else {
+            Collections.shuffle(clockTimes, random);
+        }
+        return clockTimes;
+    }
+
+    // reference implementation: the per-day stream filtering the calculator replaced
+
+    private static ClockType legacyClockType(List<ClockTime> clockTimes) {
+        List<ClockTime> clockTimesWithoutPause = clockTimes.stream().filter(c -> c.getPause() == null).collect(Collectors.toList());
+        if (clockTimesWithoutPause.size() % 2 == 0) {
+            return ClockType.CLOCK_OUT;
+        }
+        return ClockType.CLOCK_IN;
+    }
+
+    private static int legacyOvertime(List<ClockTime> clockTimes, Integer year, Integer month, LocalDateTime now) {
+        final ClockTime currentMonth;
+        if (year != null && month != null) {
+            currentMonth = new ClockTime().setDate(LocalDateTime.of(year, month, 1, 0, 0));
+        } else {
+            currentMonth = new ClockTime().setDate(now);
+        }
+        final int monthInteger = Objects.requireNonNullElseGet(month, () -> currentMonth.getDate().getMonthValue());
+        final int yearInteger = Objects.requireNonNullElseGet(year, () -> currentMonth.getDate().getYear());
+        List<ClockTime> allClocksThisMonth = new ArrayList<>(clockTimes).stream()
+                                                                        .filter(clockTime ->
+                                                                                clockTime.getDate().getMonthValue() == monthInteger
+                                                                                        && clockTime.getDate().getYear() == yearInteger)
+                                                                        .collect(Collectors.toList());
+        if (month == null && legacyClockType(clockTimes) == ClockType.CLOCK_IN) {
+            if (!allClocksThisMonth.isEmpty()) {
+                allClocksThisMonth.remove(allClocksThisMonth.size() - 1);
+            }
+        }
+        int dayOfMonth = month == null ? currentMonth.getDate().getDayOfMonth() : 31;
+        int overallWorkedMinutes = 0;
+        for (int i = 1; i <= dayOfMonth; i++) {
+            final int dom = i;
+            List<ClockTime> clocksAtDay = allClocksThisMonth.stream()
+                                                            .filter(clockTime -> clockTime.getDate().getDayOfMonth() == dom)
+                                                            .collect(Collectors.toList());
+            if (clocksAtDay.isEmpty()) {
+                overallWorkedMinutes += HOURS_TO_WORK_PER_DAY_IN_MINUTES;
+            } else {
+                overallWorkedMinutes += legacyOverallMinutes(clocksAtDay);
+            }
+        }
+        return overallWorkedMinutes - dayOfMonth * HOURS_TO_WORK_PER_DAY_IN_MINUTES;
+    }
+
+    private static int legacyOverallMinutes(List<ClockTime> todayClockTimes) {
+        int allPausesOnDay = todayClockTimes.stream().map(ClockTime::getPause).filter(Objects::nonNull).mapToInt(Integer::intValue).sum();
+        List<ClockTime> todayClocksReverse = todayClockTimes.stream().filter(c -> c.getPause() == null).collect(Collectors.toList());
+        Collections.reverse(todayClocksReverse);
+        if (todayClocksReverse.size() % 2 == 1 || todayClocksReverse.isEmpty()) {
+            return HOURS_TO_WORK_PER_DAY_IN_MINUTES;
+        }
+        LocalDateTime lastClock = todayClocksReverse.get(0).getDate();
+        int overallWorkedMinutes = 0;
+        for (int i = 1; i < todayClocksReverse.size(); i++) {
+            if (i % 2 == 0) {
+                lastClock = todayClocksReverse.get(i).getDate();
+                continue;
+            }
+            int minutes1 = lastClock.getHour() * 60 + lastClock.getMinute();
+            lastClock = todayClocksReverse.get(i).getDate();
+            int minutes2 = lastClock.getHour() * 60 + lastClock.getMinute();
+            overallWorkedMinutes += minutes1 - minutes2;
+        }
+        return overallWorkedMinutes - allPausesOnDay;
+    }
+}
@@ -0,0 +1,91 @@
+package de.trundicho.timeclockstamper.core;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.trundicho.timeclockstamper.core.adapters.persistence.FileMonthAggregatePersistence;
+import de.trundicho.timeclockstamper.core.adapters.persistence.FilePersistence;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTime;
+import de.trundicho.timeclockstamper.core.domain.model.ClockTimeData;
+import de.trundicho.timeclockstamper.core.service.TimeClockStamperService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkingTimeIndexTest {
+
+    private static final String TIME_ZONE = "Europe/Berlin";
+    private static final int THREADS = 8;
+    private static final int DAYS_PER_THREAD = 20;
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void whenDaysAreSet_thenIndexedOvertimeMatchesFullRecomputation() {
+        FilePersistence filePersistence = new FilePersistence(folder.toString() + "/", "clockTime-list.json", TIME_ZONE);
+        FileMonthAggregatePersistence aggregatePersistence = new FileMonthAggregatePersistence(folder.toString() + "/",
+                "clockTime-aggregate.json");
+        TimeClockStamperService indexed = TimeClockStamperService.builder(filePersistence).timeZone(TIME_ZONE).monthAggregatePersistence(aggregatePersistence).build();
+        TimeClockStamperService unindexed = new TimeClockStamperService(TIME_ZONE, filePersistence);
+
+        indexed.setDay(day(3, 8, 0, 17, 30), 2021, 6, 3);
+        indexed.setDay(day(4, 9, 0, 16, 0), 2021, 6, 4);
+        assertThat(indexed.getOvertimeMonth(2021, 6)).isEqualTo("00h30m");
+        indexed.setDay(day(3, 8, 0, 16, 0), 2021, 6, 3);
+
+        assertThat(indexed.getOvertimeMonth(2021, 6)).isEqualTo("-01h00m");
+        assertThat(Files.exists(folder.resolve("2021-06-clockTime-aggregate.json"))).isTrue();
+        TimeClockStamperService restarted = TimeClockStamperService.builder(filePersistence).timeZone(TIME_ZONE).monthAggregatePersistence(aggregatePersistence).build();
+        assertThat(restarted.getOvertimeMonth(2021, 6)).isEqualTo(unindexed.getOvertimeMonth(2021, 6));
+    }
+
+    @Test
+    void whenSameLengthDaysAreSetConcurrently_thenIndexedOvertimeMatchesFullRecomputation() throws Exception {
+        FilePersistence filePersistence = new FilePersistence(folder.toString() + "/", "clockTime-list.json", TIME_ZONE);
+        FileMonthAggregatePersistence aggregatePersistence = new FileMonthAggregatePersistence(folder.toString() + "/",
+                "clockTime-aggregate.json");
+        TimeClockStamperService indexed = TimeClockStamperService.builder(filePersistence).timeZone(TIME_ZONE).monthAggregatePersistence(aggregatePersistence).build();
+        TimeClockStamperService otherInstance = TimeClockStamperService.builder(filePersistence).timeZone(TIME_ZONE).monthAggregatePersistence(aggregatePersistence).build();
+        indexed.setDay(day(4, 9, 0, 16, 0), 2021, 6, 4);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            TimeClockStamperService service = i % 2 == 0 ? indexed : otherInstance;
+            int endHour = 14 + i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int n = 0; n < DAYS_PER_THREAD; n++) {
+                    service.setDay(day(3, 8, 0, endHour, n), 2021, 6, 3);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        TimeClockStamperService recomputed = new TimeClockStamperService(TIME_ZONE, filePersistence);
+        assertThat(indexed.getOvertimeMonth(2021, 6)).isEqualTo(recomputed.getOvertimeMonth(2021, 6));
+        assertThat(otherInstance.getOvertimeMonth(2021, 6)).isEqualTo(recomputed.getOvertimeMonth(2021, 6));
+    }
+
+    private static ClockTimeData day(int day, int fromHour, int fromMinute, int toHour, int toMinute) {
+        List<ClockTime> clockTimes = new ArrayList<>();
+        clockTimes.add(new ClockTime().setDate(LocalDateTime.of(2021, 6, day, fromHour, fromMinute)));
+        clockTimes.add(new ClockTime().setDate(LocalDateTime.of(2021, 6, day, toHour, toMinute)));
+        return new ClockTimeData().setClockTimes(clockTimes);
+    }
+}